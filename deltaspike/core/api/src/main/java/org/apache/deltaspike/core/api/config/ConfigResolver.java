@@ -26,12 +26,15 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
 import javax.enterprise.inject.Typed;
 
+import org.apache.deltaspike.core.api.config.base.CoreBaseConfig;
 import org.apache.deltaspike.core.api.projectstage.ProjectStage;
 import org.apache.deltaspike.core.spi.config.ConfigFilter;
 import org.apache.deltaspike.core.spi.config.ConfigSource;
@@ -65,17 +68,27 @@ public final class ConfigResolver
      * The content of this map will get lazily initiated and will hold the
      * sorted List of ConfigSources for each WebApp/EAR, etc (thus the
      * ClassLoader).
+     * The arrays stored in this map never get changed once they are published.
+     * Any modification replaces the whole entry, thus readers don't need any lock.
      */
-    private static Map<ClassLoader, ConfigSource[]> configSources
+    private static final ConcurrentMap<ClassLoader, ConfigSource[]> configSources
         = new ConcurrentHashMap<ClassLoader, ConfigSource[]>();
 
     /**
      * The content of this map will hold the List of ConfigFilters
      * for each WebApp/EAR, etc (thus the ClassLoader).
      */
-    private static Map<ClassLoader, List<ConfigFilter>> configFilters
+    private static final ConcurrentMap<ClassLoader, List<ConfigFilter>> configFilters
         = new ConcurrentHashMap<ClassLoader, List<ConfigFilter>>();
 
+    /**
+     * The content of this map will hold the cache of resolved values
+     * for each WebApp/EAR, etc (thus the ClassLoader).
+     * The cache is only used if it got enabled via {@link CoreBaseConfig.Config.Cache#ENABLED}.
+     */
+    private static final ConcurrentMap<ClassLoader, ConfigValueCache> configValueCaches
+        = new ConcurrentHashMap<ClassLoader, ConfigValueCache>();
+
     private static volatile ProjectStage projectStage = null;
 
     private ConfigResolver()
@@ -102,8 +115,11 @@ public final class ConfigResolver
         allConfigSources.addAll(Arrays.asList(configuredConfigSources));
         allConfigSources.addAll(configSourcesToAdd);
 
-        // finally put all the configSources back into the map
+        // finally publish the new snapshot of all the configSources
         configSources.put(currentClassLoader, sortDescending(allConfigSources));
+
+        // the cache settings might be provided by one of the new ConfigSources
+        configValueCaches.remove(currentClassLoader);
     }
 
     /**
@@ -115,6 +131,59 @@ public final class ConfigResolver
         ClassLoader classLoader = ClassUtils.getClassLoader(null);
         configSources.remove(classLoader);
         configFilters.remove(classLoader);
+        configValueCaches.remove(classLoader);
+    }
+
+    /**
+     * Invalidates all cached values of the current application.
+     * {@link ConfigSource}s which are able to detect changes of their values should call this method
+     * (or {@link #invalidateCachedValue(String)}) if the optional value cache is enabled
+     * via {@link CoreBaseConfig.Config.Cache#ENABLED}.
+     */
+    public static void invalidateCachedValues()
+    {
+        ConfigValueCache configValueCache = configValueCaches.get(ClassUtils.getClassLoader(null));
+
+        if (configValueCache != null)
+        {
+            configValueCache.clear();
+        }
+    }
+
+    /**
+     * Invalidates the cached value of the given key for the current application.
+     * Project-stage and property aware lookups are cached per resolved key (e.g. 'myproject.myconfig.Production'),
+     * therefore all variants of a key which got changed have to be invalidated.
+     *
+     * @param key the property key
+     */
+    public static void invalidateCachedValue(String key)
+    {
+        ConfigValueCache configValueCache = configValueCaches.get(ClassUtils.getClassLoader(null));
+
+        if (configValueCache != null)
+        {
+            configValueCache.remove(key);
+        }
+    }
+
+    /**
+     * @return the number of lookups of the current application which were answered by the value cache
+     */
+    public static long getCacheHitCount()
+    {
+        ConfigValueCache configValueCache = configValueCaches.get(ClassUtils.getClassLoader(null));
+        return configValueCache != null ? configValueCache.hitCount.get() : 0;
+    }
+
+    /**
+     * @return the number of lookups of the current application which had to query the {@link ConfigSource}s
+     *         although the value cache is enabled
+     */
+    public static long getCacheMissCount()
+    {
+        ConfigValueCache configValueCache = configValueCaches.get(ClassUtils.getClassLoader(null));
+        return configValueCache != null ? configValueCache.missCount.get() : 0;
     }
 
     /**
@@ -127,6 +196,9 @@ public final class ConfigResolver
     {
         List<ConfigFilter> currentConfigFilters = getInternalConfigFilters();
         currentConfigFilters.add(configFilter);
+
+        // cached values might have been filtered differently
+        invalidateCachedValues();
     }
 
     /**
@@ -147,7 +219,11 @@ public final class ConfigResolver
         if (currentConfigFilters == null)
         {
             currentConfigFilters = new CopyOnWriteArrayList<ConfigFilter>();
-            configFilters.put(cl, currentConfigFilters);
+            List<ConfigFilter> existingConfigFilters = configFilters.putIfAbsent(cl, currentConfigFilters);
+            if (existingConfigFilters != null)
+            {
+                currentConfigFilters = existingConfigFilters;
+            }
         }
 
         return currentConfigFilters;
@@ -179,6 +255,32 @@ public final class ConfigResolver
      *         no configured value for it
      */
     public static String getPropertyValue(String key)
+    {
+        ConfigValueCache configValueCache = getConfigValueCache();
+
+        if (!configValueCache.enabled)
+        {
+            return resolvePropertyValue(key);
+        }
+
+        // has to be read before the lookup, see ConfigValueCache#put
+        long generation = configValueCache.generation.get();
+        String value = configValueCache.get(key);
+
+        if (value == null)
+        {
+            value = resolvePropertyValue(key);
+            configValueCache.put(key, value, generation);
+        }
+        else if (value == ConfigValueCache.NULL_VALUE)
+        {
+            value = null;
+        }
+
+        return value;
+    }
+
+    private static String resolvePropertyValue(String key)
     {
         ConfigSource[] appConfigSources = getConfigSources();
 
@@ -387,12 +489,31 @@ public final class ConfigResolver
         return Collections.unmodifiableMap(result);
     }
 
-    public static synchronized ConfigSource[] getConfigSources()
+    /**
+     * Returns the sorted {@link ConfigSource}s of the current application.
+     * This method doesn't acquire any lock once the ConfigSources of the current ClassLoader got initialized.
+     *
+     * @return the ConfigSources of the current ClassLoader, sorted by their ordinal in descending order
+     */
+    public static ConfigSource[] getConfigSources()
     {
         ClassLoader currentClassLoader = ClassUtils.getClassLoader(null);
 
         ConfigSource[] appConfigSources = configSources.get(currentClassLoader);
 
+        if (appConfigSources == null)
+        {
+            appConfigSources = initConfigSources(currentClassLoader);
+        }
+
+        return appConfigSources;
+    }
+
+    private static synchronized ConfigSource[] initConfigSources(ClassLoader currentClassLoader)
+    {
+        // double check - another thread might have initialized the ConfigSources in the meantime
+        ConfigSource[] appConfigSources = configSources.get(currentClassLoader);
+
         if (appConfigSources == null)
         {
             appConfigSources = sortDescending(resolveConfigSources());
@@ -412,6 +533,60 @@ public final class ConfigResolver
         return appConfigSources;
     }
 
+    private static ConfigValueCache getConfigValueCache()
+    {
+        ClassLoader currentClassLoader = ClassUtils.getClassLoader(null);
+
+        ConfigValueCache configValueCache = configValueCaches.get(currentClassLoader);
+
+        if (configValueCache == null)
+        {
+            // the settings of the cache itself are never cached
+            boolean cacheEnabled = Boolean.parseBoolean(resolvePropertyValue(
+                CoreBaseConfig.Config.Cache.ENABLED.getKey(),
+                CoreBaseConfig.Config.Cache.ENABLED.getDefaultValue().toString()));
+            int timeToLive = resolveCacheTimeToLive();
+
+            configValueCache = new ConfigValueCache(cacheEnabled, timeToLive);
+
+            ConfigValueCache existingConfigValueCache =
+                configValueCaches.putIfAbsent(currentClassLoader, configValueCache);
+            if (existingConfigValueCache != null)
+            {
+                configValueCache = existingConfigValueCache;
+            }
+        }
+
+        return configValueCache;
+    }
+
+    private static int resolveCacheTimeToLive()
+    {
+        String timeToLive = resolvePropertyValue(CoreBaseConfig.Config.Cache.TTL.getKey(), null);
+
+        if (timeToLive != null)
+        {
+            try
+            {
+                return Integer.parseInt(timeToLive.trim());
+            }
+            catch (NumberFormatException e)
+            {
+                LOG.log(Level.WARNING, "Invalid value ''{0}'' for {1}, using the default value {2}",
+                    new Object[]{timeToLive, CoreBaseConfig.Config.Cache.TTL.getKey(),
+                        CoreBaseConfig.Config.Cache.TTL.getDefaultValue()});
+            }
+        }
+        return CoreBaseConfig.Config.Cache.TTL.getDefaultValue();
+    }
+
+    private static String resolvePropertyValue(String key, String defaultValue)
+    {
+        String value = resolvePropertyValue(key);
+
+        return fallbackToDefaultIfEmpty(key, value, defaultValue);
+    }
+
     private static List<ConfigSource> resolveConfigSources()
     {
         List<ConfigSource> appConfigSources = ServiceUtils.loadServiceImplementations(ConfigSource.class);
@@ -527,4 +702,91 @@ public final class ConfigResolver
         return logValue;
     }
 
+    /**
+     * Cache for resolved (and filtered) values of a single application.
+     * Not found values are cached as well, to avoid querying slow {@link ConfigSource}s over and over again.
+     */
+    private static class ConfigValueCache
+    {
+        private static final String NULL_VALUE = new String();
+
+        private final boolean enabled;
+        private final int timeToLive;
+
+        private final AtomicLong hitCount = new AtomicLong();
+        private final AtomicLong missCount = new AtomicLong();
+
+        // incremented by every invalidation, to drop values which get resolved in parallel to it
+        private final AtomicLong generation = new AtomicLong();
+
+        private final ConcurrentMap<String, CachedValue> cachedValues =
+            new ConcurrentHashMap<String, CachedValue>();
+
+        private ConfigValueCache(boolean enabled, int timeToLive)
+        {
+            this.enabled = enabled;
+            this.timeToLive = timeToLive;
+        }
+
+        /**
+         * @return the cached value, {@link #NULL_VALUE} if it is cached that no value exists,
+         *         or null if the key isn't cached
+         */
+        private String get(String key)
+        {
+            CachedValue cachedValue = cachedValues.get(key);
+
+            if (cachedValue != null &&
+                (cachedValue.expiresAt == Long.MAX_VALUE || cachedValue.expiresAt > System.currentTimeMillis()))
+            {
+                hitCount.incrementAndGet();
+                return cachedValue.value;
+            }
+
+            missCount.incrementAndGet();
+            return null;
+        }
+
+        /**
+         * @param generation the {@link #generation} read before the value got resolved.
+         *                   If an invalidation happened in the meantime, the (potentially stale) value
+         *                   gets removed again. Invalidations increment the generation before they remove
+         *                   entries, so either the check below or the invalidation itself drops the value.
+         */
+        private void put(String key, String value, long generation)
+        {
+            long expiresAt = timeToLive > 0 ? System.currentTimeMillis() + timeToLive : Long.MAX_VALUE;
+            CachedValue cachedValue = new CachedValue(value != null ? value : NULL_VALUE, expiresAt);
+            cachedValues.put(key, cachedValue);
+
+            if (this.generation.get() != generation)
+            {
+                cachedValues.remove(key, cachedValue);
+            }
+        }
+
+        private void remove(String key)
+        {
+            generation.incrementAndGet();
+            cachedValues.remove(key);
+        }
+
+        private void clear()
+        {
+            generation.incrementAndGet();
+            cachedValues.clear();
+        }
+    }
+
+    private static class CachedValue
+    {
+        private final String value;
+        private final long expiresAt;
+
+        private CachedValue(String value, long expiresAt)
+        {
+            this.value = value;
+            this.expiresAt = expiresAt;
+        }
+    }
 }
@@ -26,10 +26,101 @@ public interface CoreBaseConfig
             new TypedConfig<Boolean>("deltaspike.bean-manager.delegate_lookup", Boolean.TRUE);
     }
 
+    interface Config
+    {
+        interface Cache
+        {
+            /**
+             * Enables the cache of resolved values in
+             * {@link org.apache.deltaspike.core.api.config.ConfigResolver}.
+             */
+            TypedConfig<Boolean> ENABLED =
+                new TypedConfig<Boolean>("deltaspike.config.cache.enabled", Boolean.FALSE);
+
+            /**
+             * Time in milliseconds a resolved value stays in the cache. Values &lt;= 0 keep them until they get
+             * invalidated explicitly.
+             */
+            TypedConfig<Integer> TTL =
+                new TypedConfig<Integer>("deltaspike.config.cache.ttl", -1);
+        }
+
+        interface Jndi
+        {
+            /**
+             * Interval in seconds for re-reading the snapshot of all JNDI values below "java:comp/env/deltaspike/".
+             * 0 reads the snapshot only once. Values &lt; 0 disable the snapshot, every key gets looked up
+             * individually.
+             */
+            TypedConfig<Integer> SNAPSHOT_REFRESH_INTERVAL =
+                new TypedConfig<Integer>("deltaspike.config.jndi.snapshot-refresh-interval", -1);
+        }
+    }
+
+    interface ExceptionControl
+    {
+        interface Async
+        {
+            /**
+             * Invokes exception handlers annotated with
+             * {@link org.apache.deltaspike.core.api.exception.control.NonBlocking} in a separate thread.
+             */
+            TypedConfig<Boolean> ENABLED =
+                new TypedConfig<Boolean>("deltaspike.exception-control.async.enabled", Boolean.FALSE);
+
+            /**
+             * Number of threads which invoke the non-blocking exception handlers.
+             */
+            TypedConfig<Integer> POOL_SIZE =
+                new TypedConfig<Integer>("deltaspike.exception-control.async.pool-size", 1);
+
+            /**
+             * Maximum number of pending handler invocations.
+             */
+            TypedConfig<Integer> QUEUE_SIZE =
+                new TypedConfig<Integer>("deltaspike.exception-control.async.queue-size", 1000);
+
+            /**
+             * Behaviour if the queue is full: "drop" skips the handler invocation,
+             * "caller-runs" invokes the handler in the thread which handles the exception.
+             */
+            TypedConfig<String> REJECTION_POLICY =
+                new TypedConfig<String>("deltaspike.exception-control.async.rejection-policy", "drop");
+
+            /**
+             * JNDI name of the ManagedExecutorService which is used instead of an own thread-pool, if it exists.
+             * The pool-size and queue-size don't apply to it.
+             */
+            TypedConfig<String> MANAGED_EXECUTOR =
+                new TypedConfig<String>("deltaspike.exception-control.async.managed-executor",
+                    "java:comp/DefaultManagedExecutorService");
+        }
+    }
+
     interface Interceptor
     {
         TypedConfig<Integer> PRIORITY =
             new TypedConfig<Integer>("deltaspike.interceptor.priority", 0);
+
+        /**
+         * Keeps the interceptor instances of manually intercepted DeltaSpike proxies (e.g. partial-beans)
+         * for the lifetime of the proxy instead of creating and destroying them for every invocation.
+         */
+        TypedConfig<Boolean> REUSE_MANUAL_INTERCEPTOR_INSTANCES =
+            new TypedConfig<Boolean>("deltaspike.interceptor.reuse-manual-interceptor-instances", Boolean.FALSE);
+    }
+
+    interface Message
+    {
+        interface Cache
+        {
+            /**
+             * Enables the cache of the messages resolved from the message-sources. If it isn't configured, the cache
+             * is used in all project-stages except Development. Disable it for resource-bundles which get reloaded.
+             */
+            TypedConfig<Boolean> ENABLED =
+                new TypedConfig<Boolean>("deltaspike.message.cache.enabled", null, Boolean.class);
+        }
     }
 
     interface MBean
@@ -40,10 +131,62 @@ public interface CoreBaseConfig
 
     interface Scope
     {
+        /**
+         * Limits for the storages of the window-, grouped-conversation- and view-access-scope.
+         */
+        interface Storage
+        {
+            /**
+             * Max. estimated size in kilobytes of the contextual instances of a storage-holder (all windows of a
+             * session, all conversations or view-access-scoped beans of a window). If it gets exceeded, the oldest
+             * storages (e.g. windows) which aren't used by a running request get destroyed.
+             * Values &lt;= 0 disable the limit.
+             */
+            TypedConfig<Integer> MAX_SIZE =
+                new TypedConfig<Integer>("deltaspike.scope.storage.max-size", -1);
+
+            /**
+             * Estimated size in bytes of a contextual instance. It can be configured per bean-class by
+             * appending "." and the name of the bean-class to the key.
+             */
+            TypedConfig<Integer> ESTIMATED_BEAN_SIZE =
+                new TypedConfig<Integer>("deltaspike.scope.storage.estimated-bean-size", 1024);
+
+            /**
+             * Tracks the storage-holders of all sessions for the statistics of the MBean "ContextualStorages".
+             */
+            TypedConfig<Boolean> STATISTICS_ENABLED =
+                new TypedConfig<Boolean>("deltaspike.scope.storage.statistics.enabled", Boolean.FALSE);
+        }
+
         interface Window
         {
             TypedConfig<Integer> MAX_COUNT =
                 new TypedConfig<Integer>("deltaspike.scope.window.max-count", 1024);
+
+            /**
+             * Time in seconds after which a window-context which wasn't used gets destroyed.
+             * Values &lt;= 0 disable the expiry (window-contexts get destroyed only if the max-count is exceeded).
+             */
+            TypedConfig<Integer> MAX_IDLE_TIME =
+                new TypedConfig<Integer>("deltaspike.scope.window.max-idle-time", -1);
+
+            /**
+             * Time in seconds after which the contextual instances of a window which wasn't used get serialized to the
+             * {@link org.apache.deltaspike.core.spi.scope.window.WindowContextPassivationStore} and removed from the
+             * session. They get restored once the window is used again. Values &lt;= 0 disable the passivation.
+             */
+            TypedConfig<Integer> PASSIVATION_IDLE_TIME =
+                new TypedConfig<Integer>("deltaspike.scope.window.passivation-idle-time", -1);
+
+            /**
+             * Directory used by the default
+             * {@link org.apache.deltaspike.core.spi.scope.window.WindowContextPassivationStore}.
+             * If it isn't set, a new directory (only accessible by the owner of the process) gets created in
+             * "java.io.tmpdir" for every application.
+             */
+            TypedConfig<String> PASSIVATION_DIRECTORY =
+                new TypedConfig<String>("deltaspike.scope.window.passivation-directory", "");
         }
     }
 }
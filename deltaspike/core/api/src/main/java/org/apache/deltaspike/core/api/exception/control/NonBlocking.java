@@ -0,0 +1,46 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.deltaspike.core.api.exception.control;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks an exception handler method which doesn't need to control the flow of the exception handling
+ * (e.g. handlers for alerting or logging).
+ * <p>
+ * If the asynchronous exception handling is enabled via
+ * {@link org.apache.deltaspike.core.api.config.base.CoreBaseConfig.ExceptionControl.Async#ENABLED},
+ * such handlers get invoked in a separate thread. Any flow control requested by them (e.g.
+ * {@link org.apache.deltaspike.core.api.exception.control.event.ExceptionEvent#abort()}) is ignored
+ * and the handler is treated as if it had called
+ * {@link org.apache.deltaspike.core.api.exception.control.event.ExceptionEvent#handledAndContinue()}.
+ * Only beans of contexts which are active in the executing thread (e.g. application scoped beans) can be used by them.
+ * </p>
+ * Without the asynchronous exception handling, the handler is invoked like any other handler.
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+@Documented
+public @interface NonBlocking
+{
+}
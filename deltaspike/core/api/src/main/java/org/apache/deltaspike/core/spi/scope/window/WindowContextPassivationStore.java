@@ -0,0 +1,46 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.deltaspike.core.spi.scope.window;
+
+import java.io.Serializable;
+
+/**
+ * Stores the serialized contextual instances of inactive windows, if the passivation of windows is enabled via
+ * {@link org.apache.deltaspike.core.api.config.base.CoreBaseConfig.Scope.Window#PASSIVATION_IDLE_TIME}.
+ * A custom implementation can be provided via the std. CDI mechanisms (e.g. as alternative).
+ */
+public interface WindowContextPassivationStore extends Serializable
+{
+    /**
+     * @param key unique key of the passivated window
+     * @param windowState serialized contextual instances of the window
+     */
+    void store(String key, byte[] windowState);
+
+    /**
+     * @param key unique key of the passivated window
+     * @return the serialized contextual instances of the window or null if there are none for the given key
+     */
+    byte[] load(String key);
+
+    /**
+     * @param key unique key of the passivated window
+     */
+    void remove(String key);
+}
@@ -31,9 +31,10 @@ public class ContextualInstanceInfo<T> implements Serializable
     private static final long serialVersionUID = 6384932199958645324L;
 
     /**
-     * The actual Contextual Instance in the context
+     * The actual Contextual Instance in the context.
+     * It's volatile to allow reading it without a lock, once it was created.
      */
-    private T contextualInstance;
+    private volatile T contextualInstance;
 
     /**
      * We need to store the CreationalContext as we need it for
@@ -97,26 +97,43 @@ public class ContextualStorage implements Serializable
         if (isConcurrent())
         {
             // locked approach
-            ContextualInstanceInfo<T> instanceInfo = new ContextualInstanceInfo<T>();
-
             ConcurrentMap<Object, ContextualInstanceInfo<?>> concurrentMap
                 = (ConcurrentHashMap<Object, ContextualInstanceInfo<?>>) contextualInstances;
 
-            ContextualInstanceInfo<T> oldInstanceInfo
-                = (ContextualInstanceInfo<T>) concurrentMap.putIfAbsent(beanKey, instanceInfo);
+            ContextualInstanceInfo<T> instanceInfo = (ContextualInstanceInfo<T>) concurrentMap.get(beanKey);
+
+            if (instanceInfo == null)
+            {
+                instanceInfo = new ContextualInstanceInfo<T>();
 
-            if (oldInstanceInfo != null)
+                ContextualInstanceInfo<T> oldInstanceInfo
+                    = (ContextualInstanceInfo<T>) concurrentMap.putIfAbsent(beanKey, instanceInfo);
+
+                if (oldInstanceInfo != null)
+                {
+                    instanceInfo = oldInstanceInfo;
+                }
+            }
+            else
             {
-                instanceInfo = oldInstanceInfo;
+                // fast path - no lock needed if the instance was created already
+                T instance = instanceInfo.getContextualInstance();
+                if (instance != null)
+                {
+                    return instance;
+                }
             }
+
+            // the lock is per bean, so different beans can be created concurrently
             synchronized (instanceInfo)
             {
                 T instance = instanceInfo.getContextualInstance();
                 if (instance == null)
                 {
                     instance = bean.create(creationalContext);
-                    instanceInfo.setContextualInstance(instance);
+                    // set the creational-context first, since the instance gets read without a lock
                     instanceInfo.setCreationalContext(creationalContext);
+                    instanceInfo.setContextualInstance(instance);
                 }
 
                 return instance;
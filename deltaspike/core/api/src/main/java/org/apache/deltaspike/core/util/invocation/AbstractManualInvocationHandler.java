@@ -22,13 +22,17 @@ import java.lang.annotation.Annotation;
 import java.lang.reflect.InvocationHandler;
 import java.lang.reflect.Method;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.ConcurrentMap;
 import javax.enterprise.inject.Typed;
 import javax.enterprise.inject.spi.BeanManager;
 import javax.enterprise.inject.spi.InterceptionType;
 import javax.enterprise.inject.spi.Interceptor;
 import javax.interceptor.InterceptorBinding;
 import org.apache.deltaspike.core.api.provider.BeanManagerProvider;
+import org.apache.deltaspike.core.util.proxy.InterceptorCacheAwareProxy;
+import org.apache.deltaspike.core.util.proxy.InterceptorInstancesAwareProxy;
 
 @Typed
 public abstract class AbstractManualInvocationHandler implements InvocationHandler
@@ -36,13 +40,13 @@ public abstract class AbstractManualInvocationHandler implements InvocationHandl
     @Override
     public Object invoke(Object proxy, Method method, Object[] parameters) throws Throwable
     {
-        List<Interceptor<?>> interceptors = resolveInterceptors(proxy, method);
-        if (interceptors != null && interceptors.size() > 0)
+        List<Interceptor<?>> interceptors = getInterceptors(proxy, method);
+        if (!interceptors.isEmpty())
         {
             try
             {
-                ManualInvocationContext invocationContext =
-                        new ManualInvocationContext(this, interceptors, proxy, method, parameters, null);
+                ManualInvocationContext invocationContext = new ManualInvocationContext(
+                        this, interceptors, proxy, method, parameters, null, getInterceptorInstances(proxy));
 
                 Object returnValue = invocationContext.proceed();
 
@@ -64,6 +68,60 @@ public abstract class AbstractManualInvocationHandler implements InvocationHandl
 
     protected abstract Object proceedOriginal(Object proxy, Method method, Object[] parameters) throws Throwable;
 
+    /**
+     * The result is cached in the proxy class, if the given instance is a {@link InterceptorCacheAwareProxy}.
+     * The handlers are usually static singletons and might be shared by several applications (e.g. if DeltaSpike is
+     * provided in a shared ClassLoader), therefore they don't hold a cache on their own.
+     *
+     * @return the (cached) result of {@link #resolveInterceptors(Object, Method)}, never <code>null</code>
+     */
+    protected List<Interceptor<?>> getInterceptors(Object instance, Method method)
+    {
+        ConcurrentMap<Method, List<Interceptor<?>>> interceptorsOfClass = null;
+
+        if (instance instanceof InterceptorCacheAwareProxy)
+        {
+            interceptorsOfClass = ((InterceptorCacheAwareProxy) instance).getInterceptorCache();
+        }
+
+        List<Interceptor<?>> interceptors = interceptorsOfClass == null ? null : interceptorsOfClass.get(method);
+
+        if (interceptors == null)
+        {
+            interceptors = resolveInterceptors(instance, method);
+
+            if (interceptors == null || interceptors.isEmpty())
+            {
+                interceptors = Collections.emptyList();
+            }
+            else
+            {
+                interceptors = Collections.unmodifiableList(new ArrayList<Interceptor<?>>(interceptors));
+            }
+
+            if (interceptorsOfClass != null)
+            {
+                interceptorsOfClass.put(method, interceptors);
+            }
+        }
+
+        return interceptors;
+    }
+
+    /**
+     * @return the interceptor instances bound to the given proxy or <code>null</code> if the interceptor instances
+     *         should be created and destroyed for every invocation
+     */
+    protected ManualInvocationInterceptorInstances getInterceptorInstances(Object instance)
+    {
+        if (instance instanceof InterceptorInstancesAwareProxy)
+        {
+            return ((InterceptorInstancesAwareProxy) instance).getInterceptorInstances();
+        }
+
+        return null;
+    }
+
     protected List<Interceptor<?>> resolveInterceptors(Object instance, Method method)
     {
         Annotation[] interceptorBindings = extractInterceptorBindings(instance, method);
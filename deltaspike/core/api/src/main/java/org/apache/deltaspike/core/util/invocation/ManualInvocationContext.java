@@ -42,6 +42,7 @@ public class ManualInvocationContext<T, H> implements InvocationContext
     protected Map<String, Object> contextData;
     protected Object timer;
     protected AbstractManualInvocationHandler manualInvocationHandler;
+    protected ManualInvocationInterceptorInstances interceptorInstances;
 
     protected BeanManager beanManager;
 
@@ -50,8 +51,20 @@ public class ManualInvocationContext<T, H> implements InvocationContext
 
     public ManualInvocationContext(AbstractManualInvocationHandler manualInvocationHandler,
             List<Interceptor<H>> interceptors, T target, Method method, Object[] parameters, Object timer)
+    {
+        this(manualInvocationHandler, interceptors, target, method, parameters, timer, null);
+    }
+
+    /**
+     * @param interceptorInstances the interceptor instances of the target or <code>null</code>,
+     *                             if the interceptors should be created and destroyed for every invocation
+     */
+    public ManualInvocationContext(AbstractManualInvocationHandler manualInvocationHandler,
+            List<Interceptor<H>> interceptors, T target, Method method, Object[] parameters, Object timer,
+            ManualInvocationInterceptorInstances interceptorInstances)
     {
         this.manualInvocationHandler = manualInvocationHandler;
+        this.interceptorInstances = interceptorInstances;
         this.interceptors = interceptors;
         this.target = target;
         this.method = method;
@@ -103,6 +116,20 @@ public class ManualInvocationContext<T, H> implements InvocationContext
             return null;
         }
 
+        if (interceptors.size() > interceptorIndex && interceptorInstances != null)
+        {
+            // lazy init beanManager
+            if (beanManager == null)
+            {
+                beanManager = BeanManagerProvider.getInstance().getBeanManager();
+            }
+
+            Interceptor<H> interceptor = interceptors.get(interceptorIndex++);
+            H interceptorInstance = interceptorInstances.getInterceptorInstance(interceptor, beanManager);
+
+            return interceptor.intercept(InterceptionType.AROUND_INVOKE, interceptorInstance, this);
+        }
+
         if (interceptors.size() > interceptorIndex)
         {
             Interceptor<H> interceptor = null;
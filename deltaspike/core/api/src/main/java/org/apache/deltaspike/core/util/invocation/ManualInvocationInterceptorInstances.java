@@ -0,0 +1,90 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.deltaspike.core.util.invocation;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import javax.enterprise.context.spi.CreationalContext;
+import javax.enterprise.inject.Typed;
+import javax.enterprise.inject.spi.BeanManager;
+import javax.enterprise.inject.spi.Interceptor;
+
+/**
+ * Holds the interceptor instances used by {@link ManualInvocationContext} for a single proxy instance.
+ * Like with container-managed interceptors, the instances live as long as the intercepted instance
+ * and get destroyed via {@link #destroy()}.
+ */
+@Typed
+public class ManualInvocationInterceptorInstances
+{
+    private final Map<Interceptor<?>, Object> interceptorInstances = new ConcurrentHashMap<Interceptor<?>, Object>();
+    private final Map<Interceptor<?>, CreationalContext<?>> creationalContexts =
+            new ConcurrentHashMap<Interceptor<?>, CreationalContext<?>>();
+
+    public <H> H getInterceptorInstance(Interceptor<H> interceptor, BeanManager beanManager)
+    {
+        H interceptorInstance = (H) interceptorInstances.get(interceptor);
+
+        if (interceptorInstance == null)
+        {
+            interceptorInstance = createInterceptorInstance(interceptor, beanManager);
+        }
+
+        return interceptorInstance;
+    }
+
+    private synchronized <H> H createInterceptorInstance(Interceptor<H> interceptor, BeanManager beanManager)
+    {
+        H interceptorInstance = (H) interceptorInstances.get(interceptor);
+
+        if (interceptorInstance == null)
+        {
+            CreationalContext<H> creationalContext = beanManager.createCreationalContext(interceptor);
+            interceptorInstance = interceptor.create(creationalContext);
+
+            creationalContexts.put(interceptor, creationalContext);
+            interceptorInstances.put(interceptor, interceptorInstance);
+        }
+
+        return interceptorInstance;
+    }
+
+    public synchronized void destroy()
+    {
+        for (Map.Entry<Interceptor<?>, CreationalContext<?>> entry : creationalContexts.entrySet())
+        {
+            destroyInterceptorInstance((Interceptor) entry.getKey(), (CreationalContext) entry.getValue());
+        }
+
+        interceptorInstances.clear();
+        creationalContexts.clear();
+    }
+
+    private <H> void destroyInterceptorInstance(Interceptor<H> interceptor, CreationalContext<H> creationalContext)
+    {
+        H interceptorInstance = (H) interceptorInstances.get(interceptor);
+
+        if (interceptorInstance != null)
+        {
+            interceptor.destroy(interceptorInstance, creationalContext);
+        }
+
+        creationalContext.release();
+    }
+}
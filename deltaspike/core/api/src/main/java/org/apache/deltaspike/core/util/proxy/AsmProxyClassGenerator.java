@@ -25,7 +25,12 @@ import java.lang.reflect.InvocationHandler;
 import java.lang.reflect.UndeclaredThrowableException;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import javax.enterprise.inject.Typed;
+import org.apache.deltaspike.core.util.invocation.ManualInvocationInterceptorInstances;
 import org.objectweb.asm.ClassWriter;
 import org.objectweb.asm.Label;
 import org.objectweb.asm.Opcodes;
@@ -37,9 +42,19 @@ import org.objectweb.asm.commons.Method;
 public abstract class AsmProxyClassGenerator
 {
     private static final String FIELDNAME_DELEGATE_INVOCATION_HANDLER = "delegateInvocationHandler";
+    private static final String FIELDNAME_INTERCEPTOR_INSTANCES = "interceptorInstances";
+    private static final String FIELDNAME_METHOD_PREFIX = "method$";
+    private static final String FIELDNAME_SUPER_ACCESSOR_METHODS = "superAccessorMethods$";
+    private static final String FIELDNAME_INTERCEPTOR_CACHE = "interceptorCache$";
 
     private static final Type TYPE_CLASS = Type.getType(Class.class);
     private static final Type TYPE_OBJECT = Type.getType(Object.class);
+    private static final Type TYPE_METHOD = Type.getType(java.lang.reflect.Method.class);
+    private static final Type TYPE_MAP = Type.getType(Map.class);
+    private static final Type TYPE_HASH_MAP = Type.getType(HashMap.class);
+    private static final Type TYPE_CONCURRENT_MAP = Type.getType(ConcurrentMap.class);
+    private static final Type TYPE_CONCURRENT_HASH_MAP = Type.getType(ConcurrentHashMap.class);
+    private static final Type TYPE_INTERCEPTOR_INSTANCES = Type.getType(ManualInvocationInterceptorInstances.class);
 
     private AsmProxyClassGenerator()
     {
@@ -55,18 +70,35 @@ public abstract class AsmProxyClassGenerator
             java.lang.reflect.Method[] delegateMethods,
             java.lang.reflect.Method[] interceptMethods)
     {
-        String proxyName = targetClass.getCanonicalName() + suffix;
-        String classFileName = proxyName.replace('.', '/');
+        String proxyName = targetClass.getName() + suffix;
 
         byte[] proxyBytes = generateProxyClassBytes(targetClass, invocationHandlerClass,
-                classFileName, superAccessorMethodSuffix, additionalInterfaces, delegateMethods, interceptMethods);
+                suffix, superAccessorMethodSuffix, additionalInterfaces, delegateMethods, interceptMethods);
         
         Class<T> proxyClass = (Class<T>) loadClass(classLoader, proxyName, proxyBytes);
 
         return proxyClass;
     }
 
-    private static byte[] generateProxyClassBytes(Class<?> targetClass,
+    /**
+     * Generates the bytecode of the proxy class without defining it.
+     * The name of the generated class is the name of the target class followed by the given suffix.
+     */
+    public static byte[] generateProxyClassBytes(Class<?> targetClass,
+            Class<? extends InvocationHandler> invocationHandlerClass,
+            String suffix,
+            String superAccessorMethodSuffix,
+            Class<?>[] additionalInterfaces,
+            java.lang.reflect.Method[] delegateMethods,
+            java.lang.reflect.Method[] interceptMethods)
+    {
+        String classFileName = (targetClass.getName() + suffix).replace('.', '/');
+
+        return generateProxyClassBytesForName(targetClass, invocationHandlerClass,
+                classFileName, superAccessorMethodSuffix, additionalInterfaces, delegateMethods, interceptMethods);
+    }
+
+    private static byte[] generateProxyClassBytesForName(Class<?> targetClass,
             Class<? extends InvocationHandler> invocationHandlerClass,
             String proxyName,
             String superAccessorMethodSuffix,
@@ -83,9 +115,12 @@ public abstract class AsmProxyClassGenerator
             interfaces = new String[] { Type.getInternalName(targetClass) };
         }
 
-        // add DeltaSpikeProxy as interface
-        interfaces = Arrays.copyOf(interfaces, interfaces.length + 1);
-        interfaces[interfaces.length - 1] = Type.getInternalName(DeltaSpikeProxy.class);
+        // add DeltaSpikeProxy and the internal proxy interfaces
+        interfaces = Arrays.copyOf(interfaces, interfaces.length + 4);
+        interfaces[interfaces.length - 4] = Type.getInternalName(DeltaSpikeProxy.class);
+        interfaces[interfaces.length - 3] = Type.getInternalName(InterceptorInstancesAwareProxy.class);
+        interfaces[interfaces.length - 2] = Type.getInternalName(SuperAccessorMethodAwareProxy.class);
+        interfaces[interfaces.length - 1] = Type.getInternalName(InterceptorCacheAwareProxy.class);
 
         if (additionalInterfaces != null && additionalInterfaces.length > 0)
         {
@@ -113,27 +148,118 @@ public abstract class AsmProxyClassGenerator
         defineInvocationHandlerField(cw, invocationHandlerType);
         defineConstructor(cw, proxyType, superType);
         defineDeltaSpikeProxyMethods(cw, proxyType, invocationHandlerType);
+        defineSuperAccessorMethodGetter(cw, proxyType);
+        defineInterceptorCacheGetter(cw, proxyType);
+
+        ArrayList<java.lang.reflect.Method> proxiedMethods = new ArrayList<java.lang.reflect.Method>();
 
         for (java.lang.reflect.Method method : delegateMethods)
         {
-            defineMethod(cw, method, DelegateManualInvocationHandler.class);
+            defineMethod(cw, method, DelegateManualInvocationHandler.class, proxyType, proxiedMethods.size());
+            proxiedMethods.add(method);
         }
 
         for (java.lang.reflect.Method method : interceptMethods)
         {
             defineSuperAccessorMethod(cw, method, superType, superAccessorMethodSuffix);
-            defineMethod(cw, method, InterceptManualInvocationHandler.class);
+            defineMethod(cw, method, InterceptManualInvocationHandler.class, proxyType, proxiedMethods.size());
+            proxiedMethods.add(method);
         }
 
+        defineMethodFields(cw, proxyType, proxiedMethods, delegateMethods.length, superAccessorMethodSuffix);
+
         return cw.toByteArray();
     }
 
+    /**
+     * Generates a static field for every proxied method, which gets initialized once in the static initializer.
+     * That avoids a reflective lookup of the method for every invocation.
+     * The super accessor methods of the intercepted methods get stored in a static map of the proxy class.
+     * The interceptors resolved by the invocation handlers get cached in another static map of the proxy class.
+     * <pre>
+     * private static final Method method$0;
+     * private static final Map superAccessorMethods$;
+     * private static final ConcurrentMap interceptorCache$;
+     *
+     * static
+     * {
+     *     method$0 = MyClass.class.getDeclaredMethod("methodName", new Class[] { args... });
+     *     superAccessorMethods$ = new HashMap();
+     *     interceptorCache$ = new ConcurrentHashMap();
+     *     superAccessorMethods$.put(method$0,
+     *         MyClass$$Proxy.class.getDeclaredMethod("methodName$super", new Class[] { args... }));
+     * }
+     * </pre>
+     */
+    private static void defineMethodFields(ClassWriter cw, Type proxyType,
+            ArrayList<java.lang.reflect.Method> proxiedMethods, int firstInterceptMethodIndex,
+            String superAccessorMethodSuffix)
+    {
+        for (int i = 0; i < proxiedMethods.size(); i++)
+        {
+            cw.visitField(Opcodes.ACC_PRIVATE + Opcodes.ACC_STATIC + Opcodes.ACC_FINAL, FIELDNAME_METHOD_PREFIX + i,
+                    TYPE_METHOD.getDescriptor(), null, null).visitEnd();
+        }
+
+        cw.visitField(Opcodes.ACC_PRIVATE + Opcodes.ACC_STATIC + Opcodes.ACC_FINAL, FIELDNAME_SUPER_ACCESSOR_METHODS,
+                TYPE_MAP.getDescriptor(), null, null).visitEnd();
+
+        cw.visitField(Opcodes.ACC_PRIVATE + Opcodes.ACC_STATIC + Opcodes.ACC_FINAL, FIELDNAME_INTERCEPTOR_CACHE,
+                TYPE_CONCURRENT_MAP.getDescriptor(), null, null).visitEnd();
+
+        GeneratorAdapter mg = new GeneratorAdapter(Opcodes.ACC_STATIC,
+                new Method("<clinit>", Type.VOID_TYPE, new Type[]{ }),
+                null,
+                null,
+                cw);
+
+        mg.visitCode();
+
+        for (int i = 0; i < proxiedMethods.size(); i++)
+        {
+            java.lang.reflect.Method method = proxiedMethods.get(i);
+
+            loadCurrentMethod(mg, method, Type.getType(method));
+            mg.putStatic(proxyType, FIELDNAME_METHOD_PREFIX + i, TYPE_METHOD);
+        }
+
+        mg.newInstance(TYPE_HASH_MAP);
+        mg.dup();
+        mg.invokeConstructor(TYPE_HASH_MAP, Method.getMethod("void <init> ()"));
+        mg.putStatic(proxyType, FIELDNAME_SUPER_ACCESSOR_METHODS, TYPE_MAP);
+
+        mg.newInstance(TYPE_CONCURRENT_HASH_MAP);
+        mg.dup();
+        mg.invokeConstructor(TYPE_CONCURRENT_HASH_MAP, Method.getMethod("void <init> ()"));
+        mg.putStatic(proxyType, FIELDNAME_INTERCEPTOR_CACHE, TYPE_CONCURRENT_MAP);
+
+        for (int i = firstInterceptMethodIndex; i < proxiedMethods.size(); i++)
+        {
+            java.lang.reflect.Method method = proxiedMethods.get(i);
+            Type methodType = Type.getType(method);
+
+            mg.getStatic(proxyType, FIELDNAME_SUPER_ACCESSOR_METHODS, TYPE_MAP);
+            mg.getStatic(proxyType, FIELDNAME_METHOD_PREFIX + i, TYPE_METHOD);
+            loadMethod(mg, proxyType, method.getName() + superAccessorMethodSuffix, methodType);
+            mg.invokeInterface(TYPE_MAP, Method.getMethod("Object put(Object, Object)"));
+            mg.pop();
+        }
+
+        mg.returnValue();
+        mg.endMethod();
+    }
+
     private static void defineInvocationHandlerField(ClassWriter cw, Type invocationHandlerType)
     {
         // generates
         // private MyInvocationHandler delegateInvocationHandler;
         cw.visitField(Opcodes.ACC_PRIVATE, FIELDNAME_DELEGATE_INVOCATION_HANDLER,
                 invocationHandlerType.getDescriptor(), null, null).visitEnd();
+
+        // generates
+        // private ManualInvocationInterceptorInstances interceptorInstances;
+        cw.visitField(Opcodes.ACC_PRIVATE, FIELDNAME_INTERCEPTOR_INSTANCES,
+                TYPE_INTERCEPTOR_INSTANCES.getDescriptor(), null, null).visitEnd();
     }
 
     private static void defineConstructor(ClassWriter cw, Type proxyType, Type superType)
@@ -188,6 +314,37 @@ public abstract class AsmProxyClassGenerator
 
             mg.visitMaxs(2, 1);
             mg.visitEnd();
+
+
+            // implement #setInterceptorInstances
+            asmMethod = Method.getMethod(InterceptorInstancesAwareProxy.class.getDeclaredMethod(
+                    "setInterceptorInstances", ManualInvocationInterceptorInstances.class));
+            mg = new GeneratorAdapter(Opcodes.ACC_PUBLIC, asmMethod, null, null, cw);
+
+            mg.visitCode();
+
+            mg.loadThis();
+            mg.loadArg(0);
+            mg.putField(proxyType, FIELDNAME_INTERCEPTOR_INSTANCES, TYPE_INTERCEPTOR_INSTANCES);
+            mg.returnValue();
+
+            mg.visitMaxs(2, 1);
+            mg.visitEnd();
+
+
+            // implement #getInterceptorInstances
+            asmMethod = Method.getMethod(
+                    InterceptorInstancesAwareProxy.class.getDeclaredMethod("getInterceptorInstances"));
+            mg = new GeneratorAdapter(Opcodes.ACC_PUBLIC, asmMethod, null, null, cw);
+
+            mg.visitCode();
+
+            mg.loadThis();
+            mg.getField(proxyType, FIELDNAME_INTERCEPTOR_INSTANCES, TYPE_INTERCEPTOR_INSTANCES);
+            mg.returnValue();
+
+            mg.visitMaxs(2, 1);
+            mg.visitEnd();
         }
         catch (NoSuchMethodException e)
         {
@@ -195,6 +352,55 @@ public abstract class AsmProxyClassGenerator
         }
     }
 
+    private static void defineSuperAccessorMethodGetter(ClassWriter cw, Type proxyType)
+    {
+        try
+        {
+            // implement #getSuperAccessorMethod
+            Method asmMethod = Method.getMethod(SuperAccessorMethodAwareProxy.class.getDeclaredMethod(
+                    "getSuperAccessorMethod", java.lang.reflect.Method.class));
+            GeneratorAdapter mg = new GeneratorAdapter(Opcodes.ACC_PUBLIC, asmMethod, null, null, cw);
+
+            mg.visitCode();
+
+            mg.getStatic(proxyType, FIELDNAME_SUPER_ACCESSOR_METHODS, TYPE_MAP);
+            mg.loadArg(0);
+            mg.invokeInterface(TYPE_MAP, Method.getMethod("Object get(Object)"));
+            mg.checkCast(TYPE_METHOD);
+            mg.returnValue();
+
+            mg.visitMaxs(2, 2);
+            mg.visitEnd();
+        }
+        catch (NoSuchMethodException e)
+        {
+            throw new IllegalStateException("Unable to implement " + SuperAccessorMethodAwareProxy.class.getName(), e);
+        }
+    }
+
+    private static void defineInterceptorCacheGetter(ClassWriter cw, Type proxyType)
+    {
+        try
+        {
+            // implement #getInterceptorCache
+            Method asmMethod = Method.getMethod(
+                    InterceptorCacheAwareProxy.class.getDeclaredMethod("getInterceptorCache"));
+            GeneratorAdapter mg = new GeneratorAdapter(Opcodes.ACC_PUBLIC, asmMethod, null, null, cw);
+
+            mg.visitCode();
+
+            mg.getStatic(proxyType, FIELDNAME_INTERCEPTOR_CACHE, TYPE_CONCURRENT_MAP);
+            mg.returnValue();
+
+            mg.visitMaxs(1, 1);
+            mg.visitEnd();
+        }
+        catch (NoSuchMethodException e)
+        {
+            throw new IllegalStateException("Unable to implement " + InterceptorCacheAwareProxy.class.getName(), e);
+        }
+    }
+
     private static void defineSuperAccessorMethod(ClassWriter cw, java.lang.reflect.Method method, Type superType,
             String superAccessorMethodSuffix) 
     {
@@ -223,7 +429,7 @@ public abstract class AsmProxyClassGenerator
     }
     
     private static void defineMethod(ClassWriter cw, java.lang.reflect.Method method,
-            Class manualInvocationHandlerClass)
+            Class manualInvocationHandlerClass, Type proxyType, int methodIndex)
     {
         Type methodType = Type.getType(method);
         
@@ -256,7 +462,7 @@ public abstract class AsmProxyClassGenerator
         Label tryBlockStart = mg.mark();
 
         mg.loadThis();
-        loadCurrentMethod(mg, method, methodType);
+        mg.getStatic(proxyType, FIELDNAME_METHOD_PREFIX + methodIndex, TYPE_METHOD);
         loadArguments(mg, method, methodType);
         
         // invoke our ProxyInvocationHandler
@@ -334,8 +540,20 @@ public abstract class AsmProxyClassGenerator
      */
     private static void loadCurrentMethod(GeneratorAdapter mg, java.lang.reflect.Method method, Type methodType)
     {
-        mg.push(Type.getType(method.getDeclaringClass()));
-        mg.push(method.getName());
+        loadMethod(mg, Type.getType(method.getDeclaringClass()), method.getName(), methodType);
+    }
+
+    /**
+     * Generates:
+     * <pre>
+     * Method method =
+     *      DeclaringClass.class.getDeclaredMethod("methodName", new Class[] { args... });
+     * </pre>
+     */
+    private static void loadMethod(GeneratorAdapter mg, Type declaringType, String methodName, Type methodType)
+    {
+        mg.push(declaringType);
+        mg.push(methodName);
 
         // create the Class[]
         mg.push(methodType.getArgumentTypes().length);
@@ -402,7 +620,7 @@ public abstract class AsmProxyClassGenerator
      *
      * @return Class<?>
      */
-    private static Class<?> loadClass(ClassLoader loader, String className, byte[] b)
+    static Class<?> loadClass(ClassLoader loader, String className, byte[] b)
     {
         // override classDefine (as it is protected) and define the class.
         try
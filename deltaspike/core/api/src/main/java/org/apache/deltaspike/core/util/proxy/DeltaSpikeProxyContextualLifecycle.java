@@ -27,9 +27,11 @@ import javax.enterprise.inject.spi.Bean;
 import javax.enterprise.inject.spi.BeanManager;
 import javax.enterprise.inject.spi.InjectionTarget;
 import javax.enterprise.inject.spi.PassivationCapable;
+import org.apache.deltaspike.core.api.config.base.CoreBaseConfig;
 import org.apache.deltaspike.core.api.provider.BeanManagerProvider;
 import org.apache.deltaspike.core.api.provider.BeanProvider;
 import org.apache.deltaspike.core.util.ExceptionUtils;
+import org.apache.deltaspike.core.util.invocation.ManualInvocationInterceptorInstances;
 import org.apache.deltaspike.core.util.metadata.builder.ContextualLifecycle;
 
 public class DeltaSpikeProxyContextualLifecycle<T, H extends InvocationHandler> implements ContextualLifecycle<T>
@@ -37,6 +39,7 @@ public class DeltaSpikeProxyContextualLifecycle<T, H extends InvocationHandler>
     private final Class<T> proxyClass;
     private final Class<H> delegateInvocationHandlerClass;
     private final Class<T> targetClass;
+    private final boolean reuseInterceptorInstances;
     
     private InjectionTarget<T> injectionTarget;
     private CreationalContext<?> creationalContextOfDependentHandler;
@@ -47,6 +50,7 @@ public class DeltaSpikeProxyContextualLifecycle<T, H extends InvocationHandler>
         this.targetClass = targetClass;
         this.delegateInvocationHandlerClass = delegateInvocationHandlerClass;
         this.proxyClass = proxyFactory.getProxyClass(targetClass, delegateInvocationHandlerClass);
+        this.reuseInterceptorInstances = CoreBaseConfig.Interceptor.REUSE_MANUAL_INTERCEPTOR_INSTANCES.getValue();
 
         if (!targetClass.isInterface())
         {
@@ -68,6 +72,12 @@ public class DeltaSpikeProxyContextualLifecycle<T, H extends InvocationHandler>
                 ((DeltaSpikeProxy) instance).setDelegateInvocationHandler(delegateInvocationHandler);
             }
 
+            if (this.reuseInterceptorInstances && instance instanceof InterceptorInstancesAwareProxy)
+            {
+                ((InterceptorInstancesAwareProxy) instance)
+                        .setInterceptorInstances(new ManualInvocationInterceptorInstances());
+            }
+
             if (this.injectionTarget != null)
             {
                 this.injectionTarget.inject(instance, creationalContext);
@@ -92,6 +102,16 @@ public class DeltaSpikeProxyContextualLifecycle<T, H extends InvocationHandler>
         {
             this.injectionTarget.preDestroy(instance);
         }
+
+        if (instance instanceof InterceptorInstancesAwareProxy)
+        {
+            ManualInvocationInterceptorInstances interceptorInstances =
+                    ((InterceptorInstancesAwareProxy) instance).getInterceptorInstances();
+            if (interceptorInstances != null)
+            {
+                interceptorInstances.destroy();
+            }
+        }
         
         if (this.creationalContextOfDependentHandler != null)
         {
@@ -26,12 +26,21 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
 import javax.interceptor.InterceptorBinding;
 import org.apache.deltaspike.core.util.ClassUtils;
 
 public abstract class DeltaSpikeProxyFactory
 {
     private static final String SUPER_ACCESSOR_METHOD_SUFFIX = "$super";
+
+    /**
+     * Locks per target class (and therefore per ClassLoader),
+     * so that proxies for different classes can be generated in parallel.
+     * The target classes are weakly referenced, to allow the undeployment of the application.
+     */
+    private final Map<Class<?>, Object> proxyClassLocks = new WeakHashMap<Class<?>, Object>();
     
     public <T> Class<T> getProxyClass(Class<T> targetClass,
             Class<? extends InvocationHandler> invocationHandlerClass)
@@ -45,46 +54,97 @@ public abstract class DeltaSpikeProxyFactory
         return proxyClass;
     }
 
-    private synchronized <T> Class<T> createProxyClass(ClassLoader classLoader, Class<T> targetClass,
+    private <T> Class<T> createProxyClass(ClassLoader classLoader, Class<T> targetClass,
+            Class<? extends InvocationHandler> invocationHandlerClass)
+    {
+        Object lock;
+        synchronized (proxyClassLocks)
+        {
+            lock = proxyClassLocks.get(targetClass);
+            if (lock == null)
+            {
+                lock = new Object();
+                proxyClassLocks.put(targetClass, lock);
+            }
+        }
+
+        // the lock isn't removed afterwards, because a failed generation might get retried concurrently
+        synchronized (lock)
+        {
+            return createProxyClassIfNotExists(classLoader, targetClass, invocationHandlerClass);
+        }
+    }
+
+    private <T> Class<T> createProxyClassIfNotExists(ClassLoader classLoader, Class<T> targetClass,
             Class<? extends InvocationHandler> invocationHandlerClass)
     {
         Class<T> proxyClass = ClassUtils.tryToLoadClassForName(constructProxyClassName(targetClass), targetClass);
         if (proxyClass == null)
         {
-            ArrayList<Method> allMethods = collectAllMethods(targetClass);
-            ArrayList<Method> interceptMethods = filterInterceptMethods(targetClass, allMethods);
-            ArrayList<Method> delegateMethods = getDelegateMethods(targetClass, allMethods);
+            byte[] proxyClassBytes = generateProxyClassBytes(targetClass, invocationHandlerClass);
+
+            proxyClass = (Class<T>) AsmProxyClassGenerator.loadClass(classLoader,
+                    constructProxyClassName(targetClass),
+                    proxyClassBytes);
+        }
 
-            // check if a interceptor is defined on class level. if not, skip interceptor methods
-            if (delegateMethods != null
-                    && interceptMethods.size() > 0
-                    && !containsInterceptorBinding(targetClass.getDeclaredAnnotations()))
+        return proxyClass;
+    }
+
+    /**
+     * Generates the bytecode of the proxy class for the given class, without defining it.
+     * <p>
+     * This allows to create the proxy classes at build time and to package them with the application.
+     * {@link #getProxyClass(Class, Class)} uses an existing class with the name returned by
+     * {@link #getProxyClassName(Class)} as it is, if it can be loaded via the ClassLoader of the target class.
+     * </p>
+     *
+     * @param targetClass the class (or interface) to proxy
+     * @param invocationHandlerClass the handler which gets called for the delegated methods
+     * @return the bytecode of the proxy class
+     */
+    public byte[] generateProxyClassBytes(Class<?> targetClass,
+            Class<? extends InvocationHandler> invocationHandlerClass)
+    {
+        ArrayList<Method> allMethods = collectAllMethods(targetClass);
+        ArrayList<Method> interceptMethods = filterInterceptMethods(targetClass, allMethods);
+        ArrayList<Method> delegateMethods = getDelegateMethods(targetClass, allMethods);
+
+        // check if a interceptor is defined on class level. if not, skip interceptor methods
+        if (delegateMethods != null
+                && interceptMethods.size() > 0
+                && !containsInterceptorBinding(targetClass.getDeclaredAnnotations()))
+        {
+            // loop every method and check if a interceptor is defined on the method -> otherwise don't proxy
+            Iterator<Method> iterator = interceptMethods.iterator();
+            while (iterator.hasNext())
             {
-                // loop every method and check if a interceptor is defined on the method -> otherwise don't proxy
-                Iterator<Method> iterator = interceptMethods.iterator();
-                while (iterator.hasNext())
+                Method method = iterator.next();
+                if (!containsInterceptorBinding(method.getDeclaredAnnotations()))
                 {
-                    Method method = iterator.next();
-                    if (!containsInterceptorBinding(method.getDeclaredAnnotations()))
-                    {
-                        iterator.remove();
-                    }
+                    iterator.remove();
                 }
             }
-            
-            proxyClass = AsmProxyClassGenerator.generateProxyClass(classLoader,
-                    targetClass,
-                    invocationHandlerClass,
-                    getProxyClassSuffix(),
-                    SUPER_ACCESSOR_METHOD_SUFFIX,
-                    getAdditionalInterfacesToImplement(targetClass),
-                    delegateMethods == null ? new Method[0]
-                            : delegateMethods.toArray(new Method[delegateMethods.size()]),
-                    interceptMethods == null ? new Method[0]
-                            : interceptMethods.toArray(new Method[interceptMethods.size()]));
         }
 
-        return proxyClass;
+        return AsmProxyClassGenerator.generateProxyClassBytes(targetClass,
+                invocationHandlerClass,
+                getProxyClassSuffix(),
+                SUPER_ACCESSOR_METHOD_SUFFIX,
+                getAdditionalInterfacesToImplement(targetClass),
+                delegateMethods == null ? new Method[0]
+                        : delegateMethods.toArray(new Method[delegateMethods.size()]),
+                interceptMethods == null ? new Method[0]
+                        : interceptMethods.toArray(new Method[interceptMethods.size()]));
+    }
+
+    /**
+     * @param targetClass the class (or interface) to proxy
+     * @return the name of the proxy class for the given class
+     */
+    public String getProxyClassName(Class<?> targetClass)
+    {
+        return constructProxyClassName(targetClass);
     }
     
     // TODO stereotypes
@@ -113,9 +173,17 @@ public abstract class DeltaSpikeProxyFactory
     
     public static Method getSuperAccessorMethod(Object proxy, Method method) throws NoSuchMethodException
     {
-        return proxy.getClass().getMethod(
-                constructSuperAccessorMethodName(method),
-                method.getParameterTypes());
+        if (proxy instanceof SuperAccessorMethodAwareProxy)
+        {
+            Method superAccessorMethod = ((SuperAccessorMethodAwareProxy) proxy).getSuperAccessorMethod(method);
+            if (superAccessorMethod != null)
+            {
+                return superAccessorMethod;
+            }
+        }
+
+        // e.g. proxies generated by an older version
+        return proxy.getClass().getMethod(constructSuperAccessorMethodName(method), method.getParameterTypes());
     }
     
     /**
@@ -0,0 +1,37 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.deltaspike.core.util.proxy;
+
+import java.lang.reflect.Method;
+import java.util.List;
+import java.util.concurrent.ConcurrentMap;
+import javax.enterprise.inject.spi.Interceptor;
+
+/**
+ * Internal contract of the proxies generated by {@link AsmProxyClassGenerator} which provides a cache for the
+ * resolved interceptors of the proxied methods. The cache is held by the proxy class itself, so it doesn't reference
+ * the ClassLoader of the proxy from the (usually shared) invocation handlers and can be read without a lock.
+ */
+public interface InterceptorCacheAwareProxy
+{
+    /**
+     * @return the resolved interceptors per method, shared by all instances of the proxy class
+     */
+    ConcurrentMap<Method, List<Interceptor<?>>> getInterceptorCache();
+}
@@ -0,0 +1,38 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.deltaspike.core.util.proxy;
+
+import org.apache.deltaspike.core.util.invocation.ManualInvocationInterceptorInstances;
+
+/**
+ * Internal contract of the proxies generated by {@link AsmProxyClassGenerator} which allows to bind the interceptor
+ * instances to a proxy instance. It isn't part of {@link DeltaSpikeProxy} to keep the public contract stable.
+ * Proxies which don't implement it (e.g. proxies generated by an older version) just create the interceptor
+ * instances for every invocation.
+ */
+public interface InterceptorInstancesAwareProxy
+{
+    /**
+     * @param interceptorInstances the interceptor instances which should be used for the whole lifetime of the
+     *                             proxy or <code>null</code> to create them for every invocation
+     */
+    void setInterceptorInstances(ManualInvocationInterceptorInstances interceptorInstances);
+
+    ManualInvocationInterceptorInstances getInterceptorInstances();
+}
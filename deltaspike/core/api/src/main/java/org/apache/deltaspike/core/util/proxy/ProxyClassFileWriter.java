@@ -0,0 +1,123 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.deltaspike.core.util.proxy;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.reflect.InvocationHandler;
+import javax.enterprise.inject.Typed;
+import org.apache.deltaspike.core.util.ClassUtils;
+
+/**
+ * Writes the proxy classes of a {@link DeltaSpikeProxyFactory} as class files, e.g. during the build.
+ * If those class files get packaged with the application, {@link DeltaSpikeProxyFactory#getProxyClass(Class, Class)}
+ * loads them as they are instead of generating the proxy classes at runtime.
+ * <p>
+ * Usage (e.g. via the exec-maven-plugin after the compile phase, with the compiled classes in the classpath):
+ * <pre>
+ * java org.apache.deltaspike.core.util.proxy.ProxyClassFileWriter
+ *      target/classes
+ *      org.apache.deltaspike.partialbean.impl.PartialBeanProxyFactory
+ *      com.acme.MyPartialBeanHandler
+ *      com.acme.MyPartialBean com.acme.MyOtherPartialBean
+ * </pre>
+ * </p>
+ */
+@Typed
+public abstract class ProxyClassFileWriter
+{
+    private ProxyClassFileWriter()
+    {
+        // prevent instantiation
+    }
+
+    /**
+     * @param args the output directory, the class of the {@link DeltaSpikeProxyFactory} (needs a public default
+     *             constructor), the class of the {@link InvocationHandler} and the target classes
+     * @throws Exception if a class can't be loaded or a class file can't be written
+     */
+    public static void main(String[] args) throws Exception
+    {
+        if (args.length < 4)
+        {
+            throw new IllegalArgumentException("Usage: " + ProxyClassFileWriter.class.getName() +
+                    " <outputDirectory> <proxyFactoryClass> <invocationHandlerClass> <targetClass>...");
+        }
+
+        File outputDirectory = new File(args[0]);
+        DeltaSpikeProxyFactory proxyFactory = (DeltaSpikeProxyFactory) ClassUtils.instantiateClassForName(args[1]);
+        Class<? extends InvocationHandler> invocationHandlerClass = loadClass(args[2]);
+
+        for (int i = 3; i < args.length; i++)
+        {
+            writeProxyClass(proxyFactory, loadClass(args[i]), invocationHandlerClass, outputDirectory);
+        }
+    }
+
+    /**
+     * Writes the class file of the proxy class for the given target class.
+     *
+     * @param proxyFactory the factory which would create the proxy class at runtime
+     * @param targetClass the class (or interface) to proxy
+     * @param invocationHandlerClass the handler which gets called for the delegated methods
+     * @param outputDirectory the root directory of the class files
+     * @return the written class file
+     * @throws IOException if the class file can't be written
+     */
+    public static File writeProxyClass(DeltaSpikeProxyFactory proxyFactory, Class<?> targetClass,
+            Class<? extends InvocationHandler> invocationHandlerClass, File outputDirectory) throws IOException
+    {
+        byte[] proxyClassBytes = proxyFactory.generateProxyClassBytes(targetClass, invocationHandlerClass);
+
+        File classFile = new File(outputDirectory,
+                proxyFactory.getProxyClassName(targetClass).replace('.', File.separatorChar) + ".class");
+
+        File packageDirectory = classFile.getParentFile();
+        if (!packageDirectory.isDirectory() && !packageDirectory.mkdirs())
+        {
+            throw new IOException("Unable to create " + packageDirectory);
+        }
+
+        OutputStream outputStream = new FileOutputStream(classFile);
+        try
+        {
+            outputStream.write(proxyClassBytes);
+        }
+        finally
+        {
+            outputStream.close();
+        }
+
+        return classFile;
+    }
+
+    private static <T> Class<T> loadClass(String className)
+    {
+        try
+        {
+            return (Class<T>) ClassUtils.loadClassForName(className);
+        }
+        catch (ClassNotFoundException e)
+        {
+            throw new IllegalArgumentException("Unable to load " + className, e);
+        }
+    }
+}
@@ -0,0 +1,36 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.deltaspike.core.util.proxy;
+
+import java.lang.reflect.Method;
+
+/**
+ * Internal contract of the proxies generated by {@link AsmProxyClassGenerator} which provides the super accessor
+ * methods of the intercepted methods. The methods are held by the proxy class itself, so they don't need to be
+ * cached (and therefore referenced) outside of the ClassLoader of the proxy.
+ */
+public interface SuperAccessorMethodAwareProxy
+{
+    /**
+     * @param method the original (intercepted) method
+     * @return the method which invokes the original implementation or <code>null</code> if the given method
+     *         isn't intercepted
+     */
+    Method getSuperAccessorMethod(Method method);
+}
@@ -21,12 +21,23 @@ package org.apache.deltaspike.test.api.config;
 import org.apache.deltaspike.core.api.config.ConfigResolver;
 import org.apache.deltaspike.core.api.projectstage.ProjectStage;
 import org.apache.deltaspike.core.spi.config.ConfigFilter;
+import org.apache.deltaspike.core.spi.config.ConfigSource;
 import org.apache.deltaspike.core.util.ProjectStageProducer;
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 public class ConfigResolverTest
 {
@@ -134,6 +145,222 @@ public class ConfigResolverTest
 
     }
 
+    @Test
+    public void testConcurrentLookup() throws Exception
+    {
+        final int threadCount = Math.max(2, Runtime.getRuntime().availableProcessors());
+        final int lookupsPerThread = 10000;
+        final ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
+
+        // make sure the ConfigSources are initialized
+        Assert.assertEquals("testvalue", ConfigResolver.getPropertyValue("testkey2"));
+
+        MutableConfigSource configSource = new MutableConfigSource();
+        configSource.properties.put("concurrentkey", "added");
+        final CountDownLatch configSourceAdded = new CountDownLatch(1);
+
+        ExecutorService executorService = Executors.newFixedThreadPool(threadCount);
+        try
+        {
+            List<Future<Boolean>> results = new ArrayList<Future<Boolean>>(threadCount);
+            for (int i = 0; i < threadCount; i++)
+            {
+                results.add(executorService.submit(new Callable<Boolean>()
+                {
+                    @Override
+                    public Boolean call() throws Exception
+                    {
+                        // the ConfigSources are registered per ClassLoader
+                        Thread.currentThread().setContextClassLoader(classLoader);
+
+                        for (int j = 0; j < lookupsPerThread; j++)
+                        {
+                            if (!"testvalue".equals(ConfigResolver.getPropertyValue("testkey2")))
+                            {
+                                return false;
+                            }
+                        }
+
+                        configSourceAdded.await();
+                        return "added".equals(ConfigResolver.getPropertyValue("concurrentkey")) &&
+                            "testvalue".equals(ConfigResolver.getPropertyValue("testkey2"));
+                    }
+                }));
+            }
+
+            // replace the ConfigSource snapshot while the lookups are running
+            ConfigResolver.addConfigSources(Arrays.<ConfigSource>asList(configSource));
+            configSourceAdded.countDown();
+
+            for (Future<Boolean> result : results)
+            {
+                Assert.assertTrue(result.get(30, TimeUnit.SECONDS));
+            }
+        }
+        finally
+        {
+            executorService.shutdownNow();
+            // restore the default ConfigSources
+            ConfigResolver.freeConfigSources();
+        }
+    }
+
+    @Test
+    public void testValueCache()
+    {
+        MutableConfigSource configSource = new MutableConfigSource();
+        configSource.properties.put("deltaspike.config.cache.enabled", "true");
+        configSource.properties.put("cachedkey", "value1");
+
+        try
+        {
+            ConfigResolver.addConfigSources(Arrays.<ConfigSource>asList(configSource));
+
+            Assert.assertEquals("value1", ConfigResolver.getPropertyValue("cachedkey"));
+            Assert.assertNull(ConfigResolver.getPropertyValue("notexisting"));
+            long missCount = ConfigResolver.getCacheMissCount();
+            long hitCount = ConfigResolver.getCacheHitCount();
+
+            configSource.properties.put("cachedkey", "value2");
+            configSource.properties.put("notexisting", "value3");
+
+            Assert.assertEquals("value1", ConfigResolver.getPropertyValue("cachedkey"));
+            Assert.assertNull(ConfigResolver.getPropertyValue("notexisting"));
+            Assert.assertEquals(missCount, ConfigResolver.getCacheMissCount());
+            Assert.assertEquals(hitCount + 2, ConfigResolver.getCacheHitCount());
+
+            ConfigResolver.invalidateCachedValue("cachedkey");
+            Assert.assertEquals("value2", ConfigResolver.getPropertyValue("cachedkey"));
+            Assert.assertNull(ConfigResolver.getPropertyValue("notexisting"));
+
+            ConfigResolver.invalidateCachedValues();
+            Assert.assertEquals("value3", ConfigResolver.getPropertyValue("notexisting"));
+        }
+        finally
+        {
+            // restore the default ConfigSources without cache
+            ConfigResolver.freeConfigSources();
+        }
+    }
+
+    @Test
+    public void testValueCacheDropsValueResolvedDuringInvalidation() throws Exception
+    {
+        final ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
+        final CountDownLatch lookupStarted = new CountDownLatch(1);
+        final CountDownLatch invalidated = new CountDownLatch(1);
+        final MutableConfigSource configSource = new MutableConfigSource()
+        {
+            @Override
+            public String getPropertyValue(String key)
+            {
+                String value = super.getPropertyValue(key);
+                if ("blockingkey".equals(key) && Thread.currentThread().getName().equals("blockingLookup"))
+                {
+                    lookupStarted.countDown();
+                    try
+                    {
+                        invalidated.await(30, TimeUnit.SECONDS);
+                    }
+                    catch (InterruptedException e)
+                    {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+                return value;
+            }
+        };
+        configSource.properties.put("deltaspike.config.cache.enabled", "true");
+        configSource.properties.put("blockingkey", "value1");
+
+        try
+        {
+            ConfigResolver.addConfigSources(Arrays.<ConfigSource>asList(configSource));
+
+            Thread lookup = new Thread(new Runnable()
+            {
+                @Override
+                public void run()
+                {
+                    Thread.currentThread().setContextClassLoader(classLoader);
+                    ConfigResolver.getPropertyValue("blockingkey");
+                }
+            }, "blockingLookup");
+            lookup.start();
+
+            Assert.assertTrue(lookupStarted.await(30, TimeUnit.SECONDS));
+            // the lookup above already read value1, but must not cache it after this invalidation
+            configSource.properties.put("blockingkey", "value2");
+            ConfigResolver.invalidateCachedValues();
+            invalidated.countDown();
+            lookup.join(30000);
+
+            Assert.assertEquals("value2", ConfigResolver.getPropertyValue("blockingkey"));
+        }
+        finally
+        {
+            invalidated.countDown();
+            ConfigResolver.freeConfigSources();
+        }
+    }
+
+    @Test
+    public void testValueCacheWithInvalidTimeToLive()
+    {
+        MutableConfigSource configSource = new MutableConfigSource();
+        configSource.properties.put("deltaspike.config.cache.enabled", "true");
+        configSource.properties.put("deltaspike.config.cache.ttl", "notANumber");
+        configSource.properties.put("cachedkey", "value1");
+
+        try
+        {
+            ConfigResolver.addConfigSources(Arrays.<ConfigSource>asList(configSource));
+
+            Assert.assertEquals("value1", ConfigResolver.getPropertyValue("cachedkey"));
+            Assert.assertEquals("value1", ConfigResolver.getPropertyValue("cachedkey"));
+            Assert.assertTrue(ConfigResolver.getCacheHitCount() > 0);
+        }
+        finally
+        {
+            ConfigResolver.freeConfigSources();
+        }
+    }
+
+    public static class MutableConfigSource implements ConfigSource
+    {
+        private final Map<String, String> properties = new HashMap<String, String>();
+
+        @Override
+        public int getOrdinal()
+        {
+            return 1000;
+        }
+
+        @Override
+        public Map<String, String> getProperties()
+        {
+            return properties;
+        }
+
+        @Override
+        public String getPropertyValue(String key)
+        {
+            return properties.get(key);
+        }
+
+        @Override
+        public String getConfigName()
+        {
+            return "mutableTestConfig";
+        }
+
+        @Override
+        public boolean isScannable()
+        {
+            return true;
+        }
+    }
+
     public static class TestConfigFilter implements ConfigFilter
     {
         @Override
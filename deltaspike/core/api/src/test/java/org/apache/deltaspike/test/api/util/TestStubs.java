@@ -0,0 +1,90 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.deltaspike.test.api.util;
+
+import java.io.Serializable;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+
+/**
+ * Stubs of container interfaces for unit tests which run without a container.
+ */
+public class TestStubs
+{
+    private TestStubs()
+    {
+        // prevent instantiation
+    }
+
+    /**
+     * @param type the interface to stub
+     * @param invocationHandler handles all calls of the stub
+     * @return a stub of the given interface
+     */
+    public static <T> T createStub(Class<T> type, InvocationHandler invocationHandler)
+    {
+        return type.cast(createStub(invocationHandler, type));
+    }
+
+    /**
+     * @param invocationHandler handles all calls of the stub
+     * @param types the interfaces to stub
+     * @return a stub implementing all given interfaces
+     */
+    public static Object createStub(InvocationHandler invocationHandler, Class<?>... types)
+    {
+        return Proxy.newProxyInstance(TestStubs.class.getClassLoader(), types, invocationHandler);
+    }
+
+    /**
+     * @param type the interface to stub
+     * @return a stub of the given interface, which returns null for all methods
+     */
+    public static <T> T createNoOpStub(Class<T> type)
+    {
+        return createStub(type, new NoOpHandler());
+    }
+
+    /**
+     * Base class for the invocation handlers of stubs. Methods which aren't handled by a subclass
+     * fail with an {@link UnsupportedOperationException}.
+     */
+    public abstract static class StubHandler implements InvocationHandler, Serializable
+    {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable
+        {
+            throw new UnsupportedOperationException(method.getName());
+        }
+    }
+
+    private static class NoOpHandler extends StubHandler
+    {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args)
+        {
+            return null;
+        }
+    }
+}
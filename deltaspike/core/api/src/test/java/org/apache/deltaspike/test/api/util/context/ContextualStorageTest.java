@@ -0,0 +1,229 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.deltaspike.test.api.util.context;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.enterprise.context.spi.Contextual;
+import javax.enterprise.context.spi.CreationalContext;
+
+import org.apache.deltaspike.core.util.context.ContextualStorage;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ContextualStorageTest
+{
+    private static final int THREAD_COUNT = 16;
+
+    private ExecutorService executorService;
+    private ContextualStorage contextualStorage;
+
+    @Before
+    public void init()
+    {
+        executorService = Executors.newFixedThreadPool(THREAD_COUNT);
+        contextualStorage = new ContextualStorage(null, true, false);
+    }
+
+    @After
+    public void cleanup()
+    {
+        executorService.shutdownNow();
+    }
+
+    @Test
+    public void instanceCreatedOnceForConcurrentAccess() throws Exception
+    {
+        final TestBean bean = new TestBean(null);
+        final CountDownLatch start = new CountDownLatch(1);
+
+        List<Future<Object>> results = new ArrayList<Future<Object>>();
+        for (int i = 0; i < THREAD_COUNT; i++)
+        {
+            results.add(executorService.submit(new Callable<Object>()
+            {
+                @Override
+                public Object call() throws Exception
+                {
+                    start.await();
+                    return contextualStorage.createContextualInstance(bean, null);
+                }
+            }));
+        }
+        start.countDown();
+
+        Object instance = results.get(0).get(5, TimeUnit.SECONDS);
+        for (Future<Object> result : results)
+        {
+            Assert.assertSame(instance, result.get(5, TimeUnit.SECONDS));
+        }
+        Assert.assertEquals(1, bean.createCount.get());
+        Assert.assertEquals(1, contextualStorage.getStorage().size());
+    }
+
+    @Test
+    public void differentBeansCreatedConcurrently() throws Exception
+    {
+        // the creation of the first bean only finishes once the second bean was created by an other thread
+        final CountDownLatch secondBeanCreated = new CountDownLatch(1);
+        final TestBean firstBean = new TestBean(secondBeanCreated);
+        final TestBean secondBean = new TestBean(null);
+
+        Future<Object> firstInstance = executorService.submit(new Callable<Object>()
+        {
+            @Override
+            public Object call() throws Exception
+            {
+                return contextualStorage.createContextualInstance(firstBean, null);
+            }
+        });
+
+        firstBean.creationStarted.await(5, TimeUnit.SECONDS);
+        Object secondInstance = executorService.submit(new Callable<Object>()
+        {
+            @Override
+            public Object call() throws Exception
+            {
+                return contextualStorage.createContextualInstance(secondBean, null);
+            }
+        }).get(5, TimeUnit.SECONDS);
+        secondBeanCreated.countDown();
+
+        Assert.assertNotNull(secondInstance);
+        Assert.assertNotNull(firstInstance.get(5, TimeUnit.SECONDS));
+        Assert.assertTrue(firstBean.waitedForOtherBean);
+    }
+
+    @Test
+    public void existingInstanceReturnedDuringCreationOfOtherBean() throws Exception
+    {
+        final CountDownLatch release = new CountDownLatch(1);
+        final TestBean blockingBean = new TestBean(release);
+        final TestBean existingBean = new TestBean(null);
+        final Object existingInstance = contextualStorage.createContextualInstance(existingBean, null);
+
+        Future<Object> blockingInstance = executorService.submit(new Callable<Object>()
+        {
+            @Override
+            public Object call() throws Exception
+            {
+                return contextualStorage.createContextualInstance(blockingBean, null);
+            }
+        });
+        blockingBean.creationStarted.await(5, TimeUnit.SECONDS);
+
+        try
+        {
+            Assert.assertSame(existingInstance, executorService.submit(new Callable<Object>()
+            {
+                @Override
+                public Object call() throws Exception
+                {
+                    return contextualStorage.createContextualInstance(existingBean, null);
+                }
+            }).get(5, TimeUnit.SECONDS));
+        }
+        finally
+        {
+            release.countDown();
+        }
+
+        Assert.assertNotNull(blockingInstance.get(5, TimeUnit.SECONDS));
+        Assert.assertEquals(1, existingBean.createCount.get());
+    }
+
+    @Test
+    public void failedCreationCanBeRetried()
+    {
+        TestBean bean = new TestBean(null);
+        bean.failures.set(1);
+
+        try
+        {
+            contextualStorage.createContextualInstance(bean, null);
+            Assert.fail("the creation should fail");
+        }
+        catch (IllegalStateException e)
+        {
+            // expected
+        }
+
+        Assert.assertNotNull(contextualStorage.createContextualInstance(bean, null));
+        Assert.assertEquals(2, bean.createCount.get());
+    }
+
+    private static class TestBean implements Contextual<Object>
+    {
+        private final AtomicInteger createCount = new AtomicInteger();
+        private final AtomicInteger failures = new AtomicInteger();
+        private final CountDownLatch creationStarted = new CountDownLatch(1);
+        private final CountDownLatch waitFor;
+        private volatile boolean waitedForOtherBean;
+
+        private TestBean(CountDownLatch waitFor)
+        {
+            this.waitFor = waitFor;
+        }
+
+        @Override
+        public Object create(CreationalContext<Object> creationalContext)
+        {
+            createCount.incrementAndGet();
+            creationStarted.countDown();
+
+            if (failures.getAndDecrement() > 0)
+            {
+                throw new IllegalStateException("creation failed");
+            }
+
+            if (waitFor != null)
+            {
+                try
+                {
+                    waitedForOtherBean = waitFor.await(5, TimeUnit.SECONDS);
+                }
+                catch (InterruptedException e)
+                {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            else
+            {
+                // widens the window for concurrent creations
+                Thread.yield();
+            }
+            return new Object();
+        }
+
+        @Override
+        public void destroy(Object instance, CreationalContext<Object> creationalContext)
+        {
+        }
+    }
+}
@@ -0,0 +1,267 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.deltaspike.test.api.util.invocation;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.enterprise.context.spi.CreationalContext;
+import javax.enterprise.inject.spi.BeanManager;
+import javax.enterprise.inject.spi.Interceptor;
+import javax.interceptor.InvocationContext;
+import org.apache.deltaspike.core.api.provider.BeanManagerProvider;
+import org.apache.deltaspike.core.util.invocation.AbstractManualInvocationHandler;
+import org.apache.deltaspike.core.util.invocation.ManualInvocationInterceptorInstances;
+import org.apache.deltaspike.core.util.proxy.InterceptorCacheAwareProxy;
+import org.apache.deltaspike.core.util.proxy.InterceptorInstancesAwareProxy;
+import org.apache.deltaspike.test.api.util.TestStubs;
+import org.apache.deltaspike.test.api.util.TestStubs.StubHandler;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class AbstractManualInvocationHandlerTest
+{
+    private final AtomicInteger createdInterceptors = new AtomicInteger();
+    private final AtomicInteger destroyedInterceptors = new AtomicInteger();
+    private final AtomicInteger interceptedInvocations = new AtomicInteger();
+
+    private BeanManagerProvider beanManagerProvider;
+
+    @Before
+    public void registerBeanManager()
+    {
+        beanManagerProvider = new BeanManagerProvider();
+        beanManagerProvider.setBeanManager(null, TestStubs.createStub(BeanManager.class, new StubHandler()
+        {
+            @Override
+            public Object invoke(Object proxy, Method method, Object[] args) throws Throwable
+            {
+                if ("createCreationalContext".equals(method.getName()))
+                {
+                    return TestStubs.createNoOpStub(CreationalContext.class);
+                }
+                return super.invoke(proxy, method, args);
+            }
+        }));
+    }
+
+    @After
+    public void cleanupBeanManager()
+    {
+        beanManagerProvider.cleanupStoredBeanManagerOnShutdown(null);
+
+        // the caches are static like the ones of generated proxy classes
+        TestProxy.INTERCEPTOR_CACHE.clear();
+        OtherTestProxy.INTERCEPTOR_CACHE.clear();
+    }
+
+    @Test
+    public void interceptorsResolvedOncePerClassAndMethod() throws Throwable
+    {
+        TestInvocationHandler handler = new TestInvocationHandler(createInterceptor());
+        TestProxy proxy = new TestProxy();
+
+        Assert.assertEquals("original", handler.invoke(proxy, Service.class.getMethod("call"), null));
+        Assert.assertEquals("original", handler.invoke(proxy, Service.class.getMethod("call"), null));
+        Assert.assertEquals("original", handler.invoke(new TestProxy(), Service.class.getMethod("call"), null));
+        Assert.assertEquals(1, handler.resolvedInterceptors.get());
+
+        handler.invoke(proxy, Service.class.getMethod("callOther"), null);
+        Assert.assertEquals(2, handler.resolvedInterceptors.get());
+
+        handler.invoke(new OtherTestProxy(), Service.class.getMethod("call"), null);
+        Assert.assertEquals(3, handler.resolvedInterceptors.get());
+
+        Assert.assertEquals(5, interceptedInvocations.get());
+    }
+
+    @Test
+    public void interceptorsOfOtherInstancesNotCached() throws Throwable
+    {
+        TestInvocationHandler handler = new TestInvocationHandler(createInterceptor());
+        Service service = TestStubs.createNoOpStub(Service.class);
+
+        handler.invoke(service, Service.class.getMethod("call"), null);
+        handler.invoke(service, Service.class.getMethod("call"), null);
+
+        Assert.assertEquals(2, handler.resolvedInterceptors.get());
+        Assert.assertEquals(2, interceptedInvocations.get());
+    }
+
+    @Test
+    public void methodsWithoutInterceptorsAreCachedToo() throws Throwable
+    {
+        TestInvocationHandler handler = new TestInvocationHandler();
+        TestProxy proxy = new TestProxy();
+
+        Assert.assertEquals("original", handler.invoke(proxy, Service.class.getMethod("call"), null));
+        Assert.assertEquals("original", handler.invoke(proxy, Service.class.getMethod("call"), null));
+
+        Assert.assertEquals(1, handler.resolvedInterceptors.get());
+        Assert.assertEquals(0, interceptedInvocations.get());
+    }
+
+    @Test
+    public void interceptorInstancesCreatedPerInvocationByDefault() throws Throwable
+    {
+        TestInvocationHandler handler = new TestInvocationHandler(createInterceptor());
+        TestProxy proxy = new TestProxy();
+
+        handler.invoke(proxy, Service.class.getMethod("call"), null);
+        handler.invoke(proxy, Service.class.getMethod("call"), null);
+
+        Assert.assertEquals(2, createdInterceptors.get());
+        Assert.assertEquals(2, destroyedInterceptors.get());
+    }
+
+    @Test
+    public void interceptorInstancesReusedUntilDestroyed() throws Throwable
+    {
+        TestInvocationHandler handler = new TestInvocationHandler(createInterceptor(), createInterceptor());
+        TestProxy proxy = new TestProxy();
+        proxy.setInterceptorInstances(new ManualInvocationInterceptorInstances());
+
+        handler.invoke(proxy, Service.class.getMethod("call"), null);
+        handler.invoke(proxy, Service.class.getMethod("call"), null);
+        handler.invoke(proxy, Service.class.getMethod("callOther"), null);
+
+        Assert.assertEquals(6, interceptedInvocations.get());
+        Assert.assertEquals(2, createdInterceptors.get());
+        Assert.assertEquals(0, destroyedInterceptors.get());
+
+        proxy.getInterceptorInstances().destroy();
+        Assert.assertEquals(2, destroyedInterceptors.get());
+
+        // a destroyed holder creates new instances on demand
+        handler.invoke(proxy, Service.class.getMethod("call"), null);
+        Assert.assertEquals(4, createdInterceptors.get());
+    }
+
+    private Interceptor<?> createInterceptor()
+    {
+        return TestStubs.createStub(Interceptor.class, new StubHandler()
+        {
+            @Override
+            public Object invoke(Object proxy, Method method, Object[] args) throws Throwable
+            {
+                if ("create".equals(method.getName()))
+                {
+                    createdInterceptors.incrementAndGet();
+                    return new Object();
+                }
+                if ("destroy".equals(method.getName()))
+                {
+                    destroyedInterceptors.incrementAndGet();
+                    return null;
+                }
+                if ("intercept".equals(method.getName()))
+                {
+                    interceptedInvocations.incrementAndGet();
+                    return ((InvocationContext) args[2]).proceed();
+                }
+                if ("hashCode".equals(method.getName()))
+                {
+                    return System.identityHashCode(proxy);
+                }
+                if ("equals".equals(method.getName()))
+                {
+                    return proxy == args[0];
+                }
+                return super.invoke(proxy, method, args);
+            }
+        });
+    }
+
+    public interface Service
+    {
+        String call();
+
+        String callOther();
+    }
+
+    public static class TestProxy implements InterceptorInstancesAwareProxy, InterceptorCacheAwareProxy
+    {
+        private static final ConcurrentMap<Method, List<Interceptor<?>>> INTERCEPTOR_CACHE =
+                new ConcurrentHashMap<Method, List<Interceptor<?>>>();
+
+        private ManualInvocationInterceptorInstances interceptorInstances;
+
+        @Override
+        public void setInterceptorInstances(ManualInvocationInterceptorInstances interceptorInstances)
+        {
+            this.interceptorInstances = interceptorInstances;
+        }
+
+        @Override
+        public ManualInvocationInterceptorInstances getInterceptorInstances()
+        {
+            return interceptorInstances;
+        }
+
+        @Override
+        public ConcurrentMap<Method, List<Interceptor<?>>> getInterceptorCache()
+        {
+            return INTERCEPTOR_CACHE;
+        }
+    }
+
+    public static class OtherTestProxy extends TestProxy
+    {
+        private static final ConcurrentMap<Method, List<Interceptor<?>>> INTERCEPTOR_CACHE =
+                new ConcurrentHashMap<Method, List<Interceptor<?>>>();
+
+        @Override
+        public ConcurrentMap<Method, List<Interceptor<?>>> getInterceptorCache()
+        {
+            return INTERCEPTOR_CACHE;
+        }
+    }
+
+    private static class TestInvocationHandler extends AbstractManualInvocationHandler
+    {
+        private final AtomicInteger resolvedInterceptors = new AtomicInteger();
+        private final List<Interceptor<?>> interceptors = new ArrayList<Interceptor<?>>();
+
+        private TestInvocationHandler(Interceptor<?>... interceptors)
+        {
+            for (Interceptor<?> interceptor : interceptors)
+            {
+                this.interceptors.add(interceptor);
+            }
+        }
+
+        @Override
+        protected List<Interceptor<?>> resolveInterceptors(Object instance, Method method)
+        {
+            resolvedInterceptors.incrementAndGet();
+            return interceptors.isEmpty() ? null : interceptors;
+        }
+
+        @Override
+        protected Object proceedOriginal(Object proxy, Method method, Object[] parameters)
+        {
+            return "original";
+        }
+    }
+}
@@ -0,0 +1,355 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.deltaspike.test.api.util.proxy;
+
+import java.io.File;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.enterprise.inject.spi.BeanManager;
+import javax.interceptor.InterceptorBinding;
+import org.apache.deltaspike.core.api.provider.BeanManagerProvider;
+import org.apache.deltaspike.core.util.proxy.DeltaSpikeProxy;
+import org.apache.deltaspike.core.util.proxy.DeltaSpikeProxyFactory;
+import org.apache.deltaspike.core.util.proxy.InterceptorCacheAwareProxy;
+import org.apache.deltaspike.core.util.proxy.InterceptorInstancesAwareProxy;
+import org.apache.deltaspike.core.util.proxy.ProxyClassFileWriter;
+import org.apache.deltaspike.core.util.proxy.SuperAccessorMethodAwareProxy;
+import org.apache.deltaspike.test.api.util.TestStubs;
+import org.apache.deltaspike.test.api.util.TestStubs.StubHandler;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class DeltaSpikeProxyFactoryTest
+{
+    private final TestProxyFactory proxyFactory = new TestProxyFactory();
+
+    private BeanManagerProvider beanManagerProvider;
+
+    @Before
+    public void registerBeanManager()
+    {
+        beanManagerProvider = new BeanManagerProvider();
+        beanManagerProvider.setBeanManager(null, TestStubs.createStub(BeanManager.class, new StubHandler()
+        {
+            @Override
+            public Object invoke(Object proxy, Method method, Object[] args) throws Throwable
+            {
+                if ("resolveInterceptors".equals(method.getName()))
+                {
+                    return Collections.emptyList();
+                }
+                return super.invoke(proxy, method, args);
+            }
+        }));
+    }
+
+    @After
+    public void cleanupBeanManager()
+    {
+        beanManagerProvider.cleanupStoredBeanManagerOnShutdown(null);
+    }
+
+    @Test
+    public void proxyImplementsInternalInterfaceSeparately()
+    {
+        Class<InterceptedBean> proxyClass = proxyFactory.getProxyClass(InterceptedBean.class, TestHandler.class);
+
+        Assert.assertTrue(DeltaSpikeProxy.class.isAssignableFrom(proxyClass));
+        Assert.assertTrue(InterceptorInstancesAwareProxy.class.isAssignableFrom(proxyClass));
+        Assert.assertFalse(InterceptorInstancesAwareProxy.class.isAssignableFrom(DeltaSpikeProxy.class));
+    }
+
+    @Test
+    public void superAccessorMethodsStoredInProxyClass() throws Exception
+    {
+        Class<InterceptedBean> proxyClass = proxyFactory.getProxyClass(InterceptedBean.class, TestHandler.class);
+        InterceptedBean proxy = proxyClass.newInstance();
+
+        Method superAccessorMethod = ((SuperAccessorMethodAwareProxy) proxy).getSuperAccessorMethod(
+                InterceptedBean.class.getMethod("intercepted"));
+        Assert.assertEquals("intercepted$super", superAccessorMethod.getName());
+        Assert.assertEquals(proxyClass, superAccessorMethod.getDeclaringClass());
+        Assert.assertSame(superAccessorMethod, DeltaSpikeProxyFactory.getSuperAccessorMethod(
+                proxy, InterceptedBean.class.getMethod("intercepted")));
+
+        Assert.assertNull(((SuperAccessorMethodAwareProxy) proxy).getSuperAccessorMethod(
+                InterceptedBean.class.getMethod("notIntercepted")));
+    }
+
+    @Test
+    public void interceptedMethodProceedsViaSuperAccessorMethod() throws Exception
+    {
+        InterceptedBean proxy = proxyFactory.getProxyClass(InterceptedBean.class, TestHandler.class).newInstance();
+
+        Assert.assertEquals("intercepted", proxy.intercepted());
+        Assert.assertEquals("intercepted", proxy.intercepted());
+        Assert.assertEquals("notIntercepted", proxy.notIntercepted());
+    }
+
+    @Test
+    public void resolvedInterceptorsCachedInProxyClass() throws Exception
+    {
+        Class<InterceptedBean> proxyClass = proxyFactory.getProxyClass(InterceptedBean.class, TestHandler.class);
+        InterceptedBean proxy = proxyClass.newInstance();
+
+        proxy.intercepted();
+
+        Assert.assertTrue(((InterceptorCacheAwareProxy) proxy).getInterceptorCache().get(
+                InterceptedBean.class.getMethod("intercepted")).isEmpty());
+        Assert.assertSame(((InterceptorCacheAwareProxy) proxy).getInterceptorCache(),
+                ((InterceptorCacheAwareProxy) proxyClass.newInstance()).getInterceptorCache());
+    }
+
+    @Test
+    public void concurrentProxyClassCreation() throws Exception
+    {
+        final CountingProxyFactory countingProxyFactory = new CountingProxyFactory();
+        List<Callable<Class<ConcurrentBean>>> tasks = new ArrayList<Callable<Class<ConcurrentBean>>>();
+        for (int i = 0; i < 10; i++)
+        {
+            tasks.add(new Callable<Class<ConcurrentBean>>()
+            {
+                @Override
+                public Class<ConcurrentBean> call()
+                {
+                    return countingProxyFactory.getProxyClass(ConcurrentBean.class, TestHandler.class);
+                }
+            });
+        }
+
+        ExecutorService executorService = Executors.newFixedThreadPool(tasks.size());
+        try
+        {
+            Set<Class<ConcurrentBean>> proxyClasses = new HashSet<Class<ConcurrentBean>>();
+            for (Future<Class<ConcurrentBean>> result : executorService.invokeAll(tasks))
+            {
+                proxyClasses.add(result.get());
+            }
+
+            Assert.assertEquals(1, proxyClasses.size());
+            Assert.assertEquals(1, countingProxyFactory.generatedProxyClasses.get());
+        }
+        finally
+        {
+            executorService.shutdownNow();
+        }
+    }
+
+    @Test
+    public void proxyClassCreationRetriedAfterFailure()
+    {
+        CountingProxyFactory countingProxyFactory = new CountingProxyFactory();
+        countingProxyFactory.failures.set(1);
+
+        try
+        {
+            countingProxyFactory.getProxyClass(RetriedBean.class, TestHandler.class);
+            Assert.fail("proxy generation should fail");
+        }
+        catch (IllegalStateException e)
+        {
+            // expected
+        }
+
+        Class<RetriedBean> proxyClass = countingProxyFactory.getProxyClass(RetriedBean.class, TestHandler.class);
+        Assert.assertTrue(countingProxyFactory.isProxyClass(proxyClass));
+        Assert.assertEquals(2, countingProxyFactory.generatedProxyClasses.get());
+    }
+
+    @Test
+    public void proxyClassOfNestedClassFoundAfterCreation()
+    {
+        CountingProxyFactory countingProxyFactory = new CountingProxyFactory();
+
+        Class<NestedBean> proxyClass = countingProxyFactory.getProxyClass(NestedBean.class, TestHandler.class);
+
+        // the lookup uses Class#getName, so the proxy class has to be defined with the binary name as well
+        Assert.assertEquals(NestedBean.class.getName() + "$$TestProxy", proxyClass.getName());
+        Assert.assertEquals(proxyClass.getName(), countingProxyFactory.getProxyClassName(NestedBean.class));
+        Assert.assertSame(proxyClass, countingProxyFactory.getProxyClass(NestedBean.class, TestHandler.class));
+        Assert.assertSame(proxyClass, new TestProxyFactory().getProxyClass(NestedBean.class, TestHandler.class));
+        Assert.assertEquals(1, countingProxyFactory.generatedProxyClasses.get());
+    }
+
+    @Test
+    public void preGeneratedProxyClassUsedAsItIs() throws Exception
+    {
+        CountingProxyFactory countingProxyFactory = new CountingProxyFactory();
+        File outputDirectory = File.createTempFile("proxies", "");
+        Assert.assertTrue(outputDirectory.delete() && outputDirectory.mkdir());
+
+        ClassLoader originalClassLoader = Thread.currentThread().getContextClassLoader();
+        try
+        {
+            File classFile = ProxyClassFileWriter.writeProxyClass(
+                    countingProxyFactory, PreGeneratedBean.class, TestHandler.class, outputDirectory);
+            Assert.assertTrue(classFile.isFile());
+            Assert.assertEquals(1, countingProxyFactory.generatedProxyClasses.get());
+
+            ClassLoader applicationClassLoader = new URLClassLoader(
+                    new URL[] { outputDirectory.toURI().toURL() }, getClass().getClassLoader());
+            Thread.currentThread().setContextClassLoader(applicationClassLoader);
+
+            Class<PreGeneratedBean> proxyClass =
+                    countingProxyFactory.getProxyClass(PreGeneratedBean.class, TestHandler.class);
+
+            Assert.assertSame(applicationClassLoader, proxyClass.getClassLoader());
+            Assert.assertEquals(1, countingProxyFactory.generatedProxyClasses.get());
+            Assert.assertEquals("intercepted", proxyClass.newInstance().intercepted());
+        }
+        finally
+        {
+            Thread.currentThread().setContextClassLoader(originalClassLoader);
+            delete(outputDirectory);
+        }
+    }
+
+    @Test
+    public void superAccessorMethodOfProxyWithoutInternalInterface() throws Exception
+    {
+        Method superAccessorMethod = DeltaSpikeProxyFactory.getSuperAccessorMethod(
+                new LegacyProxy(), InterceptedBean.class.getMethod("intercepted"));
+
+        Assert.assertEquals(LegacyProxy.class.getMethod("intercepted$super"), superAccessorMethod);
+    }
+
+    @Retention(RetentionPolicy.RUNTIME)
+    @Target({ ElementType.TYPE, ElementType.METHOD })
+    @InterceptorBinding
+    public @interface TestBinding
+    {
+    }
+
+    public static class InterceptedBean
+    {
+        @TestBinding
+        public String intercepted()
+        {
+            return "intercepted";
+        }
+
+        public String notIntercepted()
+        {
+            return "notIntercepted";
+        }
+    }
+
+    public static class LegacyProxy extends InterceptedBean
+    {
+        public String intercepted$super()
+        {
+            return super.intercepted();
+        }
+    }
+
+    public static class ConcurrentBean
+    {
+        @TestBinding
+        public String intercepted()
+        {
+            return "intercepted";
+        }
+    }
+
+    public static class RetriedBean extends ConcurrentBean
+    {
+    }
+
+    public static class NestedBean extends ConcurrentBean
+    {
+    }
+
+    public static class PreGeneratedBean extends ConcurrentBean
+    {
+    }
+
+    public static class TestHandler implements InvocationHandler
+    {
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args)
+        {
+            return null;
+        }
+    }
+
+    private static class TestProxyFactory extends DeltaSpikeProxyFactory
+    {
+        @Override
+        protected ArrayList<Method> getDelegateMethods(Class<?> targetClass, ArrayList<Method> allMethods)
+        {
+            return new ArrayList<Method>();
+        }
+
+        @Override
+        protected String getProxyClassSuffix()
+        {
+            return "$$TestProxy";
+        }
+    }
+
+    private static void delete(File file)
+    {
+        File[] children = file.listFiles();
+        if (children != null)
+        {
+            for (File child : children)
+            {
+                delete(child);
+            }
+        }
+        file.delete();
+    }
+
+    private static class CountingProxyFactory extends TestProxyFactory
+    {
+        private final AtomicInteger generatedProxyClasses = new AtomicInteger();
+        private final AtomicInteger failures = new AtomicInteger();
+
+        @Override
+        public byte[] generateProxyClassBytes(Class<?> targetClass,
+                Class<? extends InvocationHandler> invocationHandlerClass)
+        {
+            generatedProxyClasses.incrementAndGet();
+
+            if (failures.getAndDecrement() > 0)
+            {
+                throw new IllegalStateException("proxy generation failed");
+            }
+            return super.generateProxyClassBytes(targetClass, invocationHandlerClass);
+        }
+    }
+}
@@ -0,0 +1,53 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.deltaspike.core.impl.config;
+
+import javax.enterprise.context.ApplicationScoped;
+
+import org.apache.deltaspike.core.api.config.ConfigResolver;
+import org.apache.deltaspike.core.api.jmx.JmxManaged;
+import org.apache.deltaspike.core.api.jmx.MBean;
+
+/**
+ * Exposes the statistics of the value cache of {@link ConfigResolver} via JMX.
+ * The cache has to be enabled via
+ * {@link org.apache.deltaspike.core.api.config.base.CoreBaseConfig.Config.Cache#ENABLED}.
+ */
+@ApplicationScoped
+@MBean(name = "ConfigValueCache", description = "statistics of the cache for resolved config-values")
+public class ConfigValueCacheStatistics
+{
+    @JmxManaged(description = "number of lookups answered by the cache")
+    public long getHitCount()
+    {
+        return ConfigResolver.getCacheHitCount();
+    }
+
+    @JmxManaged(description = "number of lookups which had to query the config-sources")
+    public long getMissCount()
+    {
+        return ConfigResolver.getCacheMissCount();
+    }
+
+    @JmxManaged(description = "invalidates all cached values")
+    public void invalidateCachedValues()
+    {
+        ConfigResolver.invalidateCachedValues();
+    }
+}
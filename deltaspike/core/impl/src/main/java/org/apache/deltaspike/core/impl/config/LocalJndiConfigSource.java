@@ -18,22 +18,47 @@
  */
 package org.apache.deltaspike.core.impl.config;
 
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.logging.Level;
 
 import javax.enterprise.inject.Typed;
 
+import org.apache.deltaspike.core.api.config.ConfigResolver;
+import org.apache.deltaspike.core.api.config.base.CoreBaseConfig;
 import org.apache.deltaspike.core.impl.util.JndiUtils;
 
 /**
  * {@link org.apache.deltaspike.core.spi.config.ConfigSource}
- * which uses JNDI for the lookup
+ * which uses JNDI for the lookup.
+ *
+ * <p>By default every key gets looked up individually. If
+ * {@link CoreBaseConfig.Config.Jndi#SNAPSHOT_REFRESH_INTERVAL} is configured, all values below
+ * {@value #BASE_NAME} (including sub-contexts) get listed once and afterwards all keys (including not bound ones)
+ * get resolved from this snapshot. As long as the values can't be listed (e.g. in a thread without java:comp/env),
+ * the keys get looked up individually.</p>
  */
 @Typed()
 class LocalJndiConfigSource extends BaseConfigSource
 {
     private static final String BASE_NAME = "java:comp/env/deltaspike/";
 
+    // min. time between two attempts to list the values, if the listing failed
+    private static final long LISTING_RETRY_DELAY = 1000;
+
+    // set while the snapshot setting gets resolved via the ConfigResolver, which calls this ConfigSource as well
+    private static final ThreadLocal<Boolean> RESOLVING_SNAPSHOT_SETTING = new ThreadLocal<Boolean>();
+
+    // null until the setting is resolved, < 0 if the snapshot mode isn't used
+    private volatile Long snapshotRefreshInterval;
+
+    private volatile Map<String, String> snapshot;
+    private volatile long snapshotTimestamp;
+    private volatile long failedListingTimestamp;
+    private final AtomicBoolean refreshing = new AtomicBoolean();
+
     public LocalJndiConfigSource()
     {
         initOrdinal(200);
@@ -47,10 +72,23 @@ class LocalJndiConfigSource extends BaseConfigSource
      */
     @Override
     public String getPropertyValue(String key)
+    {
+        if (!key.startsWith("java:comp/env") && !DELTASPIKE_ORDINAL.equals(key) && isSnapshotEnabled())
+        {
+            Map<String, String> currentSnapshot = getSnapshot();
+            if (currentSnapshot != null)
+            {
+                return currentSnapshot.get(key);
+            }
+        }
+        return lookup(getJndiKey(key));
+    }
+
+    String lookup(String jndiKey)
     {
         try
         {
-            return JndiUtils.lookup(getJndiKey(key), String.class);
+            return JndiUtils.lookup(jndiKey, String.class);
         }
         catch (Exception e)
         {
@@ -59,6 +97,154 @@ class LocalJndiConfigSource extends BaseConfigSource
         return null;
     }
 
+    /**
+     * @return all values below {@value #BASE_NAME} or null if they can't be listed
+     */
+    Map<String, String> listSnapshot()
+    {
+        Map<String, String> result = JndiUtils.listRecursive(BASE_NAME, String.class);
+
+        if (result == null && canLookup("java:comp/env") && !canLookup(BASE_NAME))
+        {
+            // nothing is bound below deltaspike/
+            return Collections.emptyMap();
+        }
+        return result;
+    }
+
+    private boolean canLookup(String jndiKey)
+    {
+        try
+        {
+            return JndiUtils.lookup(jndiKey, Object.class) != null;
+        }
+        catch (Exception e)
+        {
+            return false;
+        }
+    }
+
+    private boolean isSnapshotEnabled()
+    {
+        if (RESOLVING_SNAPSHOT_SETTING.get() != null)
+        {
+            return false;
+        }
+
+        Long interval = snapshotRefreshInterval;
+        if (interval == null)
+        {
+            interval = resolveSnapshotRefreshInterval();
+            snapshotRefreshInterval = interval;
+        }
+        return interval >= 0;
+    }
+
+    private long resolveSnapshotRefreshInterval()
+    {
+        String key = CoreBaseConfig.Config.Jndi.SNAPSHOT_REFRESH_INTERVAL.getKey();
+        String configuredInterval;
+
+        RESOLVING_SNAPSHOT_SETTING.set(Boolean.TRUE);
+        try
+        {
+            configuredInterval = ConfigResolver.getPropertyValue(key);
+        }
+        finally
+        {
+            RESOLVING_SNAPSHOT_SETTING.remove();
+        }
+
+        if (configuredInterval == null || configuredInterval.trim().length() == 0)
+        {
+            return -1;
+        }
+
+        try
+        {
+            long interval = Long.parseLong(configuredInterval.trim());
+            return interval < 0 ? -1 : interval * 1000;
+        }
+        catch (NumberFormatException e)
+        {
+            log.log(Level.WARNING, "The configured value of " + key + " isn't a valid number. Invalid value: " +
+                    configuredInterval);
+            return -1;
+        }
+    }
+
+    private Map<String, String> getSnapshot()
+    {
+        Map<String, String> currentSnapshot = snapshot;
+
+        if (currentSnapshot == null)
+        {
+            if (System.currentTimeMillis() - failedListingTimestamp < LISTING_RETRY_DELAY)
+            {
+                return null;
+            }
+            return initSnapshot();
+        }
+
+        // only one thread re-reads the snapshot, all others continue to use the current one in the meantime.
+        // it isn't done in a separate thread, since java:comp/env is only available in threads of the container.
+        if (isSnapshotOutdated() && refreshing.compareAndSet(false, true))
+        {
+            try
+            {
+                currentSnapshot = refreshSnapshot();
+            }
+            finally
+            {
+                refreshing.set(false);
+            }
+        }
+        return currentSnapshot;
+    }
+
+    // null as long as the values can't be listed
+    private synchronized Map<String, String> initSnapshot()
+    {
+        Map<String, String> currentSnapshot = snapshot;
+        if (currentSnapshot == null)
+        {
+            currentSnapshot = refreshSnapshot();
+        }
+        return currentSnapshot;
+    }
+
+    private boolean isSnapshotOutdated()
+    {
+        return snapshotRefreshInterval > 0 &&
+                System.currentTimeMillis() - snapshotTimestamp > snapshotRefreshInterval;
+    }
+
+    private Map<String, String> refreshSnapshot()
+    {
+        Map<String, String> oldSnapshot = snapshot;
+        Map<String, String> listedValues = listSnapshot();
+
+        if (listedValues == null)
+        {
+            // the result of a failed listing isn't cached, otherwise all keys would be treated as not configured.
+            // an existing snapshot is kept until the next refresh.
+            failedListingTimestamp = System.currentTimeMillis();
+            snapshotTimestamp = failedListingTimestamp;
+            return oldSnapshot;
+        }
+
+        Map<String, String> newSnapshot = new HashMap<String, String>(listedValues);
+
+        snapshotTimestamp = System.currentTimeMillis();
+        snapshot = newSnapshot;
+
+        if (oldSnapshot != null && !oldSnapshot.equals(newSnapshot))
+        {
+            ConfigResolver.invalidateCachedValues();
+        }
+        return newSnapshot;
+    }
+
     private String getJndiKey(String key)
     {
         if (key.startsWith("java:comp/env"))
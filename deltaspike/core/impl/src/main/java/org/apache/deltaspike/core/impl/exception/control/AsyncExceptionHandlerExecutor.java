@@ -0,0 +1,300 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.deltaspike.core.impl.exception.control;
+
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.enterprise.context.ApplicationScoped;
+import javax.enterprise.inject.spi.BeanManager;
+
+import org.apache.deltaspike.core.api.config.base.CoreBaseConfig;
+import org.apache.deltaspike.core.api.exception.control.HandlerMethod;
+import org.apache.deltaspike.core.api.jmx.JmxManaged;
+import org.apache.deltaspike.core.api.jmx.MBean;
+import org.apache.deltaspike.core.impl.util.JndiUtils;
+
+/**
+ * Invokes exception handlers annotated with {@link org.apache.deltaspike.core.api.exception.control.NonBlocking}
+ * in a separate thread, if it is enabled via {@link CoreBaseConfig.ExceptionControl.Async#ENABLED}.
+ * The ManagedExecutorService of the container is used, if it is available via
+ * {@link CoreBaseConfig.ExceptionControl.Async#MANAGED_EXECUTOR}, otherwise a bounded thread-pool.
+ * <p/>
+ * The handlers get invoked with the context-classloader of the thread which handles the exception, because
+ * e.g. {@link org.apache.deltaspike.core.api.provider.BeanManagerProvider} is keyed by it.
+ * The request-, session- and conversation-context of that thread aren't active in the handler thread and
+ * neither its transaction nor its persistence-context are available there (JPA entities of the exception are
+ * detached).
+ */
+@ApplicationScoped
+@MBean(name = "AsyncExceptionHandling", description = "statistics of the asynchronous exception handling")
+public class AsyncExceptionHandlerExecutor
+{
+    private static final String REJECTION_POLICY_CALLER_RUNS = "caller-runs";
+    private static final long IDLE_THREAD_TIMEOUT_SECONDS = 60;
+    private static final long SHUTDOWN_TIMEOUT_SECONDS = 5;
+
+    private static final Logger LOG = Logger.getLogger(AsyncExceptionHandlerExecutor.class.getName());
+
+    private final AtomicLong submittedCount = new AtomicLong();
+    private final AtomicLong droppedCount = new AtomicLong();
+    private final AtomicLong callerRunsCount = new AtomicLong();
+    private final AtomicLong failedCount = new AtomicLong();
+
+    private boolean enabled;
+    private boolean callerRuns;
+    private volatile boolean stopped;
+    private ExecutorService managedExecutor;
+    private ThreadPoolExecutor executor;
+
+    @PostConstruct
+    protected void init()
+    {
+        enabled = CoreBaseConfig.ExceptionControl.Async.ENABLED.getValue();
+
+        if (!enabled)
+        {
+            return;
+        }
+
+        callerRuns = REJECTION_POLICY_CALLER_RUNS.equalsIgnoreCase(
+                CoreBaseConfig.ExceptionControl.Async.REJECTION_POLICY.getValue());
+
+        managedExecutor = lookupManagedExecutor();
+
+        if (managedExecutor != null)
+        {
+            return;
+        }
+
+        int poolSize = CoreBaseConfig.ExceptionControl.Async.POOL_SIZE.getValue();
+        int queueSize = CoreBaseConfig.ExceptionControl.Async.QUEUE_SIZE.getValue();
+
+        // rejected invocations are handled by #notify
+        executor = new ThreadPoolExecutor(poolSize, poolSize, IDLE_THREAD_TIMEOUT_SECONDS, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<Runnable>(queueSize),
+                new ExceptionHandlerThreadFactory(),
+                new ThreadPoolExecutor.AbortPolicy());
+        // no idle threads if there are no exceptions to handle
+        executor.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * @return the ManagedExecutorService of the container or <code>null</code> if there is none
+     */
+    protected ExecutorService lookupManagedExecutor()
+    {
+        String jndiName = CoreBaseConfig.ExceptionControl.Async.MANAGED_EXECUTOR.getValue();
+
+        try
+        {
+            return JndiUtils.lookup(jndiName, ExecutorService.class);
+        }
+        catch (RuntimeException e)
+        {
+            if (LOG.isLoggable(Level.FINE))
+            {
+                LOG.log(Level.FINE, "No ManagedExecutorService found for " + jndiName, e);
+            }
+            return null;
+        }
+    }
+
+    /**
+     * Stops the thread-pool together with the application. Pending invocations get a short time to finish,
+     * afterwards the remaining ones get interrupted, so that no thread survives the undeployment.
+     */
+    @PreDestroy
+    protected void shutdown()
+    {
+        // the lifecycle of a ManagedExecutorService is controlled by the container
+        stopped = true;
+
+        if (executor == null)
+        {
+            return;
+        }
+
+        executor.shutdown();
+        try
+        {
+            if (!executor.awaitTermination(SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS))
+            {
+                List<Runnable> skippedInvocations = executor.shutdownNow();
+                LOG.warning("Stopped the asynchronous exception handling with " + skippedInvocations.size() +
+                        " pending handler invocations");
+            }
+        }
+        catch (InterruptedException e)
+        {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * @param handler the handler which should get invoked
+     * @return true if the given handler gets invoked asynchronously
+     */
+    public boolean isAsynchronous(HandlerMethod<?> handler)
+    {
+        return enabled && handler instanceof HandlerMethodImpl && ((HandlerMethodImpl<?>) handler).isNonBlocking();
+    }
+
+    /**
+     * Invokes the given handler in a separate thread.
+     * Depending on the configured rejection-policy, the invocation is skipped or done in the current thread
+     * if the queue is full. After the shutdown the invocation is always skipped.
+     *
+     * @return true if the handler got invoked or will be invoked, false if the invocation was skipped
+     */
+    public boolean notify(HandlerMethod<?> handler, DefaultExceptionEvent<?> event, BeanManager beanManager)
+    {
+        submittedCount.incrementAndGet();
+
+        ExceptionHandlerInvocation invocation = new ExceptionHandlerInvocation(handler, event, beanManager);
+
+        if (!stopped)
+        {
+            try
+            {
+                (managedExecutor != null ? managedExecutor : executor).execute(invocation);
+                return true;
+            }
+            catch (RejectedExecutionException e)
+            {
+                if (callerRuns && !stopped)
+                {
+                    callerRunsCount.incrementAndGet();
+                    invocation.run();
+                    return true;
+                }
+            }
+        }
+
+        droppedCount.incrementAndGet();
+
+        if (LOG.isLoggable(Level.FINE))
+        {
+            LOG.fine("Skipped asynchronous exception handler " + handler +
+                    ", because the queue is full or the exception handling is stopped");
+        }
+        return false;
+    }
+
+    @JmxManaged(description = "number of handler invocations submitted for asynchronous execution")
+    public long getSubmittedCount()
+    {
+        return submittedCount.get();
+    }
+
+    @JmxManaged(description = "number of handler invocations skipped, because the queue was full")
+    public long getDroppedCount()
+    {
+        return droppedCount.get();
+    }
+
+    @JmxManaged(description = "number of handler invocations done by the calling thread, because the queue was full")
+    public long getCallerRunsCount()
+    {
+        return callerRunsCount.get();
+    }
+
+    @JmxManaged(description = "number of handler invocations which failed with an exception")
+    public long getFailedCount()
+    {
+        return failedCount.get();
+    }
+
+    @JmxManaged(description = "number of pending handler invocations")
+    public int getQueueDepth()
+    {
+        return executor == null ? 0 : executor.getQueue().size();
+    }
+
+    @JmxManaged(description = "number of handler invocations in progress")
+    public int getActiveCount()
+    {
+        return executor == null ? 0 : executor.getActiveCount();
+    }
+
+    private class ExceptionHandlerInvocation implements Runnable
+    {
+        private final HandlerMethod handler;
+        private final DefaultExceptionEvent event;
+        private final BeanManager beanManager;
+        private final ClassLoader classLoader;
+
+        private ExceptionHandlerInvocation(HandlerMethod<?> handler, DefaultExceptionEvent<?> event,
+                                           BeanManager beanManager)
+        {
+            this.handler = handler;
+            this.event = event;
+            this.beanManager = beanManager;
+            this.classLoader = Thread.currentThread().getContextClassLoader();
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public void run()
+        {
+            Thread currentThread = Thread.currentThread();
+            ClassLoader previousClassLoader = currentThread.getContextClassLoader();
+            currentThread.setContextClassLoader(classLoader);
+
+            try
+            {
+                handler.notify(event, beanManager);
+            }
+            catch (Throwable t)
+            {
+                failedCount.incrementAndGet();
+                LOG.log(Level.WARNING, "Asynchronous exception handler " + handler + " failed", t);
+            }
+            finally
+            {
+                currentThread.setContextClassLoader(previousClassLoader);
+            }
+        }
+    }
+
+    private static class ExceptionHandlerThreadFactory implements ThreadFactory
+    {
+        private final AtomicInteger threadCount = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable)
+        {
+            Thread thread = new Thread(runnable, "deltaspike-exception-handler-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
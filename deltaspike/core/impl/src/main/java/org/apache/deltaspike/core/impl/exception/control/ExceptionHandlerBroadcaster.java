@@ -21,17 +21,17 @@ package org.apache.deltaspike.core.impl.exception.control;
 
 import java.util.ArrayList;
 import java.util.Collection;
-import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.logging.Level;
 import java.util.logging.Logger;
 
 import javax.enterprise.context.ApplicationScoped;
-import javax.enterprise.context.spi.CreationalContext;
 import javax.enterprise.event.Observes;
 import javax.enterprise.inject.Any;
 import javax.enterprise.inject.spi.BeanManager;
+import javax.inject.Inject;
 
 import org.apache.deltaspike.core.api.exception.control.HandlerMethod;
 import org.apache.deltaspike.core.api.exception.control.event.ExceptionStackEvent;
@@ -47,6 +47,11 @@ public class ExceptionHandlerBroadcaster
 {
     private static final Logger LOG = Logger.getLogger(ExceptionHandlerBroadcaster.class.getName());
 
+    @Inject
+    private AsyncExceptionHandlerExecutor asyncExceptionHandlerExecutor;
+
+    private volatile HandlerMethodStorage handlerMethodStorage;
+
     /**
      * Observes the event, finds the correct exception handler(s) and invokes them.
      * 
@@ -63,18 +68,14 @@ public class ExceptionHandlerBroadcaster
         LOG.entering(
                 ExceptionHandlerBroadcaster.class.getName(), "executeHandlers", exceptionEventEvent.getException());
 
-        CreationalContext<Object> creationalContext = null;
-
         Throwable throwException = null;
 
-        final HandlerMethodStorage handlerMethodStorage =
-                BeanProvider.getContextualReference(HandlerMethodStorage.class);
+        final HandlerMethodStorage handlerMethodStorage = getHandlerMethodStorage();
 
         try
         {
-            creationalContext = beanManager.createCreationalContext(null);
-
-            final Set<HandlerMethod<?>> processedHandlers = new HashSet<HandlerMethod<?>>();
+            // created lazily, because most of the exceptions are handled by the first handler
+            Set<HandlerMethod<?>> processedHandlers = null;
 
             final ExceptionStackEvent stack = new ExceptionStackEvent(exceptionEventEvent.getException());
 
@@ -84,15 +85,32 @@ public class ExceptionHandlerBroadcaster
         inbound_cause:
             while (stack.getCurrent() != null)
             {
-                final List<HandlerMethod<?>> callbackExceptionEvent = new ArrayList<HandlerMethod<?>>(
+                final Collection<HandlerMethod<? extends Throwable>> callbackExceptionEvent =
                         handlerMethodStorage.getHandlersForException(stack.getCurrent().getClass(),
-                                beanManager, exceptionEventEvent.getQualifiers(), true));
+                                beanManager, exceptionEventEvent.getQualifiers(), true);
 
                 for (HandlerMethod<?> handler : callbackExceptionEvent)
                 {
-                    if (!processedHandlers.contains(handler))
+                    if (processedHandlers == null || !processedHandlers.contains(handler))
                     {
-                        LOG.fine(String.format("Notifying handler %s", handler));
+                        if (LOG.isLoggable(Level.FINE))
+                        {
+                            LOG.fine(String.format("Notifying handler %s", handler));
+                        }
+
+                        if (asyncExceptionHandlerExecutor.isAsynchronous(handler))
+                        {
+                            // non-blocking handlers can't control the flow -> handled and continue,
+                            // but only if the invocation wasn't skipped (e.g. because the queue is full)
+                            if (asyncExceptionHandlerExecutor.notify(handler,
+                                    new DefaultExceptionEvent(stack, true, exceptionEventEvent.isHandled()),
+                                    beanManager))
+                            {
+                                processedHandlers = addProcessedHandler(processedHandlers, handler);
+                                exceptionEventEvent.setHandled(true);
+                            }
+                            continue;
+                        }
 
                         @SuppressWarnings("rawtypes")
                         final DefaultExceptionEvent callbackEvent = new DefaultExceptionEvent(stack, true,
@@ -100,12 +118,15 @@ public class ExceptionHandlerBroadcaster
 
                         handler.notify(callbackEvent, beanManager);
 
-                        LOG.fine(String.format("Handler %s returned status %s", handler,
-                                callbackEvent.getCurrentExceptionHandlingFlow().name()));
+                        if (LOG.isLoggable(Level.FINE))
+                        {
+                            LOG.fine(String.format("Handler %s returned status %s", handler,
+                                    callbackEvent.getCurrentExceptionHandlingFlow().name()));
+                        }
 
                         if (!callbackEvent.isUnmute())
                         {
-                            processedHandlers.add(handler);
+                            processedHandlers = addProcessedHandler(processedHandlers, handler);
                         }
 
                         switch (callbackEvent.getCurrentExceptionHandlingFlow())
@@ -137,29 +158,47 @@ public class ExceptionHandlerBroadcaster
                         handlerMethodStorage.getHandlersForException(stack.getCurrent().getClass(),
                                 beanManager, exceptionEventEvent.getQualifiers(), false);
 
-                final List<HandlerMethod<? extends Throwable>> handlerMethods =
-                        new ArrayList<HandlerMethod<? extends Throwable>>(handlersForException);
-
-                // Reverse these so category handlers are last
-                Collections.reverse(handlerMethods);
+                final List<HandlerMethod<? extends Throwable>> handlerMethods = asList(handlersForException);
 
-                for (HandlerMethod<?> handler : handlerMethods)
+                // Iterate in reverse order so category handlers are last
+                for (int i = handlerMethods.size() - 1; i >= 0; i--)
                 {
-                    if (!processedHandlers.contains(handler))
+                    final HandlerMethod<?> handler = handlerMethods.get(i);
+
+                    if (processedHandlers == null || !processedHandlers.contains(handler))
                     {
-                        LOG.fine(String.format("Notifying handler %s", handler));
+                        if (LOG.isLoggable(Level.FINE))
+                        {
+                            LOG.fine(String.format("Notifying handler %s", handler));
+                        }
+
+                        if (asyncExceptionHandlerExecutor.isAsynchronous(handler))
+                        {
+                            // see the before-handlers
+                            if (asyncExceptionHandlerExecutor.notify(handler,
+                                    new DefaultExceptionEvent(stack, false, exceptionEventEvent.isHandled()),
+                                    beanManager))
+                            {
+                                processedHandlers = addProcessedHandler(processedHandlers, handler);
+                                exceptionEventEvent.setHandled(true);
+                            }
+                            continue;
+                        }
 
                         @SuppressWarnings("rawtypes")
                         final DefaultExceptionEvent depthFirstEvent = new DefaultExceptionEvent(stack, false,
                                 exceptionEventEvent.isHandled());
                         handler.notify(depthFirstEvent, beanManager);
 
-                        LOG.fine(String.format("Handler %s returned status %s", handler,
-                                depthFirstEvent.getCurrentExceptionHandlingFlow().name()));
+                        if (LOG.isLoggable(Level.FINE))
+                        {
+                            LOG.fine(String.format("Handler %s returned status %s", handler,
+                                    depthFirstEvent.getCurrentExceptionHandlingFlow().name()));
+                        }
 
                         if (!depthFirstEvent.isUnmute())
                         {
-                            processedHandlers.add(handler);
+                            processedHandlers = addProcessedHandler(processedHandlers, handler);
                         }
 
                         switch (depthFirstEvent.getCurrentExceptionHandlingFlow())
@@ -204,12 +243,39 @@ public class ExceptionHandlerBroadcaster
         }
         finally
         {
-            if (creationalContext != null)
-            {
-                creationalContext.release();
-            }
             LOG.exiting(ExceptionHandlerBroadcaster.class.getName(), "executeHandlers",
                     exceptionEventEvent.getException());
         }
     }
+
+    private HandlerMethodStorage getHandlerMethodStorage()
+    {
+        // the storage is application scoped, so it's fine to keep the (proxied) contextual reference
+        if (handlerMethodStorage == null)
+        {
+            handlerMethodStorage = BeanProvider.getContextualReference(HandlerMethodStorage.class);
+        }
+        return handlerMethodStorage;
+    }
+
+    private static Set<HandlerMethod<?>> addProcessedHandler(Set<HandlerMethod<?>> processedHandlers,
+                                                             HandlerMethod<?> handler)
+    {
+        Set<HandlerMethod<?>> result = processedHandlers;
+        if (result == null)
+        {
+            result = new HashSet<HandlerMethod<?>>();
+        }
+        result.add(handler);
+        return result;
+    }
+
+    private static <T> List<T> asList(Collection<T> collection)
+    {
+        if (collection instanceof List)
+        {
+            return (List<T>) collection;
+        }
+        return new ArrayList<T>(collection);
+    }
 }
@@ -22,6 +22,7 @@ package org.apache.deltaspike.core.impl.exception.control;
 import org.apache.deltaspike.core.api.exception.control.HandlerMethod;
 import org.apache.deltaspike.core.api.exception.control.BeforeHandles;
 import org.apache.deltaspike.core.api.exception.control.Handles;
+import org.apache.deltaspike.core.api.exception.control.NonBlocking;
 import org.apache.deltaspike.core.api.exception.control.event.ExceptionEvent;
 import org.apache.deltaspike.core.api.literal.AnyLiteral;
 import org.apache.deltaspike.core.api.provider.BeanProvider;
@@ -58,10 +59,12 @@ public class HandlerMethodImpl<T extends Throwable> implements HandlerMethod<T>
     private final Type exceptionType;
     private final AnnotatedMethod<?> handler;
     private final boolean before;
+    private final boolean nonBlocking;
     private final int ordinal;
     private final Method javaMethod;
     private final AnnotatedParameter<?> handlerParameter;
     private Set<InjectionPoint> injectionPoints;
+    private volatile InjectableMethod<?> injectableMethod;
 
     /**
      * Sole Constructor.
@@ -90,6 +93,7 @@ public class HandlerMethodImpl<T extends Throwable> implements HandlerMethod<T>
         }
 
         before = handlerParameter.getAnnotation(BeforeHandles.class) != null;
+        nonBlocking = method.isAnnotationPresent(NonBlocking.class);
 
         if (before)
         {
@@ -192,7 +196,13 @@ public class HandlerMethodImpl<T extends Throwable> implements HandlerMethod<T>
             ctx = beanManager.createCreationalContext(null);
             @SuppressWarnings("unchecked")
             Object handlerInstance = BeanProvider.getContextualReference(declaringBeanClass);
-            InjectableMethod<?> im = createInjectableMethod(handler, getDeclaringBean(), beanManager);
+            InjectableMethod<?> im = injectableMethod;
+            if (im == null)
+            {
+                // the injection points of the handler method don't change, so it's enough to resolve them once
+                im = createInjectableMethod(handler, getDeclaringBean(), beanManager);
+                injectableMethod = im;
+            }
             im.invoke(handlerInstance, ctx, new OutboundParameterValueRedefiner(event, this));
         }
         finally
@@ -219,6 +229,14 @@ public class HandlerMethodImpl<T extends Throwable> implements HandlerMethod<T>
         return before;
     }
 
+    /**
+     * @return true if the handler method is annotated with {@link NonBlocking}
+     */
+    public boolean isNonBlocking()
+    {
+        return nonBlocking;
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -27,12 +27,17 @@ import javax.enterprise.inject.Typed;
 import javax.enterprise.inject.spi.BeanManager;
 import java.lang.annotation.Annotation;
 import java.lang.reflect.Type;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.logging.Level;
 import java.util.logging.Logger;
 
 /**
@@ -42,8 +47,17 @@ import java.util.logging.Logger;
 @Typed()
 class HandlerMethodStorageImpl implements HandlerMethodStorage
 {
+    private static final AnyLiteral ANY_LITERAL = new AnyLiteral();
+
     private final Map<Type, Collection<HandlerMethod<? extends Throwable>>> allHandlers;
 
+    /**
+     * The sorted handlers per exception type, qualifiers and traversal mode.
+     * It gets filled lazily for every combination and cleared if a handler gets registered.
+     */
+    private final ConcurrentMap<HandlerLookupKey, List<HandlerMethod<? extends Throwable>>> handlersForException =
+            new ConcurrentHashMap<HandlerLookupKey, List<HandlerMethod<? extends Throwable>>>();
+
     private Logger log = Logger.getLogger(HandlerMethodStorageImpl.class.toString());
 
     HandlerMethodStorageImpl(Map<Type, Collection<HandlerMethod<? extends Throwable>>> allHandlers)
@@ -64,6 +78,8 @@ class HandlerMethodStorageImpl implements HandlerMethodStorage
             allHandlers.put(handlerMethod.getExceptionType(),
                     new HashSet<HandlerMethod<? extends Throwable>>(Collections.singleton(handlerMethod)));
         }
+
+        handlersForException.clear();
     }
 
     @Override
@@ -71,6 +87,27 @@ class HandlerMethodStorageImpl implements HandlerMethodStorage
                                                                                   BeanManager bm,
                                                                                   Set<Annotation> handlerQualifiers,
                                                                                   boolean isBefore)
+    {
+        HandlerLookupKey lookupKey = new HandlerLookupKey(exceptionClass, handlerQualifiers, isBefore);
+
+        List<HandlerMethod<? extends Throwable>> result = handlersForException.get(lookupKey);
+
+        if (result == null)
+        {
+            result = findHandlersForException(exceptionClass, handlerQualifiers, isBefore);
+
+            // the qualifiers of the key might be a view of a mutable set
+            handlersForException.put(
+                    new HandlerLookupKey(exceptionClass, new HashSet<Annotation>(handlerQualifiers), isBefore),
+                    result);
+        }
+
+        return result;
+    }
+
+    private List<HandlerMethod<? extends Throwable>> findHandlersForException(Type exceptionClass,
+                                                                              Set<Annotation> handlerQualifiers,
+                                                                              boolean isBefore)
     {
         final Collection<HandlerMethod<? extends Throwable>> returningHandlers =
                 new TreeSet<HandlerMethod<? extends Throwable>>(new ExceptionHandlerComparator());
@@ -83,23 +120,9 @@ class HandlerMethodStorageImpl implements HandlerMethodStorage
             {
                 for (HandlerMethod<?> handler : allHandlers.get(hierarchyType))
                 {
-                    if (handler.isBeforeHandler() && isBefore)
-                    {
-                        if (handler.getQualifiers().contains(new AnyLiteral()))
-                        {
-                            returningHandlers.add(handler);
-                        }
-                        else
-                        {
-                            if (!handlerQualifiers.isEmpty() && handlerQualifiers.equals(handler.getQualifiers()))
-                            {
-                                returningHandlers.add(handler);
-                            }
-                        }
-                    }
-                    else if (!handler.isBeforeHandler() && !isBefore)
+                    if (handler.isBeforeHandler() == isBefore)
                     {
-                        if (handler.getQualifiers().contains(new AnyLiteral()))
+                        if (handler.getQualifiers().contains(ANY_LITERAL))
                         {
                             returningHandlers.add(handler);
                         }
@@ -115,8 +138,53 @@ class HandlerMethodStorageImpl implements HandlerMethodStorage
             }
         }
 
-        log.fine(String.format("Found handlers %s for exception type %s, qualifiers %s", returningHandlers,
-                exceptionClass, handlerQualifiers));
-        return Collections.unmodifiableCollection(returningHandlers);
+        if (log.isLoggable(Level.FINE))
+        {
+            log.fine(String.format("Found handlers %s for exception type %s, qualifiers %s", returningHandlers,
+                    exceptionClass, handlerQualifiers));
+        }
+        return Collections.unmodifiableList(new ArrayList<HandlerMethod<? extends Throwable>>(returningHandlers));
+    }
+
+    private static final class HandlerLookupKey
+    {
+        private final Type exceptionClass;
+        private final Set<Annotation> handlerQualifiers;
+        private final boolean isBefore;
+
+        private HandlerLookupKey(Type exceptionClass, Set<Annotation> handlerQualifiers, boolean isBefore)
+        {
+            this.exceptionClass = exceptionClass;
+            this.handlerQualifiers = handlerQualifiers;
+            this.isBefore = isBefore;
+        }
+
+        @Override
+        public boolean equals(Object o)
+        {
+            if (this == o)
+            {
+                return true;
+            }
+            if (!(o instanceof HandlerLookupKey))
+            {
+                return false;
+            }
+
+            HandlerLookupKey that = (HandlerLookupKey) o;
+
+            return isBefore == that.isBefore
+                    && exceptionClass.equals(that.exceptionClass)
+                    && handlerQualifiers.equals(that.handlerQualifiers);
+        }
+
+        @Override
+        public int hashCode()
+        {
+            int result = exceptionClass.hashCode();
+            result = 31 * result + handlerQualifiers.hashCode();
+            result = 31 * result + (isBefore ? 1 : 0);
+            return result;
+        }
     }
 }
@@ -23,6 +23,7 @@ import org.apache.deltaspike.core.api.message.MessageResolver;
 import org.apache.deltaspike.core.util.PropertyFileUtils;
 
 import javax.enterprise.context.Dependent;
+import javax.inject.Inject;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Locale;
@@ -35,6 +36,9 @@ public class DefaultMessageResolver implements MessageResolver
 {
     private static final long serialVersionUID = 5834411208472341006L;
 
+    @Inject
+    private ResolvedMessageCache resolvedMessageCache;
+
     @Override
     public String getMessage(MessageContext messageContext, String messageTemplate, String category)
     {
@@ -57,45 +61,69 @@ public class DefaultMessageResolver implements MessageResolver
                 return null;
             }
 
-            Iterator<String> messageSourceIterator = messageSources.iterator();
-
             Locale locale = messageContext.getLocale();
 
-            String currentMessageSource;
-            while (messageSourceIterator.hasNext())
+            if (resolvedMessageCache == null || !resolvedMessageCache.isEnabled())
             {
-                currentMessageSource = messageSourceIterator.next();
+                return resolveMessage(messageSources, locale, resourceKey, category);
+            }
 
-                try
-                {
-                    ResourceBundle messageBundle = PropertyFileUtils.getResourceBundle(currentMessageSource, locale);
+            String message = resolvedMessageCache.getMessage(messageSources, locale, resourceKey, category);
 
-                    if (category != null && category.length() > 0)
-                    {
-                        try
-                        {
-                            return messageBundle.getString(resourceKey + "_" + category);
-                        }
-                        catch (MissingResourceException e)
-                        {
-                            // we fallback on the version without the category
-                            return messageBundle.getString(resourceKey);
-                        }
-                    }
+            if (message == null)
+            {
+                message = resolveMessage(messageSources, locale, resourceKey, category);
+                resolvedMessageCache.putMessage(messageSources, locale, resourceKey, category, message);
+            }
+            else if (message == ResolvedMessageCache.NOT_FOUND)
+            {
+                message = null;
+            }
 
-                    return messageBundle.getString(resourceKey);
-                }
-                catch (MissingResourceException e)
+            return message;
+        }
+
+        return messageTemplate;
+    }
+
+    private String resolveMessage(List<String> messageSources, Locale locale, String resourceKey, String category)
+    {
+        Iterator<String> messageSourceIterator = messageSources.iterator();
+
+        String currentMessageSource;
+        while (messageSourceIterator.hasNext())
+        {
+            currentMessageSource = messageSourceIterator.next();
+
+            try
+            {
+                ResourceBundle messageBundle = PropertyFileUtils.getResourceBundle(currentMessageSource, locale);
+
+                if (category != null && category.length() > 0)
                 {
-                    if (!messageSourceIterator.hasNext())
+                    try
                     {
-                        return null;
+                        return messageBundle.getString(resourceKey + "_" + category);
+                    }
+                    catch (MissingResourceException e)
+                    {
+                        // we fallback on the version without the category
+                        return messageBundle.getString(resourceKey);
                     }
                 }
+
+                return messageBundle.getString(resourceKey);
+            }
+            catch (MissingResourceException e)
+            {
+                if (!messageSourceIterator.hasNext())
+                {
+                    return null;
+                }
             }
         }
 
-        return messageTemplate;
+        return null;
     }
 
     protected List<String> getMessageSources(MessageContext messageContext)
@@ -26,17 +26,11 @@ import java.lang.reflect.InvocationHandler;
 import java.lang.reflect.Method;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
-import org.apache.deltaspike.core.api.literal.AnyLiteral;
-import org.apache.deltaspike.core.api.message.LocaleResolver;
 import org.apache.deltaspike.core.api.message.Message;
 import org.apache.deltaspike.core.api.message.MessageContext;
-import org.apache.deltaspike.core.api.message.MessageInterpolator;
-import org.apache.deltaspike.core.api.message.MessageResolver;
-import org.apache.deltaspike.core.api.message.MessageContextConfig;
-import org.apache.deltaspike.core.api.message.MessageTemplate;
-import org.apache.deltaspike.core.api.provider.BeanProvider;
-import org.apache.deltaspike.core.util.ClassUtils;
 
 /**
  * This Proxy InvocationHandler implements the handling for all our
@@ -51,6 +45,9 @@ public class MessageBundleInvocationHandler implements InvocationHandler, Serial
     @Inject
     private MessageContext baseMessageContext = null;
 
+    // Method isn't serializable - the descriptors just get re-created after deserialization
+    private transient volatile ConcurrentMap<Method, MessageBundleMethodDescriptor> methodDescriptors;
+
     /**
      * @see java.lang.reflect.InvocationHandler#invoke(java.lang.Object,
      *      java.lang.reflect.Method, java.lang.Object[])
@@ -82,18 +79,7 @@ public class MessageBundleInvocationHandler implements InvocationHandler, Serial
             return null;
         }
 
-        final MessageTemplate messageTemplate = method.getAnnotation(MessageTemplate.class);
-
-        String messageTemplateValue;
-
-        if (messageTemplate != null)
-        {
-            messageTemplateValue = messageTemplate.value();
-        }
-        else
-        {
-            messageTemplateValue = "{" + method.getName() + "}";
-        }
+        MessageBundleMethodDescriptor methodDescriptor = getMethodDescriptor(method);
 
         MessageContext messageContext = resolveMessageContextFromArguments(args);
         List<Serializable> arguments = resolveMessageArguments(args);
@@ -102,23 +88,15 @@ public class MessageBundleInvocationHandler implements InvocationHandler, Serial
         {
             messageContext = baseMessageContext.clone();
 
-            MessageContextConfig messageContextConfig =
-                method.getDeclaringClass().getAnnotation(MessageContextConfig.class);
-
-            if (messageContextConfig != null)
-            {
-                applyMessageContextConfig(messageContext, messageContextConfig);
-            }
+            methodDescriptor.applyMessageContextConfig(messageContext);
         }
 
-        String messageBundleName = method.getDeclaringClass().getName();
-
         Message message =  messageContext
-                .messageSource(messageBundleName).message()
-                .template(messageTemplateValue)
+                .messageSource(methodDescriptor.getMessageBundleName()).message()
+                .template(methodDescriptor.getMessageTemplate())
                 .argument(arguments.toArray(new Serializable[arguments.size()]));
 
-        if (String.class.isAssignableFrom(method.getReturnType()))
+        if (methodDescriptor.isStringReturnType())
         {
             return message.toString();
         }
@@ -126,38 +104,31 @@ public class MessageBundleInvocationHandler implements InvocationHandler, Serial
         return message;
     }
 
-    private void applyMessageContextConfig(MessageContext messageContext, MessageContextConfig messageContextConfig)
+    private MessageBundleMethodDescriptor getMethodDescriptor(Method method)
     {
-        if (!MessageResolver.class.equals(messageContextConfig.messageResolver()))
-        {
-            Class<? extends MessageResolver> messageResolverClass =
-                    ClassUtils.tryToLoadClassForName(messageContextConfig.messageResolver().getName());
-
-            messageContext.messageResolver(
-                    BeanProvider.getContextualReference(messageResolverClass, new AnyLiteral()));
-        }
+        ConcurrentMap<Method, MessageBundleMethodDescriptor> descriptors = methodDescriptors;
 
-        if (!MessageInterpolator.class.equals(messageContextConfig.messageInterpolator()))
+        if (descriptors == null)
         {
-            Class<? extends MessageInterpolator> messageInterpolatorClass =
-                    ClassUtils.tryToLoadClassForName(messageContextConfig.messageInterpolator().getName());
-
-            messageContext.messageInterpolator(
-                    BeanProvider.getContextualReference(messageInterpolatorClass, new AnyLiteral()));
+            // also needed after deserialization
+            descriptors = new ConcurrentHashMap<Method, MessageBundleMethodDescriptor>();
+            methodDescriptors = descriptors;
         }
 
-        if (!LocaleResolver.class.equals(messageContextConfig.localeResolver()))
+        MessageBundleMethodDescriptor methodDescriptor = descriptors.get(method);
+
+        if (methodDescriptor == null)
         {
-            Class<? extends LocaleResolver> localeResolverClass =
-                    ClassUtils.tryToLoadClassForName(messageContextConfig.localeResolver().getName());
+            methodDescriptor = new MessageBundleMethodDescriptor(method);
 
-            messageContext.localeResolver(
-                    BeanProvider.getContextualReference(localeResolverClass, new AnyLiteral()));
+            MessageBundleMethodDescriptor existingMethodDescriptor = descriptors.putIfAbsent(method, methodDescriptor);
+            if (existingMethodDescriptor != null)
+            {
+                methodDescriptor = existingMethodDescriptor;
+            }
         }
-        
-        String[] messageSources = messageContextConfig.messageSource();
-        messageContext.messageSource(messageSources);
 
+        return methodDescriptor;
     }
 
     private List<Serializable> resolveMessageArguments(Object[] args)
@@ -23,6 +23,8 @@ import javax.enterprise.inject.Alternative;
 import java.io.Serializable;
 import java.util.Locale;
 import java.text.MessageFormat;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import org.apache.deltaspike.core.api.message.MessageInterpolator;
 
@@ -33,6 +35,9 @@ import org.apache.deltaspike.core.api.message.MessageInterpolator;
  * Please note that for some EE containers you might need to add this &lt;alternative&gt>
  * to all JARs and classpath entries beanx.xml files.
  *
+ * Parsed message templates are cached per {@link Locale}. Since {@link MessageFormat} isn't thread-safe,
+ * every interpolation uses a clone of the cached instance.
+ *
  * {@inheritDoc}
  */
 @ApplicationScoped
@@ -41,10 +46,88 @@ public class MessageFormatMessageInterpolator implements MessageInterpolator, Se
 {
     private static final long serialVersionUID = -8854087197813424812L;
 
+    private static final int MAX_CACHE_SIZE = 1024;
+
+    private transient volatile ConcurrentMap<MessageFormatKey, MessageFormat> messageFormatCache;
+
     @Override
     public String interpolate(String messageTemplate, Serializable[] arguments, Locale locale)
     {
-        MessageFormat messageFormat = new MessageFormat(messageTemplate, locale);
+        MessageFormat messageFormat = getMessageFormat(messageTemplate, locale);
         return messageFormat.format(arguments);
     }
+
+    private MessageFormat getMessageFormat(String messageTemplate, Locale locale)
+    {
+        ConcurrentMap<MessageFormatKey, MessageFormat> cache = getMessageFormatCache();
+        MessageFormatKey key = new MessageFormatKey(messageTemplate, locale);
+
+        MessageFormat messageFormat = cache.get(key);
+
+        if (messageFormat == null)
+        {
+            messageFormat = new MessageFormat(messageTemplate, locale);
+
+            if (cache.size() >= MAX_CACHE_SIZE)
+            {
+                // the templates are usually a small and fixed set, so just start over
+                cache.clear();
+            }
+            cache.putIfAbsent(key, messageFormat);
+        }
+
+        // MessageFormat isn't thread-safe
+        return (MessageFormat) messageFormat.clone();
+    }
+
+    private ConcurrentMap<MessageFormatKey, MessageFormat> getMessageFormatCache()
+    {
+        ConcurrentMap<MessageFormatKey, MessageFormat> cache = messageFormatCache;
+
+        if (cache == null)
+        {
+            // also needed after deserialization
+            cache = new ConcurrentHashMap<MessageFormatKey, MessageFormat>();
+            messageFormatCache = cache;
+        }
+        return cache;
+    }
+
+    private static final class MessageFormatKey
+    {
+        private final String messageTemplate;
+        private final Locale locale;
+
+        private MessageFormatKey(String messageTemplate, Locale locale)
+        {
+            this.messageTemplate = messageTemplate;
+            this.locale = locale;
+        }
+
+        @Override
+        public boolean equals(Object o)
+        {
+            if (this == o)
+            {
+                return true;
+            }
+            if (!(o instanceof MessageFormatKey))
+            {
+                return false;
+            }
+
+            MessageFormatKey that = (MessageFormatKey) o;
+
+            return messageTemplate.equals(that.messageTemplate) &&
+                    (locale != null ? locale.equals(that.locale) : that.locale == null);
+        }
+
+        @Override
+        public int hashCode()
+        {
+            int result = messageTemplate.hashCode();
+            result = 31 * result + (locale != null ? locale.hashCode() : 0);
+            return result;
+        }
+    }
 }
@@ -0,0 +1,159 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.deltaspike.core.impl.message;
+
+import org.apache.deltaspike.core.api.config.base.CoreBaseConfig;
+import org.apache.deltaspike.core.api.projectstage.ProjectStage;
+import org.apache.deltaspike.core.util.ProjectStageProducer;
+
+import javax.annotation.PostConstruct;
+import javax.enterprise.context.ApplicationScoped;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Cache for the messages resolved by {@link DefaultMessageResolver}.
+ * It also caches keys which aren't available in any message-source, so that
+ * a resolved message doesn't cause a {@link java.util.MissingResourceException} again.
+ *
+ * By default the cache isn't used in {@link ProjectStage.Development} to pick up changed resource-bundles.
+ * It can be switched on or off with {@link CoreBaseConfig.Message.Cache#ENABLED}.
+ */
+@ApplicationScoped
+public class ResolvedMessageCache implements Serializable
+{
+    static final String NOT_FOUND = new String();
+
+    private static final long serialVersionUID = -4478213442734312437L;
+
+    static final int MAX_CACHE_SIZE = 4096;
+
+    private transient volatile ConcurrentMap<ResolvedMessageKey, String> resolvedMessages;
+
+    private boolean enabled;
+
+    @PostConstruct
+    protected void init()
+    {
+        Boolean configuredEnabled = CoreBaseConfig.Message.Cache.ENABLED.getValue();
+
+        if (configuredEnabled != null)
+        {
+            this.enabled = configuredEnabled;
+        }
+        else
+        {
+            this.enabled = !ProjectStage.Development.equals(ProjectStageProducer.getInstance().getProjectStage());
+        }
+    }
+
+    public boolean isEnabled()
+    {
+        return enabled;
+    }
+
+    /**
+     * @return the cached message, {@link #NOT_FOUND} if none of the message-sources contains the key,
+     *         or null if the message isn't cached
+     */
+    public String getMessage(List<String> messageSources, Locale locale, String resourceKey, String category)
+    {
+        return getResolvedMessages().get(new ResolvedMessageKey(messageSources, locale, resourceKey, category));
+    }
+
+    public void putMessage(List<String> messageSources, Locale locale, String resourceKey, String category,
+                           String message)
+    {
+        ConcurrentMap<ResolvedMessageKey, String> currentResolvedMessages = getResolvedMessages();
+
+        if (currentResolvedMessages.size() >= MAX_CACHE_SIZE)
+        {
+            currentResolvedMessages.clear();
+        }
+
+        // the message-sources might be a view of a mutable list
+        List<String> messageSourcesCopy = new ArrayList<String>(messageSources);
+
+        currentResolvedMessages.put(new ResolvedMessageKey(messageSourcesCopy, locale, resourceKey, category),
+                message != null ? message : NOT_FOUND);
+    }
+
+    private ConcurrentMap<ResolvedMessageKey, String> getResolvedMessages()
+    {
+        ConcurrentMap<ResolvedMessageKey, String> currentResolvedMessages = resolvedMessages;
+
+        if (currentResolvedMessages == null)
+        {
+            // also needed after deserialization
+            currentResolvedMessages = new ConcurrentHashMap<ResolvedMessageKey, String>();
+            resolvedMessages = currentResolvedMessages;
+        }
+        return currentResolvedMessages;
+    }
+
+    private static final class ResolvedMessageKey
+    {
+        private final List<String> messageSources;
+        private final Locale locale;
+        private final String resourceKey;
+        private final String category;
+
+        private ResolvedMessageKey(List<String> messageSources, Locale locale, String resourceKey, String category)
+        {
+            this.messageSources = messageSources;
+            this.locale = locale;
+            this.resourceKey = resourceKey;
+            this.category = category;
+        }
+
+        @Override
+        public boolean equals(Object o)
+        {
+            if (this == o)
+            {
+                return true;
+            }
+            if (!(o instanceof ResolvedMessageKey))
+            {
+                return false;
+            }
+
+            ResolvedMessageKey that = (ResolvedMessageKey) o;
+
+            return resourceKey.equals(that.resourceKey) &&
+                    messageSources.equals(that.messageSources) &&
+                    (locale != null ? locale.equals(that.locale) : that.locale == null) &&
+                    (category != null ? category.equals(that.category) : that.category == null);
+        }
+
+        @Override
+        public int hashCode()
+        {
+            int result = resourceKey.hashCode();
+            result = 31 * result + messageSources.hashCode();
+            result = 31 * result + (locale != null ? locale.hashCode() : 0);
+            result = 31 * result + (category != null ? category.hashCode() : 0);
+            return result;
+        }
+    }
+}
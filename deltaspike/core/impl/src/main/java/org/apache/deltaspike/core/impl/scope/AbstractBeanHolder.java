@@ -18,22 +18,53 @@
  */
 package org.apache.deltaspike.core.impl.scope;
 
+import org.apache.deltaspike.core.api.config.base.CoreBaseConfig;
 import org.apache.deltaspike.core.util.context.AbstractContext;
 import org.apache.deltaspike.core.util.context.ContextualStorage;
 
 import javax.annotation.PreDestroy;
+import javax.enterprise.context.ContextNotActiveException;
 import javax.enterprise.inject.spi.BeanManager;
+import javax.inject.Inject;
+import java.io.IOException;
+import java.io.ObjectInputStream;
 import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 public abstract class AbstractBeanHolder<K> implements Serializable
 {
-    private Map<K, ContextualStorage> storageMap = new ConcurrentHashMap<K, ContextualStorage>();
+    //the serialized form changed (e.g. the type of the storage-map) -> sessions serialized by versions without
+    //an explicit serialVersionUID can't be restored
+    private static final long serialVersionUID = -4470574658916733621L;
+
+    private volatile ConcurrentMap<K, ContextualStorage> storageMap = new ConcurrentHashMap<K, ContextualStorage>();
 
     private final boolean useConcurrentStorage;
     private final boolean usePassivationCapableStorage;
 
+    private final long maxSize = CoreBaseConfig.Scope.Storage.MAX_SIZE.getValue() * 1024L;
+    //only maintained if there is a max-size
+    private final AtomicLong estimatedSize = new AtomicLong();
+
+    @Inject
+    private ContextualStorageSizeEstimator contextualStorageSizeEstimator;
+
+    @Inject
+    private ContextualStorageStatistics contextualStorageStatistics;
+
+    @Inject
+    private ContextualStorageUsageHolder contextualStorageUsageHolder;
+
+    //registered once per instance (and again after deserialization)
+    private transient volatile boolean registeredForStatistics;
+
     protected AbstractBeanHolder()
     {
         this(true, true);
@@ -54,20 +85,196 @@ public abstract class AbstractBeanHolder<K> implements Serializable
             contextualStorage = createContextualStorage(beanManager, key);
         }
 
+        if (contextualStorage != null && maxSize > 0)
+        {
+            registerUsedStorage(contextualStorage);
+        }
+
         return contextualStorage;
     }
 
-    protected synchronized ContextualStorage createContextualStorage(BeanManager beanManager, K key)
+    private void registerUsedStorage(ContextualStorage contextualStorage)
+    {
+        if (contextualStorageUsageHolder == null)
+        {
+            return;
+        }
+
+        try
+        {
+            contextualStorageUsageHolder.registerUsedStorage(contextualStorage);
+        }
+        catch (ContextNotActiveException e)
+        {
+            //no request (e.g. a manually started thread) -> the storage isn't protected from the eviction
+        }
+    }
+
+    protected ContextualStorage createContextualStorage(BeanManager beanManager, K key)
     {
         ContextualStorage contextualStorage = storageMap.get(key);
         if (contextualStorage == null)
         {
-            contextualStorage = new ContextualStorage(beanManager, useConcurrentStorage, usePassivationCapableStorage);
-            storageMap.put(key, contextualStorage);
+            contextualStorage = new BeanHolderContextualStorage(
+                this, beanManager, useConcurrentStorage, usePassivationCapableStorage);
+
+            // no lock on the whole holder needed - only one storage per key gets stored
+            ContextualStorage existingContextualStorage = storageMap.putIfAbsent(key, contextualStorage);
+            if (existingContextualStorage != null)
+            {
+                return existingContextualStorage;
+            }
+
+            registerForStatistics();
         }
         return contextualStorage;
     }
 
+    private void registerForStatistics()
+    {
+        if (!registeredForStatistics && contextualStorageStatistics != null)
+        {
+            registeredForStatistics = true;
+            contextualStorageStatistics.register(this);
+        }
+    }
+
+    /**
+     * Gets called after a new contextual instance was stored in one of the storages of this holder.
+     * If the estimated size of all storages exceeds {@link CoreBaseConfig.Scope.Storage#MAX_SIZE}, the oldest
+     * storages which aren't in use by a request (and never the given one) get evicted via
+     * {@link #evictContextualStorage(Object, ContextualStorage)}.
+     *
+     * @param currentStorage storage which received the new contextual instance
+     * @param contextualInstance the new contextual instance
+     */
+    void contextualInstanceCreated(ContextualStorage currentStorage, Object contextualInstance)
+    {
+        if (maxSize <= 0 || contextualStorageSizeEstimator == null)
+        {
+            return;
+        }
+
+        //the running size doesn't know about storages and beans which got destroyed in the meantime
+        //-> it can only be too high and gets corrected before anything gets evicted
+        if (estimatedSize.addAndGet(contextualStorageSizeEstimator.estimateSize(contextualInstance)) <= maxSize)
+        {
+            return;
+        }
+
+        List<Map.Entry<K, ContextualStorage>> storagesToEvict = new ArrayList<Map.Entry<K, ContextualStorage>>();
+
+        //only the selection is synchronized - the beans get destroyed outside of the lock
+        synchronized (this)
+        {
+            long size = contextualStorageSizeEstimator.estimateSize(storageMap.values());
+
+            if (size > maxSize)
+            {
+                for (Map.Entry<K, ContextualStorage> entry : findEvictableStorages(currentStorage))
+                {
+                    storagesToEvict.add(entry);
+                    size -= contextualStorageSizeEstimator.estimateSize(entry.getValue());
+
+                    if (size <= maxSize)
+                    {
+                        break;
+                    }
+                }
+            }
+
+            estimatedSize.set(size);
+        }
+
+        for (Map.Entry<K, ContextualStorage> storageToEvict : storagesToEvict)
+        {
+            evictContextualStorage(storageToEvict.getKey(), storageToEvict.getValue());
+
+            if (contextualStorageStatistics != null)
+            {
+                contextualStorageStatistics.storageEvicted();
+            }
+        }
+    }
+
+    /**
+     * @return the storages which can be evicted - the oldest first
+     */
+    private List<Map.Entry<K, ContextualStorage>> findEvictableStorages(ContextualStorage storageToKeep)
+    {
+        List<Map.Entry<K, ContextualStorage>> result = new ArrayList<Map.Entry<K, ContextualStorage>>();
+
+        for (Map.Entry<K, ContextualStorage> entry : storageMap.entrySet())
+        {
+            ContextualStorage contextualStorage = entry.getValue();
+
+            if (contextualStorage == storageToKeep || !(contextualStorage instanceof BeanHolderContextualStorage) ||
+                ((BeanHolderContextualStorage) contextualStorage).isInUse() || !isEvictable(entry.getKey()))
+            {
+                continue;
+            }
+
+            result.add(entry);
+        }
+
+        Collections.sort(result, new Comparator<Map.Entry<K, ContextualStorage>>()
+        {
+            @Override
+            public int compare(Map.Entry<K, ContextualStorage> entry1, Map.Entry<K, ContextualStorage> entry2)
+            {
+                long creationTime1 = ((BeanHolderContextualStorage) entry1.getValue()).getCreationTime();
+                long creationTime2 = ((BeanHolderContextualStorage) entry2.getValue()).getCreationTime();
+                return creationTime1 < creationTime2 ? -1 : (creationTime1 == creationTime2 ? 0 : 1);
+            }
+        });
+        return result;
+    }
+
+    /**
+     * @param key key of a storage which isn't used by a request
+     * @return false if the storage is active nevertheless (e.g. the current window) and mustn't be evicted
+     */
+    protected boolean isEvictable(K key)
+    {
+        return true;
+    }
+
+    /**
+     * Removes the given storage and destroys its beans, because the max-size is exceeded.
+     * Holders which are controlled by a context (e.g. the windows) should close the storage via the context.
+     * It gets called without holding a lock on this holder.
+     *
+     * @param key key of the storage
+     * @param contextualStorage storage to evict
+     */
+    protected void evictContextualStorage(K key, ContextualStorage contextualStorage)
+    {
+        //it might have been closed in the meantime
+        if (storageMap.remove(key, contextualStorage))
+        {
+            AbstractContext.destroyAllActive(contextualStorage);
+        }
+    }
+
+    /**
+     * Adds a storage which was created outside of this holder (e.g. a deserialized storage).
+     */
+    protected synchronized void addContextualStorage(K key, ContextualStorage contextualStorage)
+    {
+        attachContextualStorage(contextualStorage);
+        storageMap.put(key, contextualStorage);
+
+        registerForStatistics();
+    }
+
+    private void attachContextualStorage(ContextualStorage contextualStorage)
+    {
+        if (contextualStorage instanceof BeanHolderContextualStorage)
+        {
+            ((BeanHolderContextualStorage) contextualStorage).setBeanHolder(this);
+        }
+    }
+
     public Map<K, ContextualStorage> getStorageMap()
     {
         return storageMap;
@@ -77,12 +284,19 @@ public abstract class AbstractBeanHolder<K> implements Serializable
     {
         Map<K, ContextualStorage> oldStorageMap = storageMap;
         storageMap = new ConcurrentHashMap<K, ContextualStorage>();
+        estimatedSize.set(0);
         return oldStorageMap;
     }
 
     @PreDestroy
     public void destroyBeans()
     {
+        if (registeredForStatistics)
+        {
+            registeredForStatistics = false;
+            contextualStorageStatistics.unregister(this);
+        }
+
         Map<K, ContextualStorage> oldWindowContextStorages = forceNewStorage();
 
         for (ContextualStorage contextualStorage : oldWindowContextStorages.values())
@@ -90,4 +304,19 @@ public abstract class AbstractBeanHolder<K> implements Serializable
             AbstractContext.destroyAllActive(contextualStorage);
         }
     }
+
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException
+    {
+        in.defaultReadObject();
+
+        for (ContextualStorage contextualStorage : storageMap.values())
+        {
+            attachContextualStorage(contextualStorage);
+        }
+
+        if (!storageMap.isEmpty())
+        {
+            registerForStatistics();
+        }
+    }
 }
@@ -0,0 +1,89 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.deltaspike.core.impl.scope;
+
+import org.apache.deltaspike.core.util.context.ContextualStorage;
+
+import javax.enterprise.context.spi.Contextual;
+import javax.enterprise.context.spi.CreationalContext;
+import javax.enterprise.inject.spi.BeanManager;
+
+/**
+ * {@link ContextualStorage} of an {@link AbstractBeanHolder} which notifies the holder about new contextual instances,
+ * to allow the holder to keep the size of its storages within the configured limit.
+ */
+class BeanHolderContextualStorage extends ContextualStorage
+{
+    private static final long serialVersionUID = -6470394183410218473L;
+
+    //restored by the bean-holder after deserialization, to avoid serializing the holder with a single storage
+    private transient AbstractBeanHolder<?> beanHolder;
+    private final long creationTime;
+    //number of requests which use the storage right now (see ContextualStorageUsageHolder)
+    private transient int usageCount;
+
+    BeanHolderContextualStorage(AbstractBeanHolder<?> beanHolder,
+                                BeanManager beanManager,
+                                boolean concurrent,
+                                boolean passivationCapable)
+    {
+        super(beanManager, concurrent, passivationCapable);
+        this.beanHolder = beanHolder;
+        this.creationTime = System.currentTimeMillis();
+    }
+
+    @Override
+    public <T> T createContextualInstance(Contextual<T> bean, CreationalContext<T> creationalContext)
+    {
+        int previousSize = getStorage().size();
+
+        T result = super.createContextualInstance(bean, creationalContext);
+
+        if (beanHolder != null && getStorage().size() > previousSize)
+        {
+            beanHolder.contextualInstanceCreated(this, result);
+        }
+        return result;
+    }
+
+    long getCreationTime()
+    {
+        return creationTime;
+    }
+
+    synchronized void usageStarted()
+    {
+        this.usageCount++;
+    }
+
+    synchronized void usageFinished()
+    {
+        this.usageCount--;
+    }
+
+    synchronized boolean isInUse()
+    {
+        return this.usageCount > 0;
+    }
+
+    void setBeanHolder(AbstractBeanHolder<?> beanHolder)
+    {
+        this.beanHolder = beanHolder;
+    }
+}
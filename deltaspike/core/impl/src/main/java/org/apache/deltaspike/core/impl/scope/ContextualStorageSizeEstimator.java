@@ -0,0 +1,107 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.deltaspike.core.impl.scope;
+
+import org.apache.deltaspike.core.api.config.ConfigResolver;
+import org.apache.deltaspike.core.api.config.base.CoreBaseConfig;
+import org.apache.deltaspike.core.util.ProxyUtils;
+import org.apache.deltaspike.core.util.context.ContextualInstanceInfo;
+import org.apache.deltaspike.core.util.context.ContextualStorage;
+
+import javax.enterprise.context.ApplicationScoped;
+import java.util.Collection;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.logging.Logger;
+
+/**
+ * Estimates the memory used by the contextual instances of {@link ContextualStorage}s.
+ * The size of an instance is configured via {@link CoreBaseConfig.Scope.Storage#ESTIMATED_BEAN_SIZE} and can be
+ * overruled per bean-class via the same key followed by "." and the name of the bean-class.
+ * The configured sizes are cached per application, since the bean-classes (and the config) belong to it.
+ */
+@ApplicationScoped
+public class ContextualStorageSizeEstimator
+{
+    private static final Logger LOG = Logger.getLogger(ContextualStorageSizeEstimator.class.getName());
+
+    private final ConcurrentMap<Class<?>, Integer> estimatedSizePerClass = new ConcurrentHashMap<Class<?>, Integer>();
+
+    public long estimateSize(Collection<ContextualStorage> contextualStorages)
+    {
+        long result = 0;
+        for (ContextualStorage contextualStorage : contextualStorages)
+        {
+            result += estimateSize(contextualStorage);
+        }
+        return result;
+    }
+
+    public long estimateSize(ContextualStorage contextualStorage)
+    {
+        long result = 0;
+        for (ContextualInstanceInfo<?> contextualInstanceInfo : contextualStorage.getStorage().values())
+        {
+            result += estimateSize(contextualInstanceInfo.getContextualInstance());
+        }
+        return result;
+    }
+
+    public long estimateSize(Object contextualInstance)
+    {
+        if (contextualInstance == null)
+        {
+            return 0;
+        }
+        return getEstimatedSize(contextualInstance.getClass());
+    }
+
+    private int getEstimatedSize(Class<?> instanceClass)
+    {
+        Integer result = estimatedSizePerClass.get(instanceClass);
+
+        if (result == null)
+        {
+            String beanClassName = ProxyUtils.getUnproxiedClass(instanceClass).getName();
+            String configuredSize = ConfigResolver.getPropertyValue(
+                CoreBaseConfig.Scope.Storage.ESTIMATED_BEAN_SIZE.getKey() + "." + beanClassName);
+
+            if (configuredSize != null)
+            {
+                try
+                {
+                    result = Integer.parseInt(configuredSize.trim());
+                }
+                catch (NumberFormatException e)
+                {
+                    LOG.warning("Invalid estimated size '" + configuredSize + "' for " + beanClassName +
+                        " - the default size gets used instead");
+                }
+            }
+
+            if (result == null)
+            {
+                result = CoreBaseConfig.Scope.Storage.ESTIMATED_BEAN_SIZE.getValue();
+            }
+
+            estimatedSizePerClass.put(instanceClass, result);
+        }
+        return result;
+    }
+}
@@ -0,0 +1,160 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.deltaspike.core.impl.scope;
+
+import org.apache.deltaspike.core.api.config.base.CoreBaseConfig;
+import org.apache.deltaspike.core.api.jmx.JmxManaged;
+import org.apache.deltaspike.core.api.jmx.MBean;
+import org.apache.deltaspike.core.impl.scope.conversation.ConversationBeanHolder;
+import org.apache.deltaspike.core.impl.scope.viewaccess.ViewAccessBeanHolder;
+import org.apache.deltaspike.core.impl.scope.window.WindowBeanHolder;
+import org.apache.deltaspike.core.util.context.ContextualStorage;
+
+import javax.annotation.PostConstruct;
+import javax.enterprise.context.ApplicationScoped;
+import javax.inject.Inject;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Exposes the number and the estimated size of the contextual instances of the window-, grouped-conversation- and
+ * view-access-scope (over all sessions of the application) via JMX.
+ * The bean-holders only get tracked if {@link CoreBaseConfig.Scope.Storage#STATISTICS_ENABLED} is set.
+ */
+@ApplicationScoped
+@MBean(name = "ContextualStorages", description = "statistics of the storages of window-based scopes")
+public class ContextualStorageStatistics
+{
+    private final Map<AbstractBeanHolder<?>, Boolean> beanHolders =
+        Collections.synchronizedMap(new WeakHashMap<AbstractBeanHolder<?>, Boolean>());
+
+    private final AtomicLong evictedStorageCount = new AtomicLong();
+
+    private boolean enabled;
+
+    @Inject
+    private ContextualStorageSizeEstimator contextualStorageSizeEstimator;
+
+    @PostConstruct
+    protected void init()
+    {
+        enabled = CoreBaseConfig.Scope.Storage.STATISTICS_ENABLED.getValue();
+    }
+
+    public void register(AbstractBeanHolder<?> beanHolder)
+    {
+        if (enabled)
+        {
+            beanHolders.put(beanHolder, Boolean.TRUE);
+        }
+    }
+
+    public void unregister(AbstractBeanHolder<?> beanHolder)
+    {
+        if (enabled)
+        {
+            beanHolders.remove(beanHolder);
+        }
+    }
+
+    public void storageEvicted()
+    {
+        evictedStorageCount.incrementAndGet();
+    }
+
+    @JmxManaged(description = "number of window-scoped beans")
+    public long getWindowScopedBeanCount()
+    {
+        return countBeans(WindowBeanHolder.class);
+    }
+
+    @JmxManaged(description = "estimated size of all window-scoped beans in bytes")
+    public long getWindowScopedEstimatedSize()
+    {
+        return estimateSize(WindowBeanHolder.class);
+    }
+
+    @JmxManaged(description = "number of grouped-conversation-scoped beans")
+    public long getGroupedConversationScopedBeanCount()
+    {
+        return countBeans(ConversationBeanHolder.class);
+    }
+
+    @JmxManaged(description = "estimated size of all grouped-conversation-scoped beans in bytes")
+    public long getGroupedConversationScopedEstimatedSize()
+    {
+        return estimateSize(ConversationBeanHolder.class);
+    }
+
+    @JmxManaged(description = "number of view-access-scoped beans")
+    public long getViewAccessScopedBeanCount()
+    {
+        return countBeans(ViewAccessBeanHolder.class);
+    }
+
+    @JmxManaged(description = "estimated size of all view-access-scoped beans in bytes")
+    public long getViewAccessScopedEstimatedSize()
+    {
+        return estimateSize(ViewAccessBeanHolder.class);
+    }
+
+    @JmxManaged(description = "number of storages which were destroyed, because the max-size was exceeded")
+    public long getEvictedStorageCount()
+    {
+        return evictedStorageCount.get();
+    }
+
+    private long countBeans(Class<?> beanHolderClass)
+    {
+        long result = 0;
+        for (ContextualStorage contextualStorage : getContextualStorages(beanHolderClass))
+        {
+            result += contextualStorage.getStorage().size();
+        }
+        return result;
+    }
+
+    private long estimateSize(Class<?> beanHolderClass)
+    {
+        return contextualStorageSizeEstimator.estimateSize(getContextualStorages(beanHolderClass));
+    }
+
+    private List<ContextualStorage> getContextualStorages(Class<?> beanHolderClass)
+    {
+        List<AbstractBeanHolder<?>> registeredBeanHolders;
+        synchronized (beanHolders)
+        {
+            registeredBeanHolders = new ArrayList<AbstractBeanHolder<?>>(beanHolders.keySet());
+        }
+
+        List<ContextualStorage> result = new ArrayList<ContextualStorage>();
+        for (AbstractBeanHolder<?> beanHolder : registeredBeanHolders)
+        {
+            if (beanHolderClass.isInstance(beanHolder))
+            {
+                result.addAll(beanHolder.getStorageMap().values());
+            }
+        }
+        return result;
+    }
+}
@@ -0,0 +1,74 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.deltaspike.core.impl.scope;
+
+import org.apache.deltaspike.core.util.context.ContextualStorage;
+
+import javax.annotation.PreDestroy;
+import javax.enterprise.context.RequestScoped;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Keeps track of the storages of {@link AbstractBeanHolder}s which are used by the current request.
+ * Storages which are in use (by this or any other request) never get evicted.
+ * It's only used if {@link org.apache.deltaspike.core.api.config.base.CoreBaseConfig.Scope.Storage#MAX_SIZE}
+ * is set.
+ */
+@RequestScoped
+public class ContextualStorageUsageHolder
+{
+    private Set<ContextualStorage> usedStorages;
+
+    /**
+     * Marks the given storage as used by the current request until the request ends.
+     *
+     * @param contextualStorage storage which gets used
+     */
+    public void registerUsedStorage(ContextualStorage contextualStorage)
+    {
+        if (!(contextualStorage instanceof BeanHolderContextualStorage))
+        {
+            return;
+        }
+
+        if (this.usedStorages == null)
+        {
+            this.usedStorages = new HashSet<ContextualStorage>();
+        }
+
+        if (this.usedStorages.add(contextualStorage))
+        {
+            ((BeanHolderContextualStorage) contextualStorage).usageStarted();
+        }
+    }
+
+    @PreDestroy
+    protected void releaseUsedStorages()
+    {
+        if (this.usedStorages != null)
+        {
+            for (ContextualStorage usedStorage : this.usedStorages)
+            {
+                ((BeanHolderContextualStorage) usedStorage).usageFinished();
+            }
+            this.usedStorages = null;
+        }
+    }
+}
@@ -18,16 +18,16 @@
  */
 package org.apache.deltaspike.core.impl.scope.viewaccess;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.util.HashSet;
+import java.util.Set;
 import javax.enterprise.context.RequestScoped;
 
 @RequestScoped
 public class ViewAccessBeanAccessHistory
 {    
-    private final List<String> accessedBeans = new ArrayList<String>();
+    private final Set<String> accessedBeans = new HashSet<String>();
 
-    public List<String> getAccessedBeans()
+    public Set<String> getAccessedBeans()
     {
         return accessedBeans;
     }
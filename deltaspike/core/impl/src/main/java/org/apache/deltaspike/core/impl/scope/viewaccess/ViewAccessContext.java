@@ -36,7 +36,11 @@ import java.util.Map;
 @Typed()
 public class ViewAccessContext extends AbstractContext implements ViewAccessContextManager
 {
-    private static final String KEY = "VAS"; //TODO re-visit key (e.g. view-id instead of using one big storage)
+    /**
+     * Key of the storage before the first view was processed.
+     * Afterwards the storage of the beans is stored with the view-id of the last processed view as key.
+     */
+    private static final String KEY = "VAS";
 
     private final BeanManager beanManager;
     private final WindowContextImpl windowContext;
@@ -99,7 +103,17 @@ public class ViewAccessContext extends AbstractContext implements ViewAccessCont
     @Override
     protected ContextualStorage getContextualStorage(Contextual<?> contextual, boolean createIfNotExist)
     {
-        return this.viewAccessBeanHolder.getContextualStorage(this.beanManager, KEY, createIfNotExist);
+        return this.viewAccessBeanHolder.getContextualStorage(
+            this.beanManager, getStorageKey(viewAccessViewHistory.getLastView()), createIfNotExist);
+    }
+
+    private static String getStorageKey(String view)
+    {
+        if (view == null)
+        {
+            return KEY;
+        }
+        return view;
     }
 
     @Override
@@ -128,32 +142,67 @@ public class ViewAccessContext extends AbstractContext implements ViewAccessCont
         }
 
         // destroy beans only if the view has been changed
-        if (force || !view.equals(viewAccessViewHistory.getLastView()))
+        if (force)
         {
             viewAccessViewHistory.setLastView(view);
-            
-            destroyExpiredBeans(force);
+
+            destroyAllBeans();
+        }
+        else
+        {
+            String lastView = viewAccessViewHistory.getLastView();
+
+            if (!view.equals(lastView))
+            {
+                viewAccessViewHistory.setLastView(view);
+
+                destroyExpiredBeans(getStorageKey(lastView), getStorageKey(view));
+            }
         }
         
         // clear history after each rendering process
         viewAccessBeanAccessHistory.getAccessedBeans().clear();
     }
     
-    private void destroyExpiredBeans(boolean force)
+    /**
+     * Moves the beans which were accessed while processing the current view to a new storage (for the new view)
+     * and destroys the storage of the previous view with all beans which weren't accessed.
+     */
+    private void destroyExpiredBeans(String previousStorageKey, String newStorageKey)
     {
-        ContextualStorage storage = viewAccessBeanHolder.getContextualStorage(beanManager, KEY, false);
-        if (storage != null)
+        ContextualStorage previousStorage = viewAccessBeanHolder.getStorageMap().remove(previousStorageKey);
+        if (previousStorage == null)
         {
-            for (Map.Entry<Object, ContextualInstanceInfo<?>> storageEntry : storage.getStorage().entrySet())
+            return;
+        }
+
+        Map<Object, ContextualInstanceInfo<?>> previousBeans = previousStorage.getStorage();
+        ContextualStorage newStorage = null;
+
+        for (String accessedBean : viewAccessBeanAccessHistory.getAccessedBeans())
+        {
+            ContextualInstanceInfo<?> contextualInstanceInfo = previousBeans.remove(accessedBean);
+
+            if (contextualInstanceInfo != null)
             {
-                if (force || !viewAccessBeanAccessHistory.getAccessedBeans().contains((String) storageEntry.getKey()))
+                if (newStorage == null)
                 {
-                    Contextual bean = storage.getBean(storageEntry.getKey());
-                    AbstractContext.destroyBean(bean, storageEntry.getValue());
-                    storage.getStorage().remove(storageEntry.getKey()); //ok due to ConcurrentHashMap
+                    newStorage = viewAccessBeanHolder.getContextualStorage(beanManager, newStorageKey, true);
                 }
+                newStorage.getStorage().put(accessedBean, contextualInstanceInfo);
             }
         }
+
+        // only expired beans are left in the storage of the previous view
+        AbstractContext.destroyAllActive(previousStorage);
+    }
+
+    private void destroyAllBeans()
+    {
+        for (ContextualStorage storage : viewAccessBeanHolder.forceNewStorage().values())
+        {
+            AbstractContext.destroyAllActive(storage);
+        }
     }
 
     @Override
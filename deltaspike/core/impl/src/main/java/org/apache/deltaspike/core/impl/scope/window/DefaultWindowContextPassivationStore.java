@@ -0,0 +1,221 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.deltaspike.core.impl.scope.window;
+
+import org.apache.deltaspike.core.api.config.base.CoreBaseConfig;
+import org.apache.deltaspike.core.spi.scope.window.WindowContextPassivationStore;
+import org.apache.deltaspike.core.util.ExceptionUtils;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.enterprise.context.ApplicationScoped;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.logging.Logger;
+
+/**
+ * Stores passivated windows as files in the directory configured via
+ * {@link CoreBaseConfig.Scope.Window#PASSIVATION_DIRECTORY}.
+ * Without a configured directory, a new directory (only accessible by the owner of the process) gets created in
+ * "java.io.tmpdir" and deleted again once the application gets stopped.
+ * The files are local to the current node, therefore {@link WindowBeanHolder} serializes the passivated windows
+ * together with the session (e.g. for the session-replication).
+ */
+@ApplicationScoped
+public class DefaultWindowContextPassivationStore implements WindowContextPassivationStore
+{
+    private static final long serialVersionUID = -4298437123690812445L;
+
+    private static final Logger LOG = Logger.getLogger(DefaultWindowContextPassivationStore.class.getName());
+
+    private static final String FILE_EXTENSION = ".window";
+
+    private File directory;
+
+    //true if the directory was created for this application only
+    private boolean privateDirectory;
+
+    @PostConstruct
+    protected void init()
+    {
+        String configuredDirectory = CoreBaseConfig.Scope.Window.PASSIVATION_DIRECTORY.getValue();
+
+        if (configuredDirectory == null || configuredDirectory.trim().length() == 0)
+        {
+            this.directory = createPrivateDirectory();
+            this.privateDirectory = true;
+        }
+        else
+        {
+            this.directory = new File(configuredDirectory.trim());
+        }
+    }
+
+    @PreDestroy
+    protected void cleanup()
+    {
+        if (!this.privateDirectory)
+        {
+            return;
+        }
+
+        File[] files = this.directory.listFiles();
+        if (files != null)
+        {
+            for (File file : files)
+            {
+                file.delete();
+            }
+        }
+        this.directory.delete();
+    }
+
+    @Override
+    public void store(String key, byte[] windowState)
+    {
+        if (!this.directory.isDirectory())
+        {
+            if (!this.directory.mkdirs())
+            {
+                throw new IllegalStateException("Can't create directory " + this.directory.getAbsolutePath());
+            }
+            restrictToOwner(this.directory);
+        }
+
+        OutputStream outputStream = null;
+        try
+        {
+            outputStream = new FileOutputStream(getFile(key));
+            outputStream.write(windowState);
+        }
+        catch (IOException e)
+        {
+            throw ExceptionUtils.throwAsRuntimeException(e);
+        }
+        finally
+        {
+            close(outputStream);
+        }
+    }
+
+    @Override
+    public byte[] load(String key)
+    {
+        File file = getFile(key);
+
+        if (!file.exists())
+        {
+            return null;
+        }
+
+        InputStream inputStream = null;
+        try
+        {
+            inputStream = new FileInputStream(file);
+            ByteArrayOutputStream result = new ByteArrayOutputStream((int) file.length());
+
+            byte[] buffer = new byte[8192];
+            int length = inputStream.read(buffer);
+            while (length != -1)
+            {
+                result.write(buffer, 0, length);
+                length = inputStream.read(buffer);
+            }
+            return result.toByteArray();
+        }
+        catch (IOException e)
+        {
+            throw ExceptionUtils.throwAsRuntimeException(e);
+        }
+        finally
+        {
+            close(inputStream);
+        }
+    }
+
+    @Override
+    public void remove(String key)
+    {
+        File file = getFile(key);
+
+        if (file.exists() && !file.delete())
+        {
+            file.deleteOnExit();
+        }
+    }
+
+    private File getFile(String key)
+    {
+        return new File(this.directory, key + FILE_EXTENSION);
+    }
+
+    private static File createPrivateDirectory()
+    {
+        try
+        {
+            //random name which isn't used already
+            File result = File.createTempFile("deltaspike-window-passivation-", "");
+
+            if (!result.delete() || !result.mkdir())
+            {
+                throw new IllegalStateException("Can't create directory " + result.getAbsolutePath());
+            }
+            restrictToOwner(result);
+            return result;
+        }
+        catch (IOException e)
+        {
+            throw ExceptionUtils.throwAsRuntimeException(e);
+        }
+    }
+
+    private static void restrictToOwner(File directory)
+    {
+        //java.io.File only allows to change the permissions for the owner or for everybody
+        boolean restricted = directory.setReadable(false, false) && directory.setReadable(true, true) &&
+            directory.setWritable(false, false) && directory.setWritable(true, true) &&
+            directory.setExecutable(false, false) && directory.setExecutable(true, true);
+
+        if (!restricted)
+        {
+            LOG.warning("Can't restrict the access to " + directory.getAbsolutePath() + " to the owner");
+        }
+    }
+
+    private static void close(Closeable closeable)
+    {
+        if (closeable != null)
+        {
+            try
+            {
+                closeable.close();
+            }
+            catch (IOException e)
+            {
+                //ignore it - the content was processed already
+            }
+        }
+    }
+}
@@ -24,7 +24,9 @@ import org.apache.deltaspike.core.spi.scope.window.WindowContextQuotaHandler;
 import javax.annotation.PostConstruct;
 import javax.enterprise.context.SessionScoped;
 import javax.inject.Inject;
-import java.util.Stack;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 @SessionScoped
 //could be also dependent-scoped since we only inject it in one session-scoped bean, however,
@@ -33,15 +35,25 @@ public class DefaultWindowContextQuotaHandler implements WindowContextQuotaHandl
 {
     protected int maxWindowContextCount;
 
+    /**
+     * Time in milliseconds after which a window-context which wasn't used gets destroyed.
+     * Values &lt;= 0 disable the expiry.
+     */
+    protected long maxWindowContextIdleTime;
+
     @Inject
     private WindowContextQuotaHandlerCache quotaHandlerCache;
 
-    private Stack<String> windowIdStack = new Stack<String>();
+    /**
+     * Window-ids and the time of the last access - in the order of the access (least recently used first).
+     */
+    private LinkedHashMap<String, Long> windowIdAccessTimes = new LinkedHashMap<String, Long>(16, 0.75f, true);
 
     @PostConstruct
     protected void init()
     {
         this.maxWindowContextCount = CoreBaseConfig.Scope.Window.MAX_COUNT.getValue();
+        this.maxWindowContextIdleTime = CoreBaseConfig.Scope.Window.MAX_IDLE_TIME.getValue() * 1000L;
     }
 
     public synchronized /*no issue due to session-scoped instance*/ void checkWindowContextQuota(String windowId)
@@ -60,24 +72,41 @@ public class DefaultWindowContextQuotaHandler implements WindowContextQuotaHandl
          * the following part gets executed only once per request, if the window-id is the same
          */
 
-        if (this.windowIdStack.contains(windowId))
-        {
-            if (windowIdStack.size() > 1) //don't move it up if there is just one entry
-            {
-                this.windowIdStack.remove(windowId);
-                this.windowIdStack.push(windowId);
-            }
-        }
-        else
+        long now = System.currentTimeMillis();
+
+        //moves the window-id to the end (most recently used), if it exists already
+        this.windowIdAccessTimes.put(windowId, now);
+
+        Iterator<Map.Entry<String, Long>> windowIdIterator = this.windowIdAccessTimes.entrySet().iterator();
+        while (windowIdIterator.hasNext())
         {
-            this.windowIdStack.push(windowId);
-            if (this.windowIdStack.size() > this.maxWindowContextCount)
+            Map.Entry<String, Long> leastRecentlyUsed = windowIdIterator.next();
+
+            if (this.windowIdAccessTimes.size() <= this.maxWindowContextCount &&
+                !isExpired(leastRecentlyUsed.getValue(), now))
             {
-                String windowIdToRemove = this.windowIdStack.remove(0);
-                //destroy it lazily at the end of the request to avoid an overhead during the request
-                //which might be caused by pre-destroy logic of window-scoped beans
-                this.quotaHandlerCache.setWindowIdToDestroy(windowIdToRemove);
+                break;
             }
+
+            windowIdIterator.remove();
+            //destroy it lazily at the end of the request to avoid an overhead during the request
+            //which might be caused by pre-destroy logic of window-scoped beans
+            this.quotaHandlerCache.addWindowIdToDestroy(leastRecentlyUsed.getKey());
         }
     }
+
+    /**
+     * Removes the given window from the quota, e.g. if it was closed manually or evicted.
+     *
+     * @param windowId id of the closed window
+     */
+    public synchronized void windowContextClosed(String windowId)
+    {
+        this.windowIdAccessTimes.remove(windowId);
+    }
+
+    private boolean isExpired(long lastAccess, long now)
+    {
+        return this.maxWindowContextIdleTime > 0 && now - lastAccess > this.maxWindowContextIdleTime;
+    }
 }
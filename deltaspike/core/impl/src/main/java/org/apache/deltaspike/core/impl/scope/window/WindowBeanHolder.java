@@ -18,17 +18,43 @@
  */
 package org.apache.deltaspike.core.impl.scope.window;
 
+import org.apache.deltaspike.core.api.config.base.CoreBaseConfig;
 import org.apache.deltaspike.core.impl.scope.AbstractBeanHolder;
 import org.apache.deltaspike.core.spi.activation.Deactivatable;
+import org.apache.deltaspike.core.spi.scope.window.WindowContext;
+import org.apache.deltaspike.core.spi.scope.window.WindowContextPassivationStore;
 import org.apache.deltaspike.core.spi.scope.window.WindowContextQuotaHandler;
 import org.apache.deltaspike.core.util.ClassDeactivationUtils;
+import org.apache.deltaspike.core.util.ClassUtils;
+import org.apache.deltaspike.core.util.ExceptionUtils;
 import org.apache.deltaspike.core.util.ProxyUtils;
 import org.apache.deltaspike.core.util.context.ContextualStorage;
 
 import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import javax.enterprise.context.ContextNotActiveException;
 import javax.enterprise.context.SessionScoped;
 import javax.enterprise.inject.spi.BeanManager;
 import javax.inject.Inject;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamClass;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
 /**
  * This holder will store the window Ids and it's beans for the current
@@ -40,11 +66,47 @@ public class WindowBeanHolder extends AbstractBeanHolder<String>
 {
     private static final long serialVersionUID = 6313493410718133308L;
 
+    private static final Logger LOG = Logger.getLogger(WindowBeanHolder.class.getName());
+
+    //min. time between two checks for windows which can be passivated
+    private static final long PASSIVATION_CHECK_INTERVAL = 1000;
+
+    private static final String PASSIVATION_MAC_ALGORITHM = "HmacSHA256";
+
     @Inject
     private WindowContextQuotaHandler windowContextQuotaHandler;
 
+    @Inject
+    private WindowContextPassivationStore windowContextPassivationStore;
+
+    @Inject
+    private WindowIdHolder windowIdHolder;
+
+    @Inject
+    private WindowContext windowContext;
+
     private boolean windowContextQuotaHandlerEnabled;
 
+    private long passivationIdleTime;
+
+    private Map<String, Long> windowAccessTimes = new ConcurrentHashMap<String, Long>();
+
+    //window-id -> key in the WindowContextPassivationStore
+    private Map<String, String> passivatedWindows = new ConcurrentHashMap<String, String>();
+
+    //window-id -> number of requests which use the window right now (guarded by this)
+    private transient Map<String, Integer> windowUsages;
+
+    //window-id -> signed state of passivated windows which were deserialized with the session (e.g. on an other
+    //node) and aren't in the local store yet
+    private transient Map<String, byte[]> transferredWindowStates;
+
+    //only windows passivated by this session can be restored, since the store might be accessible by others
+    //(serialized manually together with the passivated windows)
+    private transient byte[] passivationKey;
+
+    private transient volatile long lastPassivationCheck;
+
     @PostConstruct
     protected void init()
     {
@@ -52,11 +114,23 @@ public class WindowBeanHolder extends AbstractBeanHolder<String>
             ProxyUtils.getUnproxiedClass(windowContextQuotaHandler.getClass());
 
         this.windowContextQuotaHandlerEnabled = ClassDeactivationUtils.isActivated(windowContextQuotaHandlerClass);
+        this.passivationIdleTime = CoreBaseConfig.Scope.Window.PASSIVATION_IDLE_TIME.getValue() * 1000L;
     }
 
     @Override
     public ContextualStorage getContextualStorage(BeanManager beanManager, String key, boolean createIfNotExist)
     {
+        if (this.passivationIdleTime > 0 && key != null)
+        {
+            long now = System.currentTimeMillis();
+
+            //restores the window (if needed) and prevents its passivation until the end of the request
+            this.windowIdHolder.registerUsedWindow(this, key);
+            this.windowAccessTimes.put(key, now);
+
+            passivateInactiveWindows(now);
+        }
+
         ContextualStorage result = super.getContextualStorage(beanManager, key, createIfNotExist);
         if (this.windowContextQuotaHandlerEnabled)
         {
@@ -65,4 +139,422 @@ public class WindowBeanHolder extends AbstractBeanHolder<String>
         }
         return result;
     }
+
+    /**
+     * The current window is never evicted, even if none of its beans was used by the current request so far.
+     */
+    @Override
+    protected boolean isEvictable(String windowId)
+    {
+        try
+        {
+            return !windowId.equals(this.windowIdHolder.getWindowId());
+        }
+        catch (ContextNotActiveException e)
+        {
+            return true;
+        }
+    }
+
+    /**
+     * Closes the window via the {@link WindowContext}, which also updates the window-quota.
+     */
+    @Override
+    protected void evictContextualStorage(String windowId, ContextualStorage contextualStorage)
+    {
+        this.windowContext.closeWindow(windowId);
+    }
+
+    /**
+     * Gets called by the {@link WindowContext} after the given window was closed.
+     *
+     * @param windowId id of the closed window
+     */
+    public void windowClosed(String windowId)
+    {
+        this.windowAccessTimes.remove(windowId);
+
+        if (this.windowContextQuotaHandlerEnabled &&
+            this.windowContextQuotaHandler instanceof DefaultWindowContextQuotaHandler)
+        {
+            ((DefaultWindowContextQuotaHandler) this.windowContextQuotaHandler).windowContextClosed(windowId);
+        }
+    }
+
+    synchronized void windowUsageStarted(String windowId)
+    {
+        Integer usageCount = getWindowUsages().get(windowId);
+        getWindowUsages().put(windowId, usageCount == null ? 1 : usageCount + 1);
+
+        activateWindow(windowId);
+    }
+
+    synchronized void windowUsageFinished(String windowId)
+    {
+        Integer usageCount = getWindowUsages().remove(windowId);
+
+        if (usageCount != null && usageCount > 1)
+        {
+            getWindowUsages().put(windowId, usageCount - 1);
+        }
+
+        //the idle-time starts at the end of the request
+        if (this.windowAccessTimes.containsKey(windowId))
+        {
+            this.windowAccessTimes.put(windowId, System.currentTimeMillis());
+        }
+    }
+
+    private Map<String, Integer> getWindowUsages()
+    {
+        if (this.windowUsages == null)
+        {
+            this.windowUsages = new HashMap<String, Integer>();
+        }
+        return this.windowUsages;
+    }
+
+    /**
+     * Restores the storage of the given window, if it was passivated.
+     *
+     * @param windowId id of the window to restore
+     */
+    public void activateWindow(String windowId)
+    {
+        if (this.passivatedWindows.isEmpty())
+        {
+            return;
+        }
+
+        synchronized (this)
+        {
+            String storeKey = this.passivatedWindows.get(windowId);
+
+            if (storeKey == null)
+            {
+                return;
+            }
+
+            byte[] windowState = loadWindowState(windowId, storeKey);
+
+            if (windowState != null)
+            {
+                addContextualStorage(windowId, deserialize(verify(windowState)));
+            }
+            else
+            {
+                LOG.warning("Passivated window " + windowId + " doesn't exist in the store anymore");
+            }
+
+            //remove it only after it was restored successfully
+            this.passivatedWindows.remove(windowId);
+            if (this.transferredWindowStates != null)
+            {
+                this.transferredWindowStates.remove(windowId);
+            }
+            this.windowContextPassivationStore.remove(storeKey);
+        }
+    }
+
+    private byte[] loadWindowState(String windowId, String storeKey)
+    {
+        if (this.transferredWindowStates != null)
+        {
+            byte[] result = this.transferredWindowStates.get(windowId);
+
+            if (result != null)
+            {
+                return result;
+            }
+        }
+        return this.windowContextPassivationStore.load(storeKey);
+    }
+
+    /**
+     * Moves the passivated windows which were deserialized with the session to the store of the current node.
+     * Windows which can't be stored stay in the session until the next attempt.
+     */
+    private void storeTransferredWindowStates()
+    {
+        if (this.transferredWindowStates == null)
+        {
+            return;
+        }
+
+        Iterator<Map.Entry<String, byte[]>> windowStateIterator = this.transferredWindowStates.entrySet().iterator();
+        while (windowStateIterator.hasNext())
+        {
+            Map.Entry<String, byte[]> windowState = windowStateIterator.next();
+            String storeKey = this.passivatedWindows.get(windowState.getKey());
+
+            if (storeKey != null)
+            {
+                try
+                {
+                    this.windowContextPassivationStore.store(storeKey, windowState.getValue());
+                }
+                catch (Exception e)
+                {
+                    LOG.log(Level.WARNING, "Storing the passivated window " + windowState.getKey() + " failed", e);
+                    continue;
+                }
+            }
+            windowStateIterator.remove();
+        }
+    }
+
+    private void passivateInactiveWindows(long now)
+    {
+        if (now - this.lastPassivationCheck < PASSIVATION_CHECK_INTERVAL)
+        {
+            return;
+        }
+
+        synchronized (this)
+        {
+            this.lastPassivationCheck = now;
+
+            storeTransferredWindowStates();
+
+            Iterator<Map.Entry<String, Long>> windowIterator = this.windowAccessTimes.entrySet().iterator();
+            while (windowIterator.hasNext())
+            {
+                Map.Entry<String, Long> windowAccessTime = windowIterator.next();
+                String windowId = windowAccessTime.getKey();
+
+                //windows used by a request (e.g. of an other browser-tab) are never passivated
+                if (this.passivatedWindows.containsKey(windowId) || getWindowUsages().containsKey(windowId))
+                {
+                    continue;
+                }
+
+                if (!getStorageMap().containsKey(windowId))
+                {
+                    //the window was closed in the meantime
+                    windowIterator.remove();
+                    continue;
+                }
+
+                if (now - windowAccessTime.getValue() > this.passivationIdleTime)
+                {
+                    passivateWindow(windowId, now);
+                }
+            }
+        }
+    }
+
+    private void passivateWindow(String windowId, long now)
+    {
+        ContextualStorage windowStorage = getStorageMap().get(windowId);
+        String storeKey = UUID.randomUUID().toString();
+
+        try
+        {
+            this.windowContextPassivationStore.store(storeKey, sign(serialize(windowStorage)));
+        }
+        catch (Exception e)
+        {
+            //the window stays in the session - the next attempt happens after the next idle-time
+            this.windowAccessTimes.put(windowId, now);
+            LOG.log(Level.WARNING, "Passivation of window " + windowId + " failed", e);
+            return;
+        }
+
+        //remove it only after it was stored successfully
+        this.passivatedWindows.put(windowId, storeKey);
+        getStorageMap().remove(windowId);
+    }
+
+    /**
+     * Restores all passivated windows.
+     * Windows which can't be restored get logged and stay passivated.
+     */
+    private void activateAllWindows()
+    {
+        for (String windowId : this.passivatedWindows.keySet())
+        {
+            try
+            {
+                activateWindow(windowId);
+            }
+            catch (Exception e)
+            {
+                LOG.log(Level.WARNING, "Activation of window " + windowId + " failed", e);
+            }
+        }
+    }
+
+    @Override
+    @PreDestroy
+    public void destroyBeans()
+    {
+        //restore passivated windows to destroy their beans properly
+        activateAllWindows();
+
+        //windows which couldn't be restored can't be used anymore
+        for (String storeKey : this.passivatedWindows.values())
+        {
+            this.windowContextPassivationStore.remove(storeKey);
+        }
+        this.passivatedWindows.clear();
+        this.transferredWindowStates = null;
+
+        super.destroyBeans();
+    }
+
+    /**
+     * The {@link WindowContextPassivationStore} might be local to the current node (e.g. the default implementation),
+     * therefore the signed states of the passivated windows get serialized together with the session (e.g. for the
+     * session-replication). The windows stay passivated.
+     */
+    private synchronized void writeObject(ObjectOutputStream out) throws IOException
+    {
+        out.defaultWriteObject();
+
+        Map<String, byte[]> windowStates = new HashMap<String, byte[]>();
+        for (Map.Entry<String, String> passivatedWindow : this.passivatedWindows.entrySet())
+        {
+            try
+            {
+                byte[] windowState = loadWindowState(passivatedWindow.getKey(), passivatedWindow.getValue());
+
+                if (windowState != null)
+                {
+                    windowStates.put(passivatedWindow.getKey(), windowState);
+                }
+            }
+            catch (Exception e)
+            {
+                //the window is still available on the current node
+                LOG.log(Level.WARNING, "Loading the passivated window " + passivatedWindow.getKey() + " failed", e);
+            }
+        }
+
+        out.writeObject(windowStates);
+        out.writeObject(this.passivationKey);
+    }
+
+    @SuppressWarnings("unchecked")
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException
+    {
+        in.defaultReadObject();
+
+        Map<String, byte[]> windowStates = (Map<String, byte[]>) in.readObject();
+        this.passivationKey = (byte[]) in.readObject();
+
+        if (!windowStates.isEmpty())
+        {
+            this.transferredWindowStates = new ConcurrentHashMap<String, byte[]>(windowStates);
+        }
+    }
+
+    private byte[] sign(byte[] windowState)
+    {
+        byte[] signature = createSignature(windowState, 0, windowState.length);
+        byte[] result = new byte[signature.length + windowState.length];
+
+        System.arraycopy(signature, 0, result, 0, signature.length);
+        System.arraycopy(windowState, 0, result, signature.length, windowState.length);
+        return result;
+    }
+
+    private byte[] verify(byte[] signedWindowState)
+    {
+        int signatureLength = createMac().getMacLength();
+
+        if (signedWindowState.length >= signatureLength)
+        {
+            byte[] signature = new byte[signatureLength];
+            System.arraycopy(signedWindowState, 0, signature, 0, signatureLength);
+
+            byte[] expectedSignature = createSignature(
+                signedWindowState, signatureLength, signedWindowState.length - signatureLength);
+
+            if (MessageDigest.isEqual(expectedSignature, signature))
+            {
+                byte[] result = new byte[signedWindowState.length - signatureLength];
+                System.arraycopy(signedWindowState, signatureLength, result, 0, result.length);
+                return result;
+            }
+        }
+        throw new IllegalStateException("The passivated window wasn't stored by the current session");
+    }
+
+    private byte[] createSignature(byte[] windowState, int offset, int length)
+    {
+        Mac mac = createMac();
+        mac.update(windowState, offset, length);
+        return mac.doFinal();
+    }
+
+    private synchronized Mac createMac()
+    {
+        if (this.passivationKey == null)
+        {
+            this.passivationKey = new byte[32];
+            new SecureRandom().nextBytes(this.passivationKey);
+        }
+
+        try
+        {
+            Mac mac = Mac.getInstance(PASSIVATION_MAC_ALGORITHM);
+            mac.init(new SecretKeySpec(this.passivationKey, PASSIVATION_MAC_ALGORITHM));
+            return mac;
+        }
+        catch (GeneralSecurityException e)
+        {
+            throw ExceptionUtils.throwAsRuntimeException(e);
+        }
+    }
+
+    private static byte[] serialize(ContextualStorage contextualStorage) throws IOException
+    {
+        ByteArrayOutputStream result = new ByteArrayOutputStream();
+        ObjectOutputStream objectOutputStream = new ObjectOutputStream(result);
+        objectOutputStream.writeObject(contextualStorage);
+        objectOutputStream.close();
+        return result.toByteArray();
+    }
+
+    private static ContextualStorage deserialize(byte[] windowState)
+    {
+        try
+        {
+            ObjectInputStream objectInputStream =
+                new ClassLoaderAwareObjectInputStream(new ByteArrayInputStream(windowState));
+            try
+            {
+                return (ContextualStorage) objectInputStream.readObject();
+            }
+            finally
+            {
+                objectInputStream.close();
+            }
+        }
+        catch (Exception e)
+        {
+            throw ExceptionUtils.throwAsRuntimeException(e);
+        }
+    }
+
+    private static class ClassLoaderAwareObjectInputStream extends ObjectInputStream
+    {
+        private ClassLoaderAwareObjectInputStream(InputStream inputStream) throws IOException
+        {
+            super(inputStream);
+        }
+
+        @Override
+        protected Class<?> resolveClass(ObjectStreamClass objectStreamClass) throws IOException, ClassNotFoundException
+        {
+            try
+            {
+                return Class.forName(objectStreamClass.getName(), false, ClassUtils.getClassLoader(null));
+            }
+            catch (ClassNotFoundException e)
+            {
+                return super.resolveClass(objectStreamClass);
+            }
+        }
+    }
 }
@@ -93,6 +93,9 @@ public class WindowContextImpl extends AbstractContext implements WindowContext
             return false;
         }
 
+        //restore the window (if it was passivated) to destroy its beans properly
+        windowBeanHolder.activateWindow(windowId);
+
         ContextualStorage windowStorage = windowBeanHolder.getStorageMap().remove(windowId);
 
         if (windowStorage != null)
@@ -104,6 +107,8 @@ public class WindowContextImpl extends AbstractContext implements WindowContext
             AbstractContext.destroyAllActive(windowStorage);
         }
 
+        windowBeanHolder.windowClosed(windowId);
+
         return windowStorage != null;
     }
 
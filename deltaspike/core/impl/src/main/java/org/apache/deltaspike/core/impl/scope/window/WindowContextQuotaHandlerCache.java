@@ -24,12 +24,14 @@ import javax.annotation.PreDestroy;
 import javax.enterprise.context.RequestScoped;
 import javax.inject.Inject;
 import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
 
 @RequestScoped
 public class WindowContextQuotaHandlerCache implements Serializable
 {
     private String checkedWindowId;
-    private String windowIdToRemove;
+    private List<String> windowIdsToRemove;
 
     @Inject
     private WindowContext windowContext;
@@ -47,15 +49,28 @@ public class WindowContextQuotaHandlerCache implements Serializable
 
     public void setWindowIdToDestroy(String windowIdToRemove)
     {
-        this.windowIdToRemove = windowIdToRemove;
+        this.windowIdsToRemove = null;
+        addWindowIdToDestroy(windowIdToRemove);
+    }
+
+    public void addWindowIdToDestroy(String windowIdToRemove)
+    {
+        if (this.windowIdsToRemove == null)
+        {
+            this.windowIdsToRemove = new ArrayList<String>(1);
+        }
+        this.windowIdsToRemove.add(windowIdToRemove);
     }
 
     @PreDestroy
     public void cleanup()
     {
-        if (this.windowIdToRemove != null)
+        if (this.windowIdsToRemove != null)
         {
-            this.windowContext.closeWindow(this.windowIdToRemove);
+            for (String windowIdToRemove : this.windowIdsToRemove)
+            {
+                this.windowContext.closeWindow(windowIdToRemove);
+            }
         }
     }
 }
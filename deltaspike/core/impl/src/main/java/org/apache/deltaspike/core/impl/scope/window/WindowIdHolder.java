@@ -18,7 +18,10 @@
  */
 package org.apache.deltaspike.core.impl.scope.window;
 
+import javax.annotation.PreDestroy;
 import javax.enterprise.context.RequestScoped;
+import java.util.HashSet;
+import java.util.Set;
 
 /**
  * Simple class which just provides a &#064;RequestScoped windowId.
@@ -32,6 +35,10 @@ public class WindowIdHolder
 {
     private String windowId;
 
+    //only used if the passivation of windows is enabled
+    private WindowBeanHolder windowBeanHolder;
+    private Set<String> usedWindowIds;
+
     /**
      * @return the detected windowId or <code>null</code> if not yet set.
      */
@@ -48,4 +55,38 @@ public class WindowIdHolder
     {
         this.windowId = windowId;
     }
+
+    /**
+     * Marks the given window as used by the current request until the request ends.
+     * Windows which are in use don't get passivated.
+     *
+     * @param windowBeanHolder the (unproxied) holder of the window
+     * @param usedWindowId id of the window which gets used
+     */
+    public void registerUsedWindow(WindowBeanHolder windowBeanHolder, String usedWindowId)
+    {
+        if (this.usedWindowIds == null)
+        {
+            this.usedWindowIds = new HashSet<String>();
+        }
+
+        if (this.usedWindowIds.add(usedWindowId))
+        {
+            this.windowBeanHolder = windowBeanHolder;
+            windowBeanHolder.windowUsageStarted(usedWindowId);
+        }
+    }
+
+    @PreDestroy
+    protected void releaseUsedWindows()
+    {
+        if (this.usedWindowIds != null)
+        {
+            for (String usedWindowId : this.usedWindowIds)
+            {
+                this.windowBeanHolder.windowUsageFinished(usedWindowId);
+            }
+            this.usedWindowIds = null;
+        }
+    }
 }
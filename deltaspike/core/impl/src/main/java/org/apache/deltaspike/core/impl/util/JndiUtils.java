@@ -24,6 +24,8 @@ import java.util.logging.Level;
 import java.util.logging.Logger;
 
 import javax.enterprise.inject.Typed;
+import javax.naming.Binding;
+import javax.naming.Context;
 import javax.naming.InitialContext;
 import javax.naming.Name;
 import javax.naming.NameClassPair;
@@ -208,4 +210,79 @@ public abstract class JndiUtils
         }
         return result;
     }
+
+    /**
+     * Resolves the instances of the given type in the given naming context and all its sub-contexts.
+     *
+     * @param name       context name
+     * @param type       target type
+     * @param <T>        type
+     * @return the found instances, the keys are the names relative to the given context (e.g. "a/b"),
+     *         null if the given context can't be listed
+     */
+    public static <T> Map<String, T> listRecursive(String name, Class<T> type)
+    {
+        return listRecursive(initialContext, name, type);
+    }
+
+    /**
+     * Resolves the instances of the given type in the given naming context and all its sub-contexts.
+     *
+     * @param context    context used for the lookup
+     * @param name       context name
+     * @param type       target type
+     * @param <T>        type
+     * @return the found instances, the keys are the names relative to the given context (e.g. "a/b"),
+     *         null if the given context can't be listed (e.g. java:comp/env in a thread of a timer)
+     */
+    public static <T> Map<String, T> listRecursive(Context context, String name, Class<T> type)
+    {
+        Map<String, T> result = new HashMap<String, T>();
+
+        try
+        {
+            collectBindings(context, name, "", type, result);
+        }
+        catch (NamingException e)
+        {
+            LOG.log(Level.FINE, "Problem listing the JNDI location " + name, e);
+            return null;
+        }
+        return result;
+    }
+
+    private static <T> void collectBindings(Context context, String name, String prefix, Class<T> type,
+                                            Map<String, T> result) throws NamingException
+    {
+        NamingEnumeration<Binding> bindings = context.listBindings(name);
+        try
+        {
+            while (bindings.hasMore())
+            {
+                Binding binding = bindings.next();
+                Object value = binding.getObject();
+
+                if (value instanceof Context)
+                {
+                    try
+                    {
+                        collectBindings((Context) value, "", prefix + binding.getName() + "/", type, result);
+                    }
+                    catch (NamingException e)
+                    {
+                        // skip sub-contexts which can't be listed
+                        LOG.log(Level.FINEST, "Listing " + prefix + binding.getName() + " failed!", e);
+                    }
+                }
+                else if (type.isInstance(value))
+                {
+                    result.put(prefix + binding.getName(), type.cast(value));
+                }
+            }
+        }
+        finally
+        {
+            bindings.close();
+        }
+    }
 }
@@ -0,0 +1,207 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.deltaspike.core.impl.config;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+import javax.naming.Binding;
+import javax.naming.Context;
+import javax.naming.NameNotFoundException;
+import javax.naming.NamingEnumeration;
+
+import org.apache.deltaspike.core.api.config.base.CoreBaseConfig;
+import org.apache.deltaspike.core.impl.util.JndiUtils;
+import org.apache.deltaspike.test.util.TestStubs;
+import org.apache.deltaspike.test.util.TestStubs.StubHandler;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class LocalJndiConfigSourceTest
+{
+    private static final String SNAPSHOT_KEY = CoreBaseConfig.Config.Jndi.SNAPSHOT_REFRESH_INTERVAL.getKey();
+
+    @After
+    public void resetSnapshotSetting()
+    {
+        System.clearProperty(SNAPSHOT_KEY);
+    }
+
+    @Test
+    public void testIndividualLookupByDefault()
+    {
+        TestJndiConfigSource configSource = new TestJndiConfigSource();
+        configSource.values.put("key1", "value1");
+
+        Assert.assertEquals("value1", configSource.getPropertyValue("key1"));
+        Assert.assertEquals("java:comp/env/deltaspike/key1", configSource.lastLookup);
+        Assert.assertEquals(0, configSource.listCount);
+    }
+
+    @Test
+    public void testInvalidSnapshotSettingUsesIndividualLookup()
+    {
+        System.setProperty(SNAPSHOT_KEY, "notANumber");
+        TestJndiConfigSource configSource = new TestJndiConfigSource();
+        configSource.values.put("key1", "value1");
+
+        Assert.assertEquals("value1", configSource.getPropertyValue("key1"));
+        Assert.assertEquals(0, configSource.listCount);
+    }
+
+    @Test
+    public void testSnapshotIncludesSubContexts()
+    {
+        System.setProperty(SNAPSHOT_KEY, "0");
+        TestJndiConfigSource configSource = new TestJndiConfigSource();
+        Map<String, Object> nested = new HashMap<String, Object>();
+        Map<String, Object> deeper = new HashMap<String, Object>();
+        configSource.values.put("key1", "value1");
+        configSource.values.put("noString", Integer.valueOf(5));
+        configSource.values.put("nested", nested);
+        nested.put("key2", "value2");
+        nested.put("deeper", deeper);
+        deeper.put("key3", "value3");
+        configSource.lastLookup = null;
+
+        Assert.assertEquals("value1", configSource.getPropertyValue("key1"));
+        Assert.assertEquals("value2", configSource.getPropertyValue("nested/key2"));
+        Assert.assertEquals("value3", configSource.getPropertyValue("nested/deeper/key3"));
+        Assert.assertNull(configSource.getPropertyValue("noString"));
+        Assert.assertNull(configSource.getPropertyValue("missing"));
+
+        Assert.assertEquals(1, configSource.listCount);
+        Assert.assertNull(configSource.lastLookup);
+    }
+
+    @Test
+    public void testSnapshotRefresh() throws Exception
+    {
+        System.setProperty(SNAPSHOT_KEY, "1");
+        TestJndiConfigSource configSource = new TestJndiConfigSource();
+        configSource.values.put("key1", "value1");
+
+        Assert.assertEquals("value1", configSource.getPropertyValue("key1"));
+
+        configSource.values.put("key1", "value2");
+        Assert.assertEquals("value1", configSource.getPropertyValue("key1"));
+        Assert.assertEquals(1, configSource.listCount);
+
+        Thread.sleep(1100);
+
+        Assert.assertEquals("value2", configSource.getPropertyValue("key1"));
+        Assert.assertEquals(2, configSource.listCount);
+    }
+
+    @Test
+    public void testFailedListingNotCached() throws Exception
+    {
+        System.setProperty(SNAPSHOT_KEY, "0");
+        TestJndiConfigSource configSource = new TestJndiConfigSource();
+        configSource.values.put("key1", "value1");
+
+        // e.g. a thread without java:comp/env
+        configSource.listingFails = true;
+        Assert.assertEquals("value1", configSource.getPropertyValue("key1"));
+        Assert.assertEquals("java:comp/env/deltaspike/key1", configSource.lastLookup);
+        Assert.assertEquals(1, configSource.listCount);
+
+        configSource.listingFails = false;
+        Thread.sleep(1100);
+        configSource.lastLookup = null;
+
+        Assert.assertEquals("value1", configSource.getPropertyValue("key1"));
+        Assert.assertNull(configSource.getPropertyValue("missing"));
+        Assert.assertEquals(2, configSource.listCount);
+        Assert.assertNull(configSource.lastLookup);
+    }
+
+    private static class TestJndiConfigSource extends LocalJndiConfigSource
+    {
+        private final Map<String, Object> values = new HashMap<String, Object>();
+        private String lastLookup;
+        private int listCount;
+        private boolean listingFails;
+
+        @Override
+        String lookup(String jndiKey)
+        {
+            lastLookup = jndiKey;
+            // values is null while the super-constructor looks up the ordinal
+            Object value = values != null ? values.get(jndiKey.substring("java:comp/env/deltaspike/".length())) : null;
+            return value instanceof String ? (String) value : null;
+        }
+
+        @Override
+        Map<String, String> listSnapshot()
+        {
+            listCount++;
+            return JndiUtils.listRecursive(createContext(listingFails ? null : values), "", String.class);
+        }
+    }
+
+    private static Context createContext(final Map<String, Object> bindings)
+    {
+        return TestStubs.createStub(Context.class, new StubHandler()
+        {
+            @Override
+            public Object invoke(Object proxy, Method method, Object[] args) throws Throwable
+            {
+                if (!"listBindings".equals(method.getName()))
+                {
+                    return super.invoke(proxy, method, args);
+                }
+                if (bindings == null)
+                {
+                    throw new NameNotFoundException("java:comp/env");
+                }
+
+                final Iterator<Map.Entry<String, Object>> entries = bindings.entrySet().iterator();
+                return TestStubs.createStub(NamingEnumeration.class, new InvocationHandler()
+                {
+                    @Override
+                    @SuppressWarnings("unchecked")
+                    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable
+                    {
+                        String name = method.getName();
+                        if (name.startsWith("hasMore"))
+                        {
+                            return entries.hasNext();
+                        }
+                        if (name.startsWith("next"))
+                        {
+                            Map.Entry<String, Object> entry = entries.next();
+                            Object value = entry.getValue();
+                            if (value instanceof Map)
+                            {
+                                value = createContext((Map<String, Object>) value);
+                            }
+                            return new Binding(entry.getKey(), value);
+                        }
+                        return null;
+                    }
+                });
+            }
+        });
+    }
+}
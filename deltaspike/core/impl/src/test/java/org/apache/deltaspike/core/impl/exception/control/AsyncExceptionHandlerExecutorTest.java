@@ -0,0 +1,422 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.deltaspike.core.impl.exception.control;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import javax.enterprise.inject.spi.BeanManager;
+
+import org.apache.deltaspike.core.api.exception.control.HandlerMethod;
+import org.apache.deltaspike.core.api.exception.control.event.ExceptionEvent;
+import org.apache.deltaspike.core.api.exception.control.event.ExceptionToCatchEvent;
+import org.apache.deltaspike.core.impl.exception.control.ExceptionHandlerBroadcasterTest.InnerException;
+import org.apache.deltaspike.core.impl.exception.control.ExceptionHandlerBroadcasterTest.OuterException;
+import org.apache.deltaspike.core.impl.exception.control.ExceptionHandlerBroadcasterTest.TestHandlerMethodStorage;
+import org.apache.deltaspike.test.util.TestStubs;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class AsyncExceptionHandlerExecutorTest
+{
+    private static final String THREAD_NAME_PREFIX = "deltaspike-exception-handler-";
+
+    private final List<String> notifiedHandlers = Collections.synchronizedList(new ArrayList<String>());
+    private final Map<String, Thread> handlerThreads = new ConcurrentHashMap<String, Thread>();
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    private TestHandlerMethodStorage handlerMethodStorage;
+    private TestAsyncExceptionHandlerExecutor executor;
+    private BeanManager beanManager;
+
+    @Before
+    public void init()
+    {
+        handlerMethodStorage = new TestHandlerMethodStorage();
+
+        beanManager = TestStubs.createNoOpStub(BeanManager.class);
+    }
+
+    @After
+    public void cleanup()
+    {
+        release.countDown();
+
+        if (executor != null)
+        {
+            executor.shutdown();
+        }
+
+        System.clearProperty("deltaspike.exception-control.async.enabled");
+        System.clearProperty("deltaspike.exception-control.async.pool-size");
+        System.clearProperty("deltaspike.exception-control.async.queue-size");
+        System.clearProperty("deltaspike.exception-control.async.rejection-policy");
+    }
+
+    @Test
+    public void testNonBlockingHandlerDoesNotDelayBlockingHandlers() throws Throwable
+    {
+        ExceptionHandlerBroadcaster broadcaster = createBroadcaster(1000, "drop");
+
+        TestHandler async = new TestHandler("async", InnerException.class, false, true, release);
+        handlerMethodStorage.add(InnerException.class, new TestHandler("before", InnerException.class, true));
+        handlerMethodStorage.add(InnerException.class, new TestHandler("category", InnerException.class, false));
+        handlerMethodStorage.add(InnerException.class, async);
+        handlerMethodStorage.add(OuterException.class, new TestHandler("outer", OuterException.class, false));
+
+        ExceptionToCatchEvent event = new ExceptionToCatchEvent(new OuterException(new InnerException()));
+        broadcaster.executeHandlers(event, beanManager);
+
+        // the non-blocking handler gets dispatched in its regular position, but the traversal doesn't wait for it
+        Assert.assertEquals(Arrays.asList("before", "category", "outer"), notifiedHandlers);
+        Assert.assertTrue(event.isHandled());
+
+        release.countDown();
+        Assert.assertTrue(async.awaitNotification());
+
+        Assert.assertEquals(Arrays.asList("before", "category", "outer", "async"), notifiedHandlers);
+        Assert.assertSame(Thread.currentThread(), handlerThreads.get("before"));
+        Assert.assertSame(Thread.currentThread(), handlerThreads.get("category"));
+        Assert.assertTrue(handlerThreads.get("async").getName().startsWith(THREAD_NAME_PREFIX));
+        Assert.assertEquals(1, executor.getSubmittedCount());
+    }
+
+    @Test
+    public void testNonBlockingHandlerMarksExceptionAsHandled() throws Throwable
+    {
+        ExceptionHandlerBroadcaster broadcaster = createBroadcaster(1000, "drop");
+
+        TestHandler async = new TestHandler("async", InnerException.class, false, true, null);
+        handlerMethodStorage.add(InnerException.class, async);
+
+        // would be re-thrown if the exception isn't marked as handled
+        ExceptionToCatchEvent event = new ExceptionToCatchEvent(new InnerException());
+        broadcaster.executeHandlers(event, beanManager);
+
+        Assert.assertTrue(event.isHandled());
+        Assert.assertTrue(async.awaitNotification());
+    }
+
+    @Test
+    public void testDropPolicy() throws Throwable
+    {
+        ExceptionHandlerBroadcaster broadcaster = createBroadcaster(1, "drop");
+
+        // reverse order for depth-first handlers -> "first" blocks the only thread, "second" gets queued
+        TestHandler first = new TestHandler("first", InnerException.class, false, true, release);
+        TestHandler second = new TestHandler("second", InnerException.class, false, true, null);
+        TestHandler third = new TestHandler("third", InnerException.class, false, true, null);
+        handlerMethodStorage.add(InnerException.class, third);
+        handlerMethodStorage.add(InnerException.class, second);
+        handlerMethodStorage.add(InnerException.class, first);
+
+        broadcaster.executeHandlers(new ExceptionToCatchEvent(new InnerException()), beanManager);
+        release.countDown();
+
+        Assert.assertTrue(first.awaitNotification());
+        Assert.assertTrue(second.awaitNotification());
+        Assert.assertFalse(handlerThreads.containsKey("third"));
+        Assert.assertEquals(3, executor.getSubmittedCount());
+        Assert.assertEquals(1, executor.getDroppedCount());
+        Assert.assertEquals(0, executor.getCallerRunsCount());
+    }
+
+    @Test
+    public void testCallerRunsPolicy() throws Throwable
+    {
+        ExceptionHandlerBroadcaster broadcaster = createBroadcaster(1, "caller-runs");
+
+        TestHandler first = new TestHandler("first", InnerException.class, false, true, release);
+        TestHandler second = new TestHandler("second", InnerException.class, false, true, null);
+        TestHandler third = new TestHandler("third", InnerException.class, false, true, null);
+        handlerMethodStorage.add(InnerException.class, third);
+        handlerMethodStorage.add(InnerException.class, second);
+        handlerMethodStorage.add(InnerException.class, first);
+
+        broadcaster.executeHandlers(new ExceptionToCatchEvent(new InnerException()), beanManager);
+        release.countDown();
+
+        Assert.assertTrue(first.awaitNotification());
+        Assert.assertTrue(second.awaitNotification());
+        Assert.assertTrue(third.awaitNotification());
+        Assert.assertSame(Thread.currentThread(), handlerThreads.get("third"));
+        Assert.assertEquals(0, executor.getDroppedCount());
+        Assert.assertEquals(1, executor.getCallerRunsCount());
+    }
+
+    @Test
+    public void testShutdownStopsThreads() throws Throwable
+    {
+        ExceptionHandlerBroadcaster broadcaster = createBroadcaster(1000, "caller-runs");
+
+        TestHandler async = new TestHandler("async", InnerException.class, false, true, null);
+        handlerMethodStorage.add(InnerException.class, async);
+
+        broadcaster.executeHandlers(new ExceptionToCatchEvent(new InnerException()), beanManager);
+        Assert.assertTrue(async.awaitNotification());
+
+        Thread handlerThread = handlerThreads.get("async");
+        executor.shutdown();
+
+        handlerThread.join(TimeUnit.SECONDS.toMillis(5));
+        Assert.assertFalse(handlerThread.isAlive());
+
+        // no invocation after the shutdown - also not in the calling thread
+        TestHandler late = new TestHandler("late", InnerException.class, false, true, null);
+        handlerMethodStorage.add(OuterException.class, late);
+        OuterException exception = new OuterException(null);
+        try
+        {
+            broadcaster.executeHandlers(new ExceptionToCatchEvent(exception), beanManager);
+            Assert.fail("the exception isn't handled by the skipped handler");
+        }
+        catch (OuterException e)
+        {
+            Assert.assertSame(exception, e);
+        }
+
+        Assert.assertFalse(handlerThreads.containsKey("late"));
+        Assert.assertEquals(1, executor.getDroppedCount());
+    }
+
+    @Test
+    public void testDroppedInvocationLeavesExceptionUnhandled() throws Throwable
+    {
+        ExceptionHandlerBroadcaster broadcaster = createBroadcaster(1, "drop");
+
+        // "first" blocks the only thread, "second" fills the queue
+        TestHandler first = new TestHandler("first", InnerException.class, false, true, release);
+        TestHandler second = new TestHandler("second", InnerException.class, false, true, null);
+        handlerMethodStorage.add(InnerException.class, second);
+        handlerMethodStorage.add(InnerException.class, first);
+        broadcaster.executeHandlers(new ExceptionToCatchEvent(new InnerException()), beanManager);
+
+        TestHandler dropped = new TestHandler("dropped", OuterException.class, false, true, null);
+        handlerMethodStorage.add(OuterException.class, dropped);
+        ExceptionToCatchEvent event = new ExceptionToCatchEvent(new OuterException(null));
+        try
+        {
+            broadcaster.executeHandlers(event, beanManager);
+            Assert.fail("the exception isn't handled by the dropped handler");
+        }
+        catch (OuterException e)
+        {
+            Assert.assertFalse(event.isHandled());
+        }
+
+        release.countDown();
+        Assert.assertTrue(second.awaitNotification());
+        Assert.assertFalse(handlerThreads.containsKey("dropped"));
+        Assert.assertEquals(1, executor.getDroppedCount());
+    }
+
+    @Test
+    public void testHandlerInvokedWithContextClassLoaderOfCaller() throws Throwable
+    {
+        ExceptionHandlerBroadcaster broadcaster = createBroadcaster(1000, "drop");
+
+        TestHandler async = new TestHandler("async", InnerException.class, false, true, null);
+        handlerMethodStorage.add(InnerException.class, async);
+
+        ClassLoader callerClassLoader = new ClassLoader(getClass().getClassLoader())
+        {
+        };
+        ClassLoader previousClassLoader = Thread.currentThread().getContextClassLoader();
+        Thread.currentThread().setContextClassLoader(callerClassLoader);
+        try
+        {
+            broadcaster.executeHandlers(new ExceptionToCatchEvent(new InnerException()), beanManager);
+        }
+        finally
+        {
+            Thread.currentThread().setContextClassLoader(previousClassLoader);
+        }
+
+        Assert.assertTrue(async.awaitNotification());
+        Assert.assertSame(callerClassLoader, async.contextClassLoader);
+    }
+
+    @Test
+    public void testManagedExecutorPreferred() throws Throwable
+    {
+        ExecutorService managedExecutor = Executors.newSingleThreadExecutor();
+        try
+        {
+            ExceptionHandlerBroadcaster broadcaster = createBroadcaster(1000, "drop", managedExecutor);
+
+            TestHandler async = new TestHandler("async", InnerException.class, false, true, null);
+            handlerMethodStorage.add(InnerException.class, async);
+
+            broadcaster.executeHandlers(new ExceptionToCatchEvent(new InnerException()), beanManager);
+
+            Assert.assertTrue(async.awaitNotification());
+            Assert.assertFalse(handlerThreads.get("async").getName().startsWith(THREAD_NAME_PREFIX));
+            Assert.assertNotSame(Thread.currentThread(), handlerThreads.get("async"));
+
+            // the container controls the lifecycle of its executor
+            executor.shutdown();
+            Assert.assertFalse(managedExecutor.isShutdown());
+        }
+        finally
+        {
+            managedExecutor.shutdownNow();
+        }
+    }
+
+    private ExceptionHandlerBroadcaster createBroadcaster(int queueSize, String rejectionPolicy) throws Exception
+    {
+        return createBroadcaster(queueSize, rejectionPolicy, null);
+    }
+
+    private ExceptionHandlerBroadcaster createBroadcaster(int queueSize, String rejectionPolicy,
+                                                          ExecutorService managedExecutor) throws Exception
+    {
+        System.setProperty("deltaspike.exception-control.async.enabled", "true");
+        System.setProperty("deltaspike.exception-control.async.pool-size", "1");
+        System.setProperty("deltaspike.exception-control.async.queue-size", String.valueOf(queueSize));
+        System.setProperty("deltaspike.exception-control.async.rejection-policy", rejectionPolicy);
+
+        executor = new TestAsyncExceptionHandlerExecutor(managedExecutor);
+        executor.init();
+
+        return ExceptionHandlerBroadcasterTest.createBroadcaster(handlerMethodStorage, executor);
+    }
+
+    /**
+     * {@link HandlerMethodImpl} needs a CDI container, therefore the test handlers decide on their own.
+     * The ManagedExecutorService is provided by the test instead of JNDI.
+     */
+    static class TestAsyncExceptionHandlerExecutor extends AsyncExceptionHandlerExecutor
+    {
+        private final ExecutorService managedExecutor;
+
+        TestAsyncExceptionHandlerExecutor(ExecutorService managedExecutor)
+        {
+            this.managedExecutor = managedExecutor;
+        }
+
+        @Override
+        protected ExecutorService lookupManagedExecutor()
+        {
+            return managedExecutor;
+        }
+
+        @Override
+        public boolean isAsynchronous(HandlerMethod<?> handler)
+        {
+            return handler instanceof TestHandler && ((TestHandler) handler).nonBlocking;
+        }
+    }
+
+    class TestHandler implements HandlerMethod<Throwable>
+    {
+        private final String name;
+        private final Class<? extends Throwable> exceptionType;
+        private final boolean before;
+        private final boolean nonBlocking;
+        private final CountDownLatch waitFor;
+        private final CountDownLatch notified = new CountDownLatch(1);
+        private volatile ClassLoader contextClassLoader;
+
+        TestHandler(String name, Class<? extends Throwable> exceptionType, boolean before)
+        {
+            this(name, exceptionType, before, false, null);
+        }
+
+        TestHandler(String name, Class<? extends Throwable> exceptionType, boolean before, boolean nonBlocking,
+                    CountDownLatch waitFor)
+        {
+            this.name = name;
+            this.exceptionType = exceptionType;
+            this.before = before;
+            this.nonBlocking = nonBlocking;
+            this.waitFor = waitFor;
+        }
+
+        boolean awaitNotification() throws InterruptedException
+        {
+            return notified.await(5, TimeUnit.SECONDS);
+        }
+
+        @Override
+        public Set<Annotation> getQualifiers()
+        {
+            return Collections.emptySet();
+        }
+
+        @Override
+        public Type getExceptionType()
+        {
+            return exceptionType;
+        }
+
+        @Override
+        public boolean isBeforeHandler()
+        {
+            return before;
+        }
+
+        @Override
+        public void notify(ExceptionEvent<Throwable> event, BeanManager beanManager)
+        {
+            try
+            {
+                if (waitFor != null)
+                {
+                    waitFor.await(5, TimeUnit.SECONDS);
+                }
+            }
+            catch (InterruptedException e)
+            {
+                Thread.currentThread().interrupt();
+            }
+
+            contextClassLoader = Thread.currentThread().getContextClassLoader();
+            handlerThreads.put(name, Thread.currentThread());
+            notifiedHandlers.add(name);
+            event.handledAndContinue();
+            notified.countDown();
+        }
+
+        @Override
+        public int getOrdinal()
+        {
+            return 0;
+        }
+
+        @Override
+        public String toString()
+        {
+            return name;
+        }
+    }
+}
@@ -0,0 +1,290 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.deltaspike.core.impl.exception.control;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Field;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.enterprise.inject.spi.BeanManager;
+
+import org.apache.deltaspike.core.api.exception.control.HandlerMethod;
+import org.apache.deltaspike.core.api.exception.control.event.ExceptionEvent;
+import org.apache.deltaspike.core.api.exception.control.event.ExceptionToCatchEvent;
+import org.apache.deltaspike.test.util.TestStubs;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ExceptionHandlerBroadcasterTest
+{
+    private final List<String> notifiedHandlers = Collections.synchronizedList(new ArrayList<String>());
+
+    private TestHandlerMethodStorage handlerMethodStorage;
+    private ExceptionHandlerBroadcaster broadcaster;
+    private BeanManager beanManager;
+
+    @Before
+    public void init() throws Exception
+    {
+        handlerMethodStorage = new TestHandlerMethodStorage();
+        broadcaster = createBroadcaster(handlerMethodStorage, new AsyncExceptionHandlerExecutor());
+
+        // e.g. #fireEvent for the ExceptionStackEvent
+        beanManager = TestStubs.createNoOpStub(BeanManager.class);
+    }
+
+    @Test
+    public void testHandlersOfRootCauseFirst() throws Throwable
+    {
+        handlerMethodStorage.add(new TestHandler("beforeInner", InnerException.class, true, Flow.CONTINUE));
+        handlerMethodStorage.add(new TestHandler("categoryInner", InnerException.class, false, Flow.CONTINUE));
+        handlerMethodStorage.add(new TestHandler("specificInner", InnerException.class, false, Flow.CONTINUE));
+        handlerMethodStorage.add(new TestHandler("beforeOuter", OuterException.class, true, Flow.CONTINUE));
+        handlerMethodStorage.add(new TestHandler("outer", OuterException.class, false, Flow.CONTINUE));
+
+        ExceptionToCatchEvent event = new ExceptionToCatchEvent(new OuterException(new InnerException()));
+        broadcaster.executeHandlers(event, beanManager);
+
+        // before handlers in the given order, depth-first handlers in the reverse order (category handlers last)
+        Assert.assertEquals(Arrays.asList("beforeInner", "specificInner", "categoryInner", "beforeOuter", "outer"),
+                notifiedHandlers);
+        Assert.assertTrue(event.isHandled());
+    }
+
+    @Test
+    public void testHandlerNotifiedOncePerEvent() throws Throwable
+    {
+        TestHandler muted = new TestHandler("muted", Exception.class, false, Flow.CONTINUE);
+        TestHandler unmuted = new TestHandler("unmuted", Exception.class, false, Flow.UNMUTE);
+        handlerMethodStorage.add(InnerException.class, unmuted);
+        handlerMethodStorage.add(InnerException.class, muted);
+        handlerMethodStorage.add(OuterException.class, unmuted);
+        handlerMethodStorage.add(OuterException.class, muted);
+
+        broadcaster.executeHandlers(new ExceptionToCatchEvent(new OuterException(new InnerException())), beanManager);
+
+        Assert.assertEquals(Arrays.asList("muted", "unmuted", "unmuted"), notifiedHandlers);
+    }
+
+    @Test
+    public void testHandledStopsTheTraversal() throws Throwable
+    {
+        handlerMethodStorage.add(new TestHandler("beforeInner", InnerException.class, true, Flow.HANDLED));
+        handlerMethodStorage.add(new TestHandler("inner", InnerException.class, false, Flow.CONTINUE));
+        handlerMethodStorage.add(new TestHandler("outer", OuterException.class, false, Flow.CONTINUE));
+
+        ExceptionToCatchEvent event = new ExceptionToCatchEvent(new OuterException(new InnerException()));
+        broadcaster.executeHandlers(event, beanManager);
+
+        Assert.assertEquals(Arrays.asList("beforeInner"), notifiedHandlers);
+        Assert.assertTrue(event.isHandled());
+    }
+
+    @Test
+    public void testThrowOriginalAfterRemainingHandlers() throws Throwable
+    {
+        handlerMethodStorage.add(new TestHandler("inner", InnerException.class, false, Flow.THROW_ORIGINAL));
+        handlerMethodStorage.add(new TestHandler("outer", OuterException.class, false, Flow.CONTINUE));
+
+        OuterException exception = new OuterException(new InnerException());
+        try
+        {
+            broadcaster.executeHandlers(new ExceptionToCatchEvent(exception), beanManager);
+            Assert.fail("the original exception should be thrown");
+        }
+        catch (OuterException e)
+        {
+            Assert.assertSame(exception, e);
+        }
+
+        Assert.assertEquals(Arrays.asList("inner", "outer"), notifiedHandlers);
+    }
+
+    @Test
+    public void testUnhandledExceptionGetsRethrown() throws Throwable
+    {
+        InnerException exception = new InnerException();
+        try
+        {
+            broadcaster.executeHandlers(new ExceptionToCatchEvent(exception), beanManager);
+            Assert.fail("the unhandled exception should be thrown");
+        }
+        catch (InnerException e)
+        {
+            Assert.assertSame(exception, e);
+        }
+    }
+
+    static ExceptionHandlerBroadcaster createBroadcaster(HandlerMethodStorage handlerMethodStorage,
+                                                         AsyncExceptionHandlerExecutor asyncExceptionHandlerExecutor)
+        throws Exception
+    {
+        ExceptionHandlerBroadcaster broadcaster = new ExceptionHandlerBroadcaster();
+        setField(broadcaster, "handlerMethodStorage", handlerMethodStorage);
+        setField(broadcaster, "asyncExceptionHandlerExecutor", asyncExceptionHandlerExecutor);
+        return broadcaster;
+    }
+
+    private static void setField(Object instance, String fieldName, Object value) throws Exception
+    {
+        Field field = instance.getClass().getDeclaredField(fieldName);
+        field.setAccessible(true);
+        field.set(instance, value);
+    }
+
+    enum Flow
+    {
+        CONTINUE, UNMUTE, HANDLED, THROW_ORIGINAL
+    }
+
+    class TestHandler implements HandlerMethod<Throwable>
+    {
+        private final String name;
+        private final Class<? extends Throwable> exceptionType;
+        private final boolean before;
+        private final Flow flow;
+
+        TestHandler(String name, Class<? extends Throwable> exceptionType, boolean before, Flow flow)
+        {
+            this.name = name;
+            this.exceptionType = exceptionType;
+            this.before = before;
+            this.flow = flow;
+        }
+
+        @Override
+        public Set<Annotation> getQualifiers()
+        {
+            return Collections.emptySet();
+        }
+
+        @Override
+        public Type getExceptionType()
+        {
+            return exceptionType;
+        }
+
+        @Override
+        public boolean isBeforeHandler()
+        {
+            return before;
+        }
+
+        @Override
+        public void notify(ExceptionEvent<Throwable> event, BeanManager beanManager)
+        {
+            notifiedHandlers.add(name);
+
+            switch (flow)
+            {
+                case UNMUTE:
+                    event.unmute();
+                    event.handledAndContinue();
+                    break;
+                case HANDLED:
+                    event.handled();
+                    break;
+                case THROW_ORIGINAL:
+                    event.throwOriginal();
+                    break;
+                default:
+                    event.handledAndContinue();
+            }
+        }
+
+        @Override
+        public int getOrdinal()
+        {
+            return 0;
+        }
+
+        @Override
+        public String toString()
+        {
+            return name;
+        }
+    }
+
+    static class TestHandlerMethodStorage implements HandlerMethodStorage
+    {
+        private final Map<String, List<HandlerMethod<? extends Throwable>>> handlers =
+                new HashMap<String, List<HandlerMethod<? extends Throwable>>>();
+
+        void add(TestHandler handler)
+        {
+            add((Class<?>) handler.getExceptionType(), handler);
+        }
+
+        void add(Class<?> exceptionClass, HandlerMethod<? extends Throwable> handler)
+        {
+            String key = createKey(exceptionClass, handler.isBeforeHandler());
+            List<HandlerMethod<? extends Throwable>> handlersForKey = handlers.get(key);
+            if (handlersForKey == null)
+            {
+                handlersForKey = new ArrayList<HandlerMethod<? extends Throwable>>();
+                handlers.put(key, handlersForKey);
+            }
+            handlersForKey.add(handler);
+        }
+
+        @Override
+        public <T extends Throwable> void registerHandlerMethod(HandlerMethod<T> handlerMethod)
+        {
+            add((Class<?>) handlerMethod.getExceptionType(), handlerMethod);
+        }
+
+        @Override
+        public Collection<HandlerMethod<? extends Throwable>> getHandlersForException(Type exceptionClass,
+                BeanManager bm, Set<Annotation> handlerQualifiers, boolean isBefore)
+        {
+            List<HandlerMethod<? extends Throwable>> result =
+                    handlers.get(createKey((Class<?>) exceptionClass, isBefore));
+            return result == null ? Collections.<HandlerMethod<? extends Throwable>>emptyList() : result;
+        }
+
+        private static String createKey(Class<?> exceptionClass, boolean before)
+        {
+            return exceptionClass.getName() + (before ? "#before" : "#depth");
+        }
+    }
+
+    static class OuterException extends Exception
+    {
+        private static final long serialVersionUID = 1L;
+
+        OuterException(Throwable cause)
+        {
+            super(cause);
+        }
+    }
+
+    static class InnerException extends RuntimeException
+    {
+        private static final long serialVersionUID = 1L;
+    }
+}
@@ -0,0 +1,111 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.deltaspike.core.impl.message;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.deltaspike.core.api.message.MessageContext;
+import org.apache.deltaspike.core.api.message.MessageContextConfig;
+import org.apache.deltaspike.core.api.message.MessageTemplate;
+import org.apache.deltaspike.test.util.TestStubs;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class MessageBundleMethodDescriptorTest
+{
+    @Test
+    public void testTemplateFromAnnotation() throws Exception
+    {
+        MessageBundleMethodDescriptor descriptor =
+            new MessageBundleMethodDescriptor(PlainMessages.class.getMethod("welcome", String.class));
+
+        Assert.assertEquals("Welcome {0}", descriptor.getMessageTemplate());
+        Assert.assertEquals(PlainMessages.class.getName(), descriptor.getMessageBundleName());
+        Assert.assertTrue(descriptor.isStringReturnType());
+    }
+
+    @Test
+    public void testTemplateFromMethodName() throws Exception
+    {
+        MessageBundleMethodDescriptor descriptor =
+            new MessageBundleMethodDescriptor(PlainMessages.class.getMethod("goodbye"));
+
+        Assert.assertEquals("{goodbye}", descriptor.getMessageTemplate());
+        Assert.assertFalse(descriptor.isStringReturnType());
+    }
+
+    @Test
+    public void testWithoutMessageContextConfig() throws Exception
+    {
+        MessageBundleMethodDescriptor descriptor =
+            new MessageBundleMethodDescriptor(PlainMessages.class.getMethod("goodbye"));
+        List<String> invocations = new ArrayList<String>();
+
+        descriptor.applyMessageContextConfig(recordingMessageContext(invocations));
+
+        Assert.assertTrue(invocations.isEmpty());
+    }
+
+    @Test
+    public void testWithMessageContextConfig() throws Exception
+    {
+        MessageBundleMethodDescriptor descriptor =
+            new MessageBundleMethodDescriptor(ConfiguredMessages.class.getMethod("welcome"));
+        List<String> invocations = new ArrayList<String>();
+
+        // applied for every message, but resolved only once
+        descriptor.applyMessageContextConfig(recordingMessageContext(invocations));
+        descriptor.applyMessageContextConfig(recordingMessageContext(invocations));
+
+        Assert.assertEquals(Arrays.asList("messageSource:[org.test.Messages]", "messageSource:[org.test.Messages]"),
+            invocations);
+    }
+
+    private static MessageContext recordingMessageContext(final List<String> invocations)
+    {
+        return TestStubs.createStub(MessageContext.class, new InvocationHandler()
+        {
+            @Override
+            public Object invoke(Object proxy, Method method, Object[] args) throws Throwable
+            {
+                Object argument = args[0] instanceof Object[] ? Arrays.toString((Object[]) args[0]) : args[0];
+                invocations.add(method.getName() + ":" + argument);
+                return proxy;
+            }
+        });
+    }
+
+    interface PlainMessages
+    {
+        @MessageTemplate("Welcome {0}")
+        String welcome(String name);
+
+        Object goodbye();
+    }
+
+    @MessageContextConfig(messageSource = "org.test.Messages")
+    interface ConfiguredMessages
+    {
+        String welcome();
+    }
+}
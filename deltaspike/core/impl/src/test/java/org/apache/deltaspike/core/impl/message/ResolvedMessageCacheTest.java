@@ -0,0 +1,210 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.deltaspike.core.impl.message;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+import org.apache.deltaspike.core.api.config.base.CoreBaseConfig;
+import org.apache.deltaspike.core.api.message.MessageContext;
+import org.apache.deltaspike.core.api.projectstage.ProjectStage;
+import org.apache.deltaspike.core.util.ProjectStageProducer;
+import org.apache.deltaspike.test.util.TestStubs;
+import org.apache.deltaspike.test.util.TestStubs.StubHandler;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ResolvedMessageCacheTest
+{
+    private static final List<String> MESSAGE_SOURCES = Arrays.asList("customMinimalMessage");
+    private static final String CACHE_ENABLED_KEY = CoreBaseConfig.Message.Cache.ENABLED.getKey();
+
+    @Before
+    public void init()
+    {
+        ProjectStageProducer.setProjectStage(ProjectStage.UnitTest);
+    }
+
+    @After
+    public void reset()
+    {
+        ProjectStageProducer.setProjectStage(null);
+        System.clearProperty(CACHE_ENABLED_KEY);
+    }
+
+    @Test
+    public void testCachedMessage()
+    {
+        ResolvedMessageCache cache = createCache();
+
+        Assert.assertNull(cache.getMessage(MESSAGE_SOURCES, Locale.ENGLISH, "text", null));
+
+        cache.putMessage(MESSAGE_SOURCES, Locale.ENGLISH, "text", null, "Text");
+
+        Assert.assertEquals("Text", cache.getMessage(MESSAGE_SOURCES, Locale.ENGLISH, "text", null));
+        Assert.assertNull(cache.getMessage(MESSAGE_SOURCES, Locale.GERMAN, "text", null));
+        Assert.assertNull(cache.getMessage(MESSAGE_SOURCES, Locale.ENGLISH, "text", "category"));
+    }
+
+    @Test
+    public void testMessageSourcesGetCopied()
+    {
+        ResolvedMessageCache cache = createCache();
+        List<String> messageSources = new ArrayList<String>(MESSAGE_SOURCES);
+
+        cache.putMessage(messageSources, Locale.ENGLISH, "text", null, "Text");
+        messageSources.add("otherMessages");
+
+        Assert.assertEquals("Text", cache.getMessage(MESSAGE_SOURCES, Locale.ENGLISH, "text", null));
+    }
+
+    @Test
+    public void testNotFoundMessage()
+    {
+        ResolvedMessageCache cache = createCache();
+
+        cache.putMessage(MESSAGE_SOURCES, Locale.ENGLISH, "missing", null, null);
+
+        Assert.assertSame(ResolvedMessageCache.NOT_FOUND,
+            cache.getMessage(MESSAGE_SOURCES, Locale.ENGLISH, "missing", null));
+    }
+
+    @Test
+    public void testCacheGetsClearedIfFull()
+    {
+        ResolvedMessageCache cache = createCache();
+
+        for (int i = 0; i < ResolvedMessageCache.MAX_CACHE_SIZE; i++)
+        {
+            cache.putMessage(MESSAGE_SOURCES, Locale.ENGLISH, "key" + i, null, "message" + i);
+        }
+        Assert.assertEquals("message0", cache.getMessage(MESSAGE_SOURCES, Locale.ENGLISH, "key0", null));
+
+        cache.putMessage(MESSAGE_SOURCES, Locale.ENGLISH, "oneMore", null, "oneMoreMessage");
+
+        Assert.assertNull(cache.getMessage(MESSAGE_SOURCES, Locale.ENGLISH, "key0", null));
+        Assert.assertEquals("oneMoreMessage", cache.getMessage(MESSAGE_SOURCES, Locale.ENGLISH, "oneMore", null));
+    }
+
+    @Test
+    public void testResolverUsesCache() throws Exception
+    {
+        ResolvedMessageCache cache = createCache();
+        DefaultMessageResolver messageResolver = createMessageResolver(cache);
+
+        Assert.assertEquals("Text", messageResolver.getMessage(createMessageContext(), "{text}", null));
+        Assert.assertEquals("Text", cache.getMessage(MESSAGE_SOURCES, Locale.ENGLISH, "text", null));
+
+        // served from the cache without looking at the resource-bundle again
+        cache.putMessage(MESSAGE_SOURCES, Locale.ENGLISH, "text", null, "Cached text");
+        Assert.assertEquals("Cached text", messageResolver.getMessage(createMessageContext(), "{text}", null));
+    }
+
+    @Test
+    public void testResolverCachesNotFoundMessages() throws Exception
+    {
+        ResolvedMessageCache cache = createCache();
+        DefaultMessageResolver messageResolver = createMessageResolver(cache);
+
+        Assert.assertNull(messageResolver.getMessage(createMessageContext(), "{missing}", null));
+        Assert.assertSame(ResolvedMessageCache.NOT_FOUND,
+            cache.getMessage(MESSAGE_SOURCES, Locale.ENGLISH, "missing", null));
+        Assert.assertNull(messageResolver.getMessage(createMessageContext(), "{missing}", null));
+    }
+
+    @Test
+    public void testCacheIsBypassedInDevelopment() throws Exception
+    {
+        ProjectStageProducer.setProjectStage(ProjectStage.Development);
+        ResolvedMessageCache cache = createCache();
+        DefaultMessageResolver messageResolver = createMessageResolver(cache);
+
+        Assert.assertFalse(cache.isEnabled());
+
+        cache.putMessage(MESSAGE_SOURCES, Locale.ENGLISH, "text", null, "Cached text");
+        Assert.assertEquals("Text", messageResolver.getMessage(createMessageContext(), "{text}", null));
+
+        Assert.assertNull(messageResolver.getMessage(createMessageContext(), "{missing}", null));
+        Assert.assertNull(cache.getMessage(MESSAGE_SOURCES, Locale.ENGLISH, "missing", null));
+    }
+
+    @Test
+    public void testCacheCanBeDisabled() throws Exception
+    {
+        ProjectStageProducer.setProjectStage(ProjectStage.Production);
+        System.setProperty(CACHE_ENABLED_KEY, "false");
+        ResolvedMessageCache cache = createCache();
+        DefaultMessageResolver messageResolver = createMessageResolver(cache);
+
+        Assert.assertFalse(cache.isEnabled());
+        Assert.assertEquals("Text", messageResolver.getMessage(createMessageContext(), "{text}", null));
+        Assert.assertNull(cache.getMessage(MESSAGE_SOURCES, Locale.ENGLISH, "text", null));
+    }
+
+    @Test
+    public void testCacheCanBeEnabledInDevelopment()
+    {
+        ProjectStageProducer.setProjectStage(ProjectStage.Development);
+        System.setProperty(CACHE_ENABLED_KEY, "true");
+
+        Assert.assertTrue(createCache().isEnabled());
+    }
+
+    private static ResolvedMessageCache createCache()
+    {
+        ResolvedMessageCache cache = new ResolvedMessageCache();
+        cache.init();
+        return cache;
+    }
+
+    private static DefaultMessageResolver createMessageResolver(ResolvedMessageCache cache) throws Exception
+    {
+        DefaultMessageResolver messageResolver = new DefaultMessageResolver();
+        Field cacheField = DefaultMessageResolver.class.getDeclaredField("resolvedMessageCache");
+        cacheField.setAccessible(true);
+        cacheField.set(messageResolver, cache);
+        return messageResolver;
+    }
+
+    private static MessageContext createMessageContext()
+    {
+        return TestStubs.createStub(MessageContext.class, new StubHandler()
+        {
+            @Override
+            public Object invoke(Object proxy, Method method, Object[] args) throws Throwable
+            {
+                if ("getMessageSources".equals(method.getName()))
+                {
+                    return MESSAGE_SOURCES;
+                }
+                if ("getLocale".equals(method.getName()))
+                {
+                    return Locale.ENGLISH;
+                }
+                return super.invoke(proxy, method, args);
+            }
+        });
+    }
+}
@@ -0,0 +1,376 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.deltaspike.core.impl.scope;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import javax.enterprise.context.spi.Contextual;
+import javax.enterprise.context.spi.CreationalContext;
+
+import org.apache.deltaspike.core.util.context.ContextualStorage;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class AbstractBeanHolderTest
+{
+    private final List<String> destroyedBeans = Collections.synchronizedList(new ArrayList<String>());
+
+    private final ContextualStorageSizeEstimator sizeEstimator = new ContextualStorageSizeEstimator();
+
+    private ContextualStorageStatistics statistics;
+    private TestBeanHolder beanHolder;
+
+    @Before
+    public void init() throws Exception
+    {
+        // 3 beans with the default size of 1kb
+        System.setProperty("deltaspike.scope.storage.max-size", "3");
+        beanHolder = createBeanHolder(null);
+    }
+
+    @After
+    public void cleanup()
+    {
+        System.clearProperty("deltaspike.scope.storage.max-size");
+        System.clearProperty("deltaspike.scope.storage.statistics.enabled");
+        System.clearProperty("deltaspike.scope.storage.estimated-bean-size." + LargeBeanInstance.class.getName());
+        System.clearProperty("deltaspike.scope.storage.estimated-bean-size." + InvalidSizeBeanInstance.class.getName());
+    }
+
+    @Test
+    public void testOldestStorageEvictedFirst() throws Exception
+    {
+        ContextualStorage first = createStorage("first");
+        ContextualStorage second = createStorage("second");
+        ContextualStorage third = createStorage("third");
+
+        createBean(first, "a");
+        createBean(second, "b");
+        createBean(third, "c");
+        Assert.assertEquals(3, beanHolder.getStorageMap().size());
+        Assert.assertTrue(destroyedBeans.isEmpty());
+
+        createBean(third, "d");
+        Assert.assertNull(beanHolder.getStorageMap().get("first"));
+        Assert.assertTrue(first.getStorage().isEmpty());
+        Assert.assertEquals(Arrays.asList("a"), destroyedBeans);
+        Assert.assertEquals(Arrays.asList("first"), beanHolder.evictedKeys);
+        Assert.assertEquals(1, statistics.getEvictedStorageCount());
+
+        // the storage which gets the new bean is kept, even if it is the oldest one
+        createBean(second, "e");
+        Assert.assertNull(beanHolder.getStorageMap().get("third"));
+        Assert.assertSame(second, beanHolder.getStorageMap().get("second"));
+        Assert.assertEquals(Arrays.asList("a", "c", "d"), sorted(destroyedBeans));
+    }
+
+    @Test
+    public void testCurrentStorageNeverEvicted() throws Exception
+    {
+        ContextualStorage storage = createStorage("single");
+
+        for (int i = 0; i < 5; i++)
+        {
+            createBean(storage, "bean" + i);
+        }
+
+        Assert.assertEquals(5, storage.getStorage().size());
+        Assert.assertTrue(destroyedBeans.isEmpty());
+    }
+
+    @Test
+    public void testRemovedStoragesNotCounted() throws Exception
+    {
+        ContextualStorage closed = createStorage("closed");
+        createBean(closed, "a");
+        createBean(closed, "b");
+        createBean(closed, "c");
+
+        // e.g. a closed window
+        beanHolder.getStorageMap().remove("closed");
+
+        ContextualStorage first = createStorage("first");
+        ContextualStorage second = createStorage("second");
+        createBean(first, "d");
+        createBean(second, "e");
+
+        Assert.assertTrue(destroyedBeans.isEmpty());
+        Assert.assertEquals(2, beanHolder.getStorageMap().size());
+    }
+
+    @Test
+    public void testNoLimitByDefault() throws Exception
+    {
+        System.clearProperty("deltaspike.scope.storage.max-size");
+        beanHolder = createBeanHolder(null);
+
+        for (int i = 0; i < 5; i++)
+        {
+            createBean(createStorage("storage" + i), "bean" + i);
+        }
+
+        Assert.assertEquals(5, beanHolder.getStorageMap().size());
+        Assert.assertTrue(destroyedBeans.isEmpty());
+    }
+
+    @Test
+    public void testEstimatedSizePerBeanClass()
+    {
+        System.setProperty("deltaspike.scope.storage.estimated-bean-size." + LargeBeanInstance.class.getName(),
+            "4096");
+        System.setProperty("deltaspike.scope.storage.estimated-bean-size." + InvalidSizeBeanInstance.class.getName(),
+            "4kb");
+
+        Assert.assertEquals(4096, sizeEstimator.estimateSize(new LargeBeanInstance()));
+        Assert.assertEquals(1024, sizeEstimator.estimateSize(new InvalidSizeBeanInstance()));
+        Assert.assertEquals(0, sizeEstimator.estimateSize((Object) null));
+    }
+
+    @Test
+    public void testStoragesInUseNotEvicted() throws Exception
+    {
+        ContextualStorageUsageHolder previousRequest = new ContextualStorageUsageHolder();
+        beanHolder = createBeanHolder(previousRequest);
+        ContextualStorage first = createStorage("first");
+        createBean(first, "a");
+        previousRequest.releaseUsedStorages();
+
+        // e.g. a request of an other browser-tab which is still running
+        ContextualStorageUsageHolder concurrentRequest = new ContextualStorageUsageHolder();
+        startRequest(concurrentRequest);
+        ContextualStorage second = createStorage("second");
+        createBean(second, "b");
+
+        ContextualStorageUsageHolder currentRequest = new ContextualStorageUsageHolder();
+        startRequest(currentRequest);
+        ContextualStorage third = createStorage("third");
+        createBean(third, "c");
+        // the storage which isn't in use anymore gets evicted
+        createBean(third, "d");
+        Assert.assertEquals(Arrays.asList("first"), beanHolder.evictedKeys);
+
+        // the storages in use are kept, even if the max-size is exceeded
+        createBean(third, "e");
+        Assert.assertSame(second, beanHolder.getStorageMap().get("second"));
+        Assert.assertEquals(Arrays.asList("a"), destroyedBeans);
+
+        concurrentRequest.releaseUsedStorages();
+        createBean(third, "f");
+        Assert.assertNull(beanHolder.getStorageMap().get("second"));
+        Assert.assertEquals(Arrays.asList("a", "b"), sorted(destroyedBeans));
+    }
+
+    @Test
+    public void testStatisticsOnlyIfEnabled() throws Exception
+    {
+        createBean(createStorage("first"), "a");
+        Assert.assertEquals(0, statistics.getWindowScopedBeanCount() + statistics.getViewAccessScopedBeanCount() +
+            statistics.getGroupedConversationScopedBeanCount());
+
+        System.setProperty("deltaspike.scope.storage.statistics.enabled", "true");
+        statistics = createStatistics();
+        Assert.assertTrue(getRegisteredBeanHolders(statistics).isEmpty());
+
+        beanHolder = createBeanHolder(null);
+        createBean(createStorage("first"), "a");
+        Assert.assertEquals(Collections.singleton(beanHolder), getRegisteredBeanHolders(statistics).keySet());
+
+        beanHolder.destroyBeans();
+        Assert.assertTrue(getRegisteredBeanHolders(statistics).isEmpty());
+    }
+
+    @Test
+    public void testConcurrentStorageCreation() throws Exception
+    {
+        ExecutorService executorService = Executors.newFixedThreadPool(8);
+        try
+        {
+            final CountDownLatch start = new CountDownLatch(1);
+
+            List<Future<ContextualStorage>> storages = new ArrayList<Future<ContextualStorage>>();
+            for (int i = 0; i < 8; i++)
+            {
+                storages.add(executorService.submit(new Callable<ContextualStorage>()
+                {
+                    @Override
+                    public ContextualStorage call() throws Exception
+                    {
+                        start.await();
+                        return beanHolder.getContextualStorage(null, "window", true);
+                    }
+                }));
+            }
+            start.countDown();
+
+            ContextualStorage contextualStorage = storages.get(0).get(5, TimeUnit.SECONDS);
+            for (Future<ContextualStorage> storage : storages)
+            {
+                Assert.assertSame(contextualStorage, storage.get(5, TimeUnit.SECONDS));
+            }
+            Assert.assertSame(contextualStorage, beanHolder.getStorageMap().get("window"));
+            Assert.assertEquals(1, beanHolder.getStorageMap().size());
+        }
+        finally
+        {
+            executorService.shutdownNow();
+        }
+    }
+
+    private TestBeanHolder createBeanHolder(ContextualStorageUsageHolder usageHolder) throws Exception
+    {
+        if (statistics == null)
+        {
+            statistics = createStatistics();
+        }
+
+        TestBeanHolder result = new TestBeanHolder();
+        setField(result, "contextualStorageSizeEstimator", sizeEstimator);
+        setField(result, "contextualStorageStatistics", statistics);
+        setField(result, "contextualStorageUsageHolder", usageHolder);
+        return result;
+    }
+
+    /**
+     * The injected proxy of the request-scoped holder points to the instance of the current request -> simulate it.
+     */
+    private void startRequest(ContextualStorageUsageHolder usageHolder) throws Exception
+    {
+        setField(beanHolder, "contextualStorageUsageHolder", usageHolder);
+    }
+
+    private ContextualStorageStatistics createStatistics() throws Exception
+    {
+        ContextualStorageStatistics result = new ContextualStorageStatistics();
+        setField(result, "contextualStorageSizeEstimator", sizeEstimator);
+        result.init();
+        return result;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<AbstractBeanHolder<?>, Boolean> getRegisteredBeanHolders(
+        ContextualStorageStatistics statistics) throws Exception
+    {
+        Field field = ContextualStorageStatistics.class.getDeclaredField("beanHolders");
+        field.setAccessible(true);
+        return (Map<AbstractBeanHolder<?>, Boolean>) field.get(statistics);
+    }
+
+    private static void setField(Object instance, String fieldName, Object value) throws Exception
+    {
+        Class<?> currentClass = instance.getClass();
+        while (currentClass != null)
+        {
+            try
+            {
+                Field field = currentClass.getDeclaredField(fieldName);
+                field.setAccessible(true);
+                field.set(instance, value);
+                return;
+            }
+            catch (NoSuchFieldException e)
+            {
+                currentClass = currentClass.getSuperclass();
+            }
+        }
+        throw new NoSuchFieldException(fieldName);
+    }
+
+    private ContextualStorage createStorage(String key) throws InterruptedException
+    {
+        // the storages are evicted based on their creation-time
+        Thread.sleep(5);
+        return beanHolder.getContextualStorage(null, key, true);
+    }
+
+    private void createBean(ContextualStorage storage, String name)
+    {
+        storage.createContextualInstance(new TestBean(name), null);
+    }
+
+    private static List<String> sorted(List<String> values)
+    {
+        List<String> result = new ArrayList<String>(values);
+        Collections.sort(result);
+        return result;
+    }
+
+    static class TestBeanHolder extends AbstractBeanHolder<String>
+    {
+        private static final long serialVersionUID = 1L;
+
+        private final List<String> evictedKeys = new ArrayList<String>();
+
+        TestBeanHolder()
+        {
+            super(true, false);
+        }
+
+        @Override
+        protected void evictContextualStorage(String key, ContextualStorage contextualStorage)
+        {
+            // the beans get destroyed without holding the lock of the holder
+            Assert.assertFalse(Thread.holdsLock(this));
+            evictedKeys.add(key);
+            super.evictContextualStorage(key, contextualStorage);
+        }
+    }
+
+    class TestBean implements Contextual<Object>
+    {
+        private final String name;
+
+        TestBean(String name)
+        {
+            this.name = name;
+        }
+
+        @Override
+        public Object create(CreationalContext<Object> creationalContext)
+        {
+            return new Object();
+        }
+
+        @Override
+        public void destroy(Object instance, CreationalContext<Object> creationalContext)
+        {
+            destroyedBeans.add(name);
+        }
+    }
+
+    static class LargeBeanInstance
+    {
+    }
+
+    static class InvalidSizeBeanInstance
+    {
+    }
+}
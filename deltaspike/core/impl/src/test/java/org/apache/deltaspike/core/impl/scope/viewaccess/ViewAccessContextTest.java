@@ -0,0 +1,228 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.deltaspike.core.impl.scope.viewaccess;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.enterprise.context.spi.Contextual;
+import javax.enterprise.context.spi.CreationalContext;
+import javax.enterprise.inject.spi.BeanManager;
+import javax.enterprise.inject.spi.PassivationCapable;
+
+import org.apache.deltaspike.core.impl.scope.window.WindowContextImpl;
+import org.apache.deltaspike.core.impl.scope.window.WindowIdHolder;
+import org.apache.deltaspike.test.util.TestStubs;
+import org.apache.deltaspike.test.util.TestStubs.StubHandler;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ViewAccessContextTest
+{
+    private final Map<String, TestBean> beans = new HashMap<String, TestBean>();
+    private final List<String> destroyedBeans = new ArrayList<String>();
+
+    private ViewAccessBeanHolder viewAccessBeanHolder;
+    private ViewAccessViewHistory viewAccessViewHistory;
+    private ViewAccessContext viewAccessContext;
+
+    @Before
+    public void init()
+    {
+        // beans get restored via the BeanManager, before they get destroyed
+        BeanManager beanManager = TestStubs.createStub(BeanManager.class, new StubHandler()
+        {
+            @Override
+            public Object invoke(Object proxy, Method method, Object[] args) throws Throwable
+            {
+                if ("isPassivatingScope".equals(method.getName()))
+                {
+                    return true;
+                }
+                if ("getPassivationCapableBean".equals(method.getName()))
+                {
+                    return TestStubs.createPassivationCapableBean(beans.get(args[0]));
+                }
+                return super.invoke(proxy, method, args);
+            }
+        });
+
+        WindowContextImpl windowContext = new WindowContextImpl(beanManager);
+        windowContext.init(null, new WindowIdHolder());
+        windowContext.activateWindow("w1");
+
+        viewAccessBeanHolder = new ViewAccessBeanHolder();
+        viewAccessViewHistory = new ViewAccessViewHistory();
+        viewAccessContext = new ViewAccessContext(beanManager, windowContext);
+
+        beans.put("a", new TestBean("a"));
+        beans.put("b", new TestBean("b"));
+        beans.put("c", new TestBean("c"));
+    }
+
+    @Test
+    public void testAccessedBeansSurviveViewChange()
+    {
+        startRequest();
+        Object a = get("a");
+        Object b = get("b");
+        viewAccessContext.onProcessingViewFinished("/view1.xhtml");
+        Assert.assertTrue(destroyedBeans.isEmpty());
+
+        startRequest();
+        Assert.assertSame(a, get("a"));
+        viewAccessContext.onProcessingViewFinished("/view2.xhtml");
+
+        // b wasn't used by the new view
+        Assert.assertEquals(Arrays.asList("b"), destroyedBeans);
+
+        startRequest();
+        Assert.assertSame(a, get("a"));
+        Assert.assertNotSame(b, get("b"));
+        viewAccessContext.onProcessingViewFinished("/view3.xhtml");
+
+        Assert.assertEquals(Arrays.asList("b"), destroyedBeans);
+        Assert.assertEquals(1, viewAccessBeanHolder.getStorageMap().size());
+        Assert.assertEquals(2, viewAccessBeanHolder.getStorageMap().get("/view3.xhtml").getStorage().size());
+    }
+
+    @Test
+    public void testBeansSurviveRequestsOfTheSameView()
+    {
+        startRequest();
+        Object a = get("a");
+        get("b");
+        viewAccessContext.onProcessingViewFinished("/view1.xhtml");
+
+        // e.g. a postback which doesn't use the beans
+        startRequest();
+        viewAccessContext.onProcessingViewFinished("/view1.xhtml");
+        Assert.assertTrue(destroyedBeans.isEmpty());
+
+        startRequest();
+        Assert.assertSame(a, get("a"));
+        viewAccessContext.onProcessingViewFinished("/view1.xhtml");
+        Assert.assertTrue(destroyedBeans.isEmpty());
+
+        startRequest();
+        viewAccessContext.onProcessingViewFinished("/view2.xhtml");
+        Assert.assertEquals(Arrays.asList("a", "b"), sorted(destroyedBeans));
+        Assert.assertTrue(viewAccessBeanHolder.getStorageMap().isEmpty());
+    }
+
+    @Test
+    public void testBeansCreatedForTheNewViewSurvive()
+    {
+        startRequest();
+        get("a");
+        viewAccessContext.onProcessingViewFinished("/view1.xhtml");
+
+        // c is created during the navigation to the new view
+        startRequest();
+        Object c = get("c");
+        viewAccessContext.onProcessingViewFinished("/view2.xhtml");
+        Assert.assertEquals(Arrays.asList("a"), destroyedBeans);
+
+        startRequest();
+        Assert.assertSame(c, get("c"));
+    }
+
+    @Test
+    public void testForcedCloseDestroysAllBeans()
+    {
+        startRequest();
+        get("a");
+        get("b");
+        viewAccessContext.onProcessingViewFinished("/view1.xhtml");
+
+        startRequest();
+        get("a");
+        viewAccessContext.close("/view1.xhtml", true);
+
+        Assert.assertEquals(Arrays.asList("a", "b"), sorted(destroyedBeans));
+        Assert.assertTrue(viewAccessBeanHolder.getStorageMap().isEmpty());
+    }
+
+    /**
+     * The access history is request-scoped, the other artifacts are window-scoped.
+     */
+    private void startRequest()
+    {
+        viewAccessContext.init(viewAccessBeanHolder, new ViewAccessBeanAccessHistory(), viewAccessViewHistory);
+    }
+
+    private Object get(String beanId)
+    {
+        return viewAccessContext.get(beans.get(beanId), new TestCreationalContext());
+    }
+
+    private static List<String> sorted(List<String> values)
+    {
+        List<String> result = new ArrayList<String>(values);
+        Collections.sort(result);
+        return result;
+    }
+
+    class TestBean implements Contextual<Object>, PassivationCapable
+    {
+        private final String id;
+
+        TestBean(String id)
+        {
+            this.id = id;
+        }
+
+        @Override
+        public Object create(CreationalContext<Object> creationalContext)
+        {
+            return new Object();
+        }
+
+        @Override
+        public void destroy(Object instance, CreationalContext<Object> creationalContext)
+        {
+            destroyedBeans.add(id);
+        }
+
+        @Override
+        public String getId()
+        {
+            return id;
+        }
+    }
+
+    static class TestCreationalContext implements CreationalContext<Object>
+    {
+        @Override
+        public void push(Object incompleteInstance)
+        {
+        }
+
+        @Override
+        public void release()
+        {
+        }
+    }
+}
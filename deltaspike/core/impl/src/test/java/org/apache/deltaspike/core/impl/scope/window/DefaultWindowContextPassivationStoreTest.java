@@ -0,0 +1,119 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.deltaspike.core.impl.scope.window;
+
+import java.io.File;
+import java.lang.reflect.Field;
+import java.util.Arrays;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class DefaultWindowContextPassivationStoreTest
+{
+    private static final String PASSIVATION_DIRECTORY = "deltaspike.scope.window.passivation-directory";
+
+    @After
+    public void cleanup()
+    {
+        System.clearProperty(PASSIVATION_DIRECTORY);
+    }
+
+    @Test
+    public void testStoreLoadAndRemove()
+    {
+        DefaultWindowContextPassivationStore passivationStore = new DefaultWindowContextPassivationStore();
+        passivationStore.init();
+
+        try
+        {
+            byte[] windowState = new byte[] { 1, 2, 3 };
+            passivationStore.store("key", windowState);
+
+            Assert.assertTrue(Arrays.equals(windowState, passivationStore.load("key")));
+            Assert.assertNull(passivationStore.load("unknown"));
+
+            passivationStore.remove("key");
+            Assert.assertNull(passivationStore.load("key"));
+        }
+        finally
+        {
+            passivationStore.cleanup();
+        }
+    }
+
+    @Test
+    public void testPrivateDirectoryPerApplication() throws Exception
+    {
+        DefaultWindowContextPassivationStore passivationStore1 = new DefaultWindowContextPassivationStore();
+        passivationStore1.init();
+        DefaultWindowContextPassivationStore passivationStore2 = new DefaultWindowContextPassivationStore();
+        passivationStore2.init();
+
+        File directory1 = getDirectory(passivationStore1);
+        File directory2 = getDirectory(passivationStore2);
+
+        Assert.assertFalse(directory1.equals(directory2));
+        Assert.assertTrue(directory1.isDirectory());
+        Assert.assertEquals(new File(System.getProperty("java.io.tmpdir")).getCanonicalFile(),
+            directory1.getParentFile().getCanonicalFile());
+
+        passivationStore1.store("key", new byte[] { 1 });
+        passivationStore1.cleanup();
+        passivationStore2.cleanup();
+
+        // the directory is only used by the stopped application
+        Assert.assertFalse(directory1.exists());
+        Assert.assertFalse(directory2.exists());
+    }
+
+    @Test
+    public void testConfiguredDirectory() throws Exception
+    {
+        File directory = new File(System.getProperty("java.io.tmpdir"),
+            "deltaspike-passivation-test-" + System.nanoTime());
+        System.setProperty(PASSIVATION_DIRECTORY, directory.getAbsolutePath());
+
+        DefaultWindowContextPassivationStore passivationStore = new DefaultWindowContextPassivationStore();
+        passivationStore.init();
+
+        try
+        {
+            passivationStore.store("key", new byte[] { 1 });
+            Assert.assertTrue(new File(directory, "key.window").isFile());
+
+            // a configured directory isn't deleted
+            passivationStore.cleanup();
+            Assert.assertTrue(directory.isDirectory());
+        }
+        finally
+        {
+            new File(directory, "key.window").delete();
+            directory.delete();
+        }
+    }
+
+    private static File getDirectory(DefaultWindowContextPassivationStore passivationStore) throws Exception
+    {
+        Field field = DefaultWindowContextPassivationStore.class.getDeclaredField("directory");
+        field.setAccessible(true);
+        return (File) field.get(passivationStore);
+    }
+}
@@ -0,0 +1,189 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.deltaspike.core.impl.scope.window;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.deltaspike.core.spi.scope.window.WindowContext;
+import org.apache.deltaspike.test.util.TestStubs;
+import org.apache.deltaspike.test.util.TestStubs.StubHandler;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class DefaultWindowContextQuotaHandlerTest
+{
+    private final List<String> closedWindowIds = new ArrayList<String>();
+
+    private DefaultWindowContextQuotaHandler quotaHandler;
+    private WindowContext windowContext;
+
+    @Before
+    public void init()
+    {
+        quotaHandler = new DefaultWindowContextQuotaHandler();
+
+        windowContext = TestStubs.createStub(WindowContext.class, new StubHandler()
+        {
+            @Override
+            public Object invoke(Object proxy, Method method, Object[] args) throws Throwable
+            {
+                if ("closeWindow".equals(method.getName()))
+                {
+                    closedWindowIds.add((String) args[0]);
+                    return true;
+                }
+                return super.invoke(proxy, method, args);
+            }
+        });
+    }
+
+    @Test
+    public void testLeastRecentlyUsedWindowEvictedFirst() throws Exception
+    {
+        quotaHandler.maxWindowContextCount = 3;
+
+        request("w1");
+        request("w2");
+        request("w3");
+        Assert.assertTrue(closedWindowIds.isEmpty());
+
+        // w1 gets used again, w2 is the least recently used window afterwards
+        request("w1");
+        request("w4");
+        Assert.assertEquals(Arrays.asList("w2"), closedWindowIds);
+
+        request("w5");
+        Assert.assertEquals(Arrays.asList("w2", "w3"), closedWindowIds);
+
+        request("w6");
+        Assert.assertEquals(Arrays.asList("w2", "w3", "w1"), closedWindowIds);
+    }
+
+    @Test
+    public void testWindowCheckedOncePerRequest() throws Exception
+    {
+        quotaHandler.maxWindowContextCount = 1;
+
+        WindowContextQuotaHandlerCache quotaHandlerCache = createQuotaHandlerCache();
+        quotaHandler.checkWindowContextQuota("w1");
+        quotaHandler.checkWindowContextQuota("w1");
+        quotaHandlerCache.cleanup();
+        Assert.assertTrue(closedWindowIds.isEmpty());
+
+        request("w2");
+        Assert.assertEquals(Arrays.asList("w1"), closedWindowIds);
+    }
+
+    @Test
+    public void testIdleWindowsExpire() throws Exception
+    {
+        quotaHandler.maxWindowContextCount = 10;
+        quotaHandler.maxWindowContextIdleTime = 100;
+
+        request("w1");
+        request("w2");
+        Thread.sleep(250);
+
+        request("w3");
+        Assert.assertEquals(Arrays.asList("w1", "w2"), closedWindowIds);
+
+        request("w3");
+        Assert.assertEquals(Arrays.asList("w1", "w2"), closedWindowIds);
+    }
+
+    @Test
+    public void testUsedWindowDoesNotExpire() throws Exception
+    {
+        quotaHandler.maxWindowContextCount = 10;
+        quotaHandler.maxWindowContextIdleTime = 500;
+
+        request("w1");
+        request("w2");
+        Thread.sleep(300);
+
+        request("w1");
+        Thread.sleep(300);
+
+        // w2 was idle for 600ms, w1 for 300ms
+        request("w3");
+        Assert.assertEquals(Arrays.asList("w2"), closedWindowIds);
+    }
+
+    @Test
+    public void testExpiryDisabled() throws Exception
+    {
+        quotaHandler.maxWindowContextCount = 10;
+        quotaHandler.maxWindowContextIdleTime = 0;
+
+        request("w1");
+        Thread.sleep(50);
+        request("w2");
+
+        Assert.assertEquals(Collections.emptyList(), closedWindowIds);
+    }
+
+    @Test
+    public void testClosedWindowRemovedFromQuota() throws Exception
+    {
+        quotaHandler.maxWindowContextCount = 2;
+
+        request("w1");
+        request("w2");
+
+        // e.g. closed by the application or evicted, because the max-size of the window-storages was exceeded
+        quotaHandler.windowContextClosed("w1");
+
+        request("w3");
+        Assert.assertTrue(closedWindowIds.isEmpty());
+
+        request("w4");
+        Assert.assertEquals(Arrays.asList("w2"), closedWindowIds);
+    }
+
+    /**
+     * Simulates a request for the given window - the window-ids to destroy get closed at the end of the request.
+     */
+    private void request(String windowId) throws Exception
+    {
+        WindowContextQuotaHandlerCache quotaHandlerCache = createQuotaHandlerCache();
+        quotaHandler.checkWindowContextQuota(windowId);
+        quotaHandlerCache.cleanup();
+    }
+
+    private WindowContextQuotaHandlerCache createQuotaHandlerCache() throws Exception
+    {
+        WindowContextQuotaHandlerCache quotaHandlerCache = new WindowContextQuotaHandlerCache();
+        setField(quotaHandlerCache, "windowContext", windowContext);
+        setField(quotaHandler, "quotaHandlerCache", quotaHandlerCache);
+        return quotaHandlerCache;
+    }
+
+    private static void setField(Object instance, String fieldName, Object value) throws Exception
+    {
+        Field field = instance.getClass().getDeclaredField(fieldName);
+        field.setAccessible(true);
+        field.set(instance, value);
+    }
+}
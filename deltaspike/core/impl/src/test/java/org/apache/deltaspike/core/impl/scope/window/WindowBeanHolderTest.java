@@ -0,0 +1,464 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.deltaspike.core.impl.scope.window;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.enterprise.context.spi.Contextual;
+import javax.enterprise.context.spi.CreationalContext;
+import javax.enterprise.inject.spi.BeanManager;
+import javax.enterprise.inject.spi.PassivationCapable;
+
+import org.apache.deltaspike.core.impl.scope.AbstractBeanHolder;
+import org.apache.deltaspike.core.impl.scope.ContextualStorageSizeEstimator;
+import org.apache.deltaspike.core.spi.scope.window.WindowContextPassivationStore;
+import org.apache.deltaspike.core.util.context.ContextualStorage;
+import org.apache.deltaspike.test.util.TestStubs;
+import org.apache.deltaspike.test.util.TestStubs.StubHandler;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class WindowBeanHolderTest
+{
+    private static final long PASSIVATION_IDLE_TIME = 100;
+
+    private static final List<String> DESTROYED_BEANS = Collections.synchronizedList(new ArrayList<String>());
+
+    private final BeanManager beanManager = TestStubs.createStub(BeanManager.class, new TestBeanManager());
+
+    private WindowBeanHolder windowBeanHolder;
+    private TestPassivationStore passivationStore;
+
+    @Before
+    public void init() throws Exception
+    {
+        DESTROYED_BEANS.clear();
+
+        passivationStore = new TestPassivationStore();
+
+        windowBeanHolder = new WindowBeanHolder();
+        setField(windowBeanHolder, "passivationIdleTime", PASSIVATION_IDLE_TIME);
+        setField(windowBeanHolder, "windowContextPassivationStore", passivationStore);
+    }
+
+    @Test
+    public void testInactiveWindowPassivatedAndRestored() throws Exception
+    {
+        WindowIdHolder request = startRequest();
+        createBean(windowBeanHolder.getContextualStorage(beanManager, "w1", true), "a");
+        request.releaseUsedWindows();
+
+        passivateInactiveWindows("w2");
+
+        Assert.assertFalse(windowBeanHolder.getStorageMap().containsKey("w1"));
+        Assert.assertEquals(1, passivationStore.windowStates.size());
+
+        request = startRequest();
+        ContextualStorage restoredStorage = windowBeanHolder.getContextualStorage(beanManager, "w1", false);
+        request.releaseUsedWindows();
+
+        Assert.assertNotNull(restoredStorage);
+        Assert.assertEquals("a", getBeanValue(restoredStorage, "a"));
+        Assert.assertTrue(passivationStore.windowStates.isEmpty());
+        Assert.assertTrue(DESTROYED_BEANS.isEmpty());
+    }
+
+    @Test
+    public void testWindowInUseNotPassivated() throws Exception
+    {
+        // e.g. a long running request of an other browser-tab
+        WindowIdHolder otherTab = startRequest();
+        createBean(windowBeanHolder.getContextualStorage(beanManager, "w1", true), "a");
+
+        passivateInactiveWindows("w2");
+        Assert.assertTrue(windowBeanHolder.getStorageMap().containsKey("w1"));
+        Assert.assertTrue(passivationStore.windowStates.isEmpty());
+
+        otherTab.releaseUsedWindows();
+
+        passivateInactiveWindows("w2");
+        Assert.assertFalse(windowBeanHolder.getStorageMap().containsKey("w1"));
+        Assert.assertEquals(1, passivationStore.windowStates.size());
+    }
+
+    @Test
+    public void testFailedPassivationKeepsWindow() throws Exception
+    {
+        WindowIdHolder request = startRequest();
+        ContextualStorage storage = windowBeanHolder.getContextualStorage(beanManager, "w1", true);
+        createBean(storage, "a");
+        request.releaseUsedWindows();
+
+        passivationStore.failing = true;
+        passivateInactiveWindows("w2");
+
+        Assert.assertSame(storage, windowBeanHolder.getStorageMap().get("w1"));
+        Assert.assertTrue(passivationStore.windowStates.isEmpty());
+        Assert.assertTrue(DESTROYED_BEANS.isEmpty());
+
+        // next attempt after the next idle-time
+        passivationStore.failing = false;
+        passivateInactiveWindows("w2");
+
+        Assert.assertFalse(windowBeanHolder.getStorageMap().containsKey("w1"));
+        Assert.assertEquals(1, passivationStore.windowStates.size());
+    }
+
+    @Test
+    public void testModifiedWindowStateRejected() throws Exception
+    {
+        WindowIdHolder request = startRequest();
+        createBean(windowBeanHolder.getContextualStorage(beanManager, "w1", true), "a");
+        request.releaseUsedWindows();
+
+        passivateInactiveWindows("w2");
+
+        byte[] windowState = passivationStore.windowStates.values().iterator().next();
+        windowState[windowState.length - 1]++;
+
+        try
+        {
+            startRequest();
+            windowBeanHolder.getContextualStorage(beanManager, "w1", false);
+            Assert.fail("the modified window shouldn't be restored");
+        }
+        catch (IllegalStateException e)
+        {
+            // expected
+        }
+
+        Assert.assertFalse(windowBeanHolder.getStorageMap().containsKey("w1"));
+        Assert.assertEquals(1, passivationStore.windowStates.size());
+    }
+
+    @Test
+    public void testDestroyRestoresPassivatedWindows() throws Exception
+    {
+        WindowIdHolder request = startRequest();
+        createBean(windowBeanHolder.getContextualStorage(beanManager, "w1", true), "a");
+        createBean(windowBeanHolder.getContextualStorage(beanManager, "w2", true), "b");
+        request.releaseUsedWindows();
+
+        passivateInactiveWindows("w3");
+        Assert.assertEquals(2, passivationStore.windowStates.size());
+
+        windowBeanHolder.destroyBeans();
+
+        Assert.assertEquals(Arrays.asList("a", "b"), sorted(DESTROYED_BEANS));
+        Assert.assertTrue(passivationStore.windowStates.isEmpty());
+    }
+
+    @Test
+    public void testDestroyRemovesWindowsWhichCantBeRestored() throws Exception
+    {
+        WindowIdHolder request = startRequest();
+        createBean(windowBeanHolder.getContextualStorage(beanManager, "w1", true), "a");
+        request.releaseUsedWindows();
+
+        passivateInactiveWindows("w2");
+
+        byte[] windowState = passivationStore.windowStates.values().iterator().next();
+        windowState[windowState.length - 1]++;
+
+        windowBeanHolder.destroyBeans();
+
+        Assert.assertTrue(passivationStore.windowStates.isEmpty());
+    }
+
+    @Test
+    public void testCloseRestoresPassivatedWindow() throws Exception
+    {
+        WindowIdHolder request = startRequest();
+        createBean(windowBeanHolder.getContextualStorage(beanManager, "w1", true), "a");
+        request.releaseUsedWindows();
+
+        passivateInactiveWindows("w2");
+
+        WindowContextImpl windowContext = new WindowContextImpl(beanManager);
+        windowContext.init(windowBeanHolder, startRequest());
+
+        Assert.assertTrue(windowContext.closeWindow("w1"));
+        Assert.assertEquals(Arrays.asList("a"), DESTROYED_BEANS);
+        Assert.assertTrue(passivationStore.windowStates.isEmpty());
+    }
+
+    @Test
+    public void testSerializationKeepsWindowsPassivated() throws Exception
+    {
+        WindowIdHolder request = startRequest();
+        createBean(windowBeanHolder.getContextualStorage(beanManager, "w1", true), "a");
+        request.releaseUsedWindows();
+
+        passivateInactiveWindows("w2");
+
+        // would be a serializable proxy of the request-scoped bean
+        setField(windowBeanHolder, "windowIdHolder", null);
+
+        ByteArrayOutputStream serializedHolder = new ByteArrayOutputStream();
+        ObjectOutputStream objectOutputStream = new ObjectOutputStream(serializedHolder);
+        objectOutputStream.writeObject(windowBeanHolder);
+        objectOutputStream.close();
+
+        Assert.assertEquals(1, passivationStore.windowStates.size());
+        Assert.assertFalse(windowBeanHolder.getStorageMap().containsKey("w1"));
+
+        WindowBeanHolder deserializedHolder = (WindowBeanHolder) new ObjectInputStream(
+            new ByteArrayInputStream(serializedHolder.toByteArray())).readObject();
+        Assert.assertFalse(deserializedHolder.getStorageMap().containsKey("w1"));
+
+        // the store might be local to the original node -> the passivated state is part of the session
+        TestPassivationStore otherNodeStore = new TestPassivationStore();
+        setField(deserializedHolder, "windowContextPassivationStore", otherNodeStore);
+        windowBeanHolder = deserializedHolder;
+
+        // moved to the store of the node with the next passivation-check
+        passivateInactiveWindows("w2");
+        Assert.assertEquals(1, otherNodeStore.windowStates.size());
+
+        deserializedHolder.activateWindow("w1");
+        Assert.assertEquals("a", getBeanValue(deserializedHolder.getStorageMap().get("w1"), "a"));
+        Assert.assertTrue(otherNodeStore.windowStates.isEmpty());
+    }
+
+    @Test
+    public void testTransferredWindowRestoredWithoutStore() throws Exception
+    {
+        WindowIdHolder request = startRequest();
+        createBean(windowBeanHolder.getContextualStorage(beanManager, "w1", true), "a");
+        request.releaseUsedWindows();
+
+        passivateInactiveWindows("w2");
+        setField(windowBeanHolder, "windowIdHolder", null);
+
+        ByteArrayOutputStream serializedHolder = new ByteArrayOutputStream();
+        ObjectOutputStream objectOutputStream = new ObjectOutputStream(serializedHolder);
+        objectOutputStream.writeObject(windowBeanHolder);
+        objectOutputStream.close();
+
+        WindowBeanHolder deserializedHolder = (WindowBeanHolder) new ObjectInputStream(
+            new ByteArrayInputStream(serializedHolder.toByteArray())).readObject();
+        setField(deserializedHolder, "windowContextPassivationStore", new TestPassivationStore());
+
+        deserializedHolder.activateWindow("w1");
+        Assert.assertEquals("a", getBeanValue(deserializedHolder.getStorageMap().get("w1"), "a"));
+    }
+
+    @Test
+    public void testEvictionClosesWindowViaContext() throws Exception
+    {
+        // 2 beans with the default size of 1kb
+        System.setProperty("deltaspike.scope.storage.max-size", "2");
+        try
+        {
+            windowBeanHolder = new WindowBeanHolder();
+        }
+        finally
+        {
+            System.clearProperty("deltaspike.scope.storage.max-size");
+        }
+        setField(windowBeanHolder, "contextualStorageSizeEstimator", new ContextualStorageSizeEstimator());
+
+        final List<String> closedWindowIds = new ArrayList<String>();
+        WindowContextImpl windowContext = new WindowContextImpl(beanManager)
+        {
+            @Override
+            public boolean closeWindow(String windowId)
+            {
+                closedWindowIds.add(windowId);
+                return super.closeWindow(windowId);
+            }
+        };
+        setField(windowBeanHolder, "windowContext", windowContext);
+
+        windowContext.init(windowBeanHolder, startRequest());
+        windowContext.activateWindow("w1");
+        createBean(windowBeanHolder.getContextualStorage(beanManager, "w1", true), "a");
+
+        // w1 is the current window of the request -> it isn't evicted, even if its beans aren't used
+        windowContext.init(windowBeanHolder, startRequest());
+        windowContext.activateWindow("w1");
+        ContextualStorage secondWindow = windowBeanHolder.getContextualStorage(beanManager, "w2", true);
+        createBean(secondWindow, "b");
+        createBean(secondWindow, "c");
+        Assert.assertTrue(closedWindowIds.isEmpty());
+
+        windowContext.init(windowBeanHolder, startRequest());
+        windowContext.activateWindow("w2");
+        createBean(windowBeanHolder.getContextualStorage(beanManager, "w2", true), "d");
+
+        Assert.assertEquals(Arrays.asList("w1"), closedWindowIds);
+        Assert.assertEquals(Arrays.asList("a"), DESTROYED_BEANS);
+        Assert.assertFalse(windowBeanHolder.getStorageMap().containsKey("w1"));
+    }
+
+    private WindowIdHolder startRequest() throws Exception
+    {
+        WindowIdHolder windowIdHolder = new WindowIdHolder();
+        setField(windowBeanHolder, "windowIdHolder", windowIdHolder);
+        return windowIdHolder;
+    }
+
+    /**
+     * Uses the given window after the passivation-idle-time, which triggers the passivation of inactive windows.
+     */
+    private void passivateInactiveWindows(String windowId) throws Exception
+    {
+        Thread.sleep(PASSIVATION_IDLE_TIME + 50);
+        setField(windowBeanHolder, "lastPassivationCheck", 0L);
+
+        WindowIdHolder request = startRequest();
+        windowBeanHolder.getContextualStorage(beanManager, windowId, true);
+        request.releaseUsedWindows();
+    }
+
+    private static void createBean(ContextualStorage storage, String id)
+    {
+        storage.createContextualInstance(new TestBean(id), null);
+    }
+
+    private static String getBeanValue(ContextualStorage storage, String id)
+    {
+        return ((TestBeanInstance) storage.getStorage().get(id).getContextualInstance()).value;
+    }
+
+    private static List<String> sorted(List<String> values)
+    {
+        List<String> result = new ArrayList<String>(values);
+        Collections.sort(result);
+        return result;
+    }
+
+    private static void setField(Object instance, String fieldName, Object value) throws Exception
+    {
+        Field field;
+        try
+        {
+            field = WindowBeanHolder.class.getDeclaredField(fieldName);
+        }
+        catch (NoSuchFieldException e)
+        {
+            field = AbstractBeanHolder.class.getDeclaredField(fieldName);
+        }
+        field.setAccessible(true);
+        field.set(instance, value);
+    }
+
+    static class TestBeanManager extends StubHandler
+    {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable
+        {
+            if ("isPassivatingScope".equals(method.getName()))
+            {
+                return true;
+            }
+            if ("getPassivationCapableBean".equals(method.getName()))
+            {
+                return TestStubs.createPassivationCapableBean(new TestBean((String) args[0]));
+            }
+            return super.invoke(proxy, method, args);
+        }
+    }
+
+    static class TestBean implements Contextual<Object>, PassivationCapable
+    {
+        private final String id;
+
+        TestBean(String id)
+        {
+            this.id = id;
+        }
+
+        @Override
+        public Object create(CreationalContext<Object> creationalContext)
+        {
+            return new TestBeanInstance(id);
+        }
+
+        @Override
+        public void destroy(Object instance, CreationalContext<Object> creationalContext)
+        {
+            DESTROYED_BEANS.add(((TestBeanInstance) instance).value);
+        }
+
+        @Override
+        public String getId()
+        {
+            return id;
+        }
+    }
+
+    static class TestBeanInstance implements Serializable
+    {
+        private static final long serialVersionUID = 1L;
+
+        private final String value;
+
+        TestBeanInstance(String value)
+        {
+            this.value = value;
+        }
+    }
+
+    static class TestPassivationStore implements WindowContextPassivationStore
+    {
+        private static final long serialVersionUID = 1L;
+
+        private final Map<String, byte[]> windowStates = new ConcurrentHashMap<String, byte[]>();
+
+        private volatile boolean failing;
+
+        @Override
+        public void store(String key, byte[] windowState)
+        {
+            if (failing)
+            {
+                throw new IllegalStateException("store isn't available");
+            }
+            windowStates.put(key, windowState);
+        }
+
+        @Override
+        public byte[] load(String key)
+        {
+            return windowStates.get(key);
+        }
+
+        @Override
+        public void remove(String key)
+        {
+            windowStates.remove(key);
+        }
+    }
+}
@@ -84,6 +84,18 @@ public class MessageFormattedMessageTest
         assertEquals("The income since 42 days is 12.34", message.incomeSinceDays(42, 12.34f));
     }
 
+    @Test
+    public void testRepeatedMessage()
+    {
+        // the parsed template gets cached, the arguments must not
+        for (int i = 0; i < 10; i++)
+        {
+            assertEquals("The income since " + i + " days is 12.34", message.incomeSinceDays(i, 12.34f));
+        }
+        assertEquals("Welcome to DeltaSpike", message.welcomeTo("DeltaSpike"));
+        assertEquals("Welcome to CDI", message.welcomeTo("CDI"));
+    }
+
     @Test
     public void testNullMessage()
     {
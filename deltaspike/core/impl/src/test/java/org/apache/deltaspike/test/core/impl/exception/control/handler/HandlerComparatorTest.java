@@ -39,12 +39,15 @@ import javax.enterprise.inject.spi.BeanManager;
 import javax.inject.Inject;
 import java.lang.annotation.Annotation;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
 
 import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertThat;
 
 @RunWith(Arquillian.class)
@@ -111,4 +114,21 @@ public class HandlerComparatorTest
 
         assertThat(handlers.size(), is(4));
     }
+
+    @Test
+    public void assertRepeatedLookupReturnsSameHandlers()
+    {
+        Set<Annotation> qualifiers = new HashSet<Annotation>();
+        qualifiers.add(new CatchQualifierLiteral());
+
+        Collection<HandlerMethod<? extends Throwable>> handlers =
+                storage.getHandlersForException(NullPointerException.class, bm, qualifiers, false);
+
+        // a new (but equal) set of qualifiers has to lead to the same result
+        Set<Annotation> otherQualifiers = new HashSet<Annotation>();
+        otherQualifiers.add(new CatchQualifierLiteral());
+
+        assertSame(handlers, storage.getHandlersForException(NullPointerException.class, bm, otherQualifiers, false));
+        assertNotSame(handlers, storage.getHandlersForException(NullPointerException.class, bm, qualifiers, true));
+    }
 }
@@ -47,4 +47,11 @@ public @interface EntityManagerConfig
      */
     FlushModeType flushMode() default FlushModeType.AUTO;
 
+    /**
+     * Number of entities after which the batch methods of {@link EntityRepository} flush and clear
+     * the repository EntityManager. Values below 1 fall back to the {@code deltaspike.data.batch_size}
+     * config entry, which defaults to 50.
+     */
+    int batchSize() default 0;
+
 }
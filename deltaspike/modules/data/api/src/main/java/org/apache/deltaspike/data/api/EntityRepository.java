@@ -19,6 +19,7 @@
 package org.apache.deltaspike.data.api;
 
 import java.io.Serializable;
+import java.util.Collection;
 import java.util.List;
 
 import javax.persistence.metamodel.SingularAttribute;
@@ -73,6 +74,32 @@ public interface EntityRepository<E, PK extends Serializable> extends Deactivata
      */
     void removeAndFlush(E entity);
 
+    /**
+     * {@link #save(Object)}s the given entities. The persistence context is flushed and cleared
+     * after every batch (see {@link EntityManagerConfig#batchSize()}) and flushed at the end,
+     * so entities of completed batches are detached when this method returns.
+     * @param entities          Entities to save.
+     * @return                  Number of saved entities.
+     */
+    int saveAll(Iterable<E> entities);
+
+    /**
+     * Persists the given new entities, flushing and clearing the persistence context after every
+     * batch like {@link #saveAll(Iterable)}. Cheaper than {@link #saveAll(Iterable)} as no
+     * new / existing check is done.
+     * @param entities          New entities to persist.
+     * @return                  Number of persisted entities.
+     */
+    int persistAll(Iterable<E> entities);
+
+    /**
+     * Removes the given entities, flushing and clearing the persistence context after every
+     * batch like {@link #saveAll(Iterable)}. Detached entities are merged before removal.
+     * @param entities          Entities to remove.
+     * @return                  Number of removed entities.
+     */
+    int removeAll(Iterable<E> entities);
+
     /**
      * Convenience access to {@link javax.persistence.EntityManager#refresh(Object)}.
      * @param entity            Entity to refresh.
@@ -92,6 +119,16 @@ public interface EntityRepository<E, PK extends Serializable> extends Deactivata
      */
     E findBy(PK primaryKey);
 
+    /**
+     * Entity lookup for several primary keys. Loads the entities with chunked {@code in} queries
+     * instead of one {@link javax.persistence.EntityManager#find(Class, Object)} per key.
+     * @param primaryKeys       DB primary keys.
+     * @return                  Entities in the order of the given keys. Keys without an entity are
+     *                          skipped, so the list might be smaller than the key collection. A key
+     *                          contained several times returns the same entity once per occurrence.
+     */
+    List<E> findByIds(Collection<PK> primaryKeys);
+
     /**
      * Lookup all existing entities of entity class {@code <E>}.
      * @return                  List of entities, empty if none found.
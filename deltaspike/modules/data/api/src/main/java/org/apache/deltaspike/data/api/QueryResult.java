@@ -109,6 +109,18 @@ public interface QueryResult<E>
      */
     QueryResult<E> firstResult(int first);
 
+    /**
+     * Keyset pagination: Restrict the result to the entries following the given key.
+     * The key consists of the values of the attributes the result is ordered by with
+     * {@link #orderAsc(String)} and {@link #orderDesc(String)}, in the same sequence.
+     * Use it together with {@link #maxResults(int)} instead of {@link #firstResult(int)},
+     * so the database does not have to skip the previous pages. Replaces a previous key.
+     *
+     * @param keyValues         Order attribute values of the last entry of the previous page.
+     * @return                  Fluent API: the result instance.
+     */
+    QueryResult<E> afterKey(Object... keyValues);
+
     /**
      * Sets the query lock mode.
      *
@@ -169,6 +181,14 @@ public interface QueryResult<E>
      */
     long count();
 
+    /**
+     * Count the result set up to a limit, e.g. to find out whether there are at least
+     * limit results without counting all of them.
+     * @param limit             Maximum count, has to be positive.
+     * @return                  Result count, but at most the limit.
+     */
+    long count(int limit);
+
     /**
      * Set a page size on the query result. Defaults to 10 or takes the value of a
      * previous {@link #maxResults(int)} call.
@@ -0,0 +1,50 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.deltaspike.data.api;
+
+import java.util.Iterator;
+
+/**
+ * Result of a query method which is fetched lazily in chunks while it is iterated, instead of
+ * loading the whole result list at once. Query methods returning this type are executed in streaming mode,
+ * see {@link StreamingResult} for the configuration.
+ * <br/>
+ * The result can be iterated only once and has to be consumed while the underlying
+ * {@link javax.persistence.EntityManager} (and transaction) is still active.
+ *
+ * @param <E> Entity type.
+ */
+public interface ResultStream<E> extends Iterable<E>
+{
+
+    /**
+     * Returns the iterator over the query result.
+     *
+     * @throws IllegalStateException if the result has already been iterated or closed.
+     */
+    @Override
+    Iterator<E> iterator();
+
+    /**
+     * Releases the resources held by the result, like an open database cursor. Called automatically
+     * after the last element has been read. Calling it more than once has no effect.
+     */
+    void close();
+
+}
@@ -0,0 +1,49 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.deltaspike.data.api;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Configures how the result of a query method returning a {@link ResultStream} is fetched.
+ * Without this annotation the defaults apply.
+ * <br/>
+ * A query method returning {@link Iterable} is only streamed if it is annotated with this annotation.
+ * The returned instance is a {@link ResultStream}, which should be closed if it isn't read to the end.
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+public @interface StreamingResult
+{
+
+    /**
+     * Number of rows fetched from the database at once.
+     */
+    int chunkSize() default 1000;
+
+    /**
+     * Clears the {@link javax.persistence.EntityManager} before the next chunk is fetched.
+     * This keeps the persistence context small, but detaches all entities read so far.
+     */
+    boolean clearEntityManager() default false;
+
+}
@@ -173,6 +173,15 @@ public interface Criteria<C, R>
      */
     <P> Criteria<C, R> orderDesc(SingularAttribute<? super C, P> att);
 
+    /**
+     * Keyset pagination: restrict the result to the entries following the given key.
+     * The key consists of the values of the attributes passed to {@link #orderAsc(SingularAttribute)}
+     * and {@link #orderDesc(SingularAttribute)}, in the same sequence. Replaces a previous key.
+     * @param keyValues     Order attribute values of the last entry of the previous page.
+     * @return              Fluent API: Criteria instance.
+     */
+    Criteria<C, R> afterKey(Object... keyValues);
+
     /**
      * Create a select query.
      * @param resultClass   The query result class.
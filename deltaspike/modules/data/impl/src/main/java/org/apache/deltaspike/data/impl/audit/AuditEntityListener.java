@@ -18,41 +18,55 @@
  */
 package org.apache.deltaspike.data.impl.audit;
 
-import java.util.Set;
-
-import javax.enterprise.inject.spi.Bean;
 import javax.enterprise.inject.spi.BeanManager;
 import javax.persistence.PrePersist;
 import javax.persistence.PreUpdate;
 
 import org.apache.deltaspike.core.api.provider.BeanManagerProvider;
+import org.apache.deltaspike.core.api.provider.BeanProvider;
 
 public class AuditEntityListener
 {
 
+    private volatile ResolvedAuditListeners resolved;
+
     @PrePersist
     public void persist(Object entity)
     {
-        BeanManager beanManager = BeanManagerProvider.getInstance().getBeanManager();
-        Set<Bean<?>> beans = beanManager.getBeans(PrePersistAuditListener.class);
-        for (Bean<?> bean : beans)
-        {
-            PrePersistAuditListener result = (PrePersistAuditListener) beanManager.getReference(
-                    bean, PrePersistAuditListener.class, beanManager.createCreationalContext(bean));
-            result.prePersist(entity);
-        }
+        getAuditListeners().prePersist(entity);
     }
 
     @PreUpdate
     public void update(Object entity)
     {
-        BeanManager beanManager = BeanManagerProvider.getInstance().getBeanManager();
-        Set<Bean<?>> beans = beanManager.getBeans(PreUpdateAuditListener.class);
-        for (Bean<?> bean : beans)
+        getAuditListeners().preUpdate(entity);
+    }
+
+    // the listener instance is created by the persistence provider, so the lookup is re-done
+    // if it is used with a different bean manager
+    private AuditListeners getAuditListeners()
+    {
+        BeanManager currentBeanManager = BeanManagerProvider.getInstance().getBeanManager();
+        ResolvedAuditListeners result = resolved;
+        if (result == null || result.beanManager != currentBeanManager)
+        {
+            result = new ResolvedAuditListeners(currentBeanManager,
+                    BeanProvider.getContextualReference(currentBeanManager, AuditListeners.class, false));
+            resolved = result;
+        }
+        return result.auditListeners;
+    }
+
+    // published with a single write, so the listeners always belong to the bean manager they are compared with
+    private static final class ResolvedAuditListeners
+    {
+        private final BeanManager beanManager;
+        private final AuditListeners auditListeners;
+
+        private ResolvedAuditListeners(BeanManager beanManager, AuditListeners auditListeners)
         {
-            PreUpdateAuditListener result = (PreUpdateAuditListener) beanManager.getReference(
-                    bean, PreUpdateAuditListener.class, beanManager.createCreationalContext(bean));
-            result.preUpdate(entity);
+            this.beanManager = beanManager;
+            this.auditListeners = auditListeners;
         }
     }
 
@@ -0,0 +1,96 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.deltaspike.data.impl.audit;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import javax.annotation.PostConstruct;
+import javax.enterprise.context.ApplicationScoped;
+import javax.enterprise.context.spi.CreationalContext;
+import javax.enterprise.inject.spi.Bean;
+import javax.enterprise.inject.spi.BeanManager;
+import javax.inject.Inject;
+
+/**
+ * Holds the beans of the {@link PrePersistAuditListener}s and {@link PreUpdateAuditListener}s of the application.
+ * Only the bean lookup is cached - the listener instances are created per call, so {@code @Dependent} listeners
+ * don't turn into singletons, and get destroyed after the call.
+ */
+@ApplicationScoped
+class AuditListeners
+{
+
+    @Inject
+    private BeanManager beanManager;
+
+    private List<Bean<?>> prePersistListenerBeans;
+    private List<Bean<?>> preUpdateListenerBeans;
+
+    @PostConstruct
+    protected void init()
+    {
+        prePersistListenerBeans = resolveListenerBeans(PrePersistAuditListener.class);
+        preUpdateListenerBeans = resolveListenerBeans(PreUpdateAuditListener.class);
+    }
+
+    void prePersist(Object entity)
+    {
+        for (Bean<?> bean : prePersistListenerBeans)
+        {
+            CreationalContext<?> creationalContext = beanManager.createCreationalContext(bean);
+            try
+            {
+                getListener(bean, PrePersistAuditListener.class, creationalContext).prePersist(entity);
+            }
+            finally
+            {
+                creationalContext.release();
+            }
+        }
+    }
+
+    void preUpdate(Object entity)
+    {
+        for (Bean<?> bean : preUpdateListenerBeans)
+        {
+            CreationalContext<?> creationalContext = beanManager.createCreationalContext(bean);
+            try
+            {
+                getListener(bean, PreUpdateAuditListener.class, creationalContext).preUpdate(entity);
+            }
+            finally
+            {
+                creationalContext.release();
+            }
+        }
+    }
+
+    private <T> T getListener(Bean<?> bean, Class<T> listenerType, CreationalContext<?> creationalContext)
+    {
+        return listenerType.cast(beanManager.getReference(bean, listenerType, creationalContext));
+    }
+
+    private List<Bean<?>> resolveListenerBeans(Class<?> listenerType)
+    {
+        return Collections.unmodifiableList(new ArrayList<Bean<?>>(beanManager.getBeans(listenerType)));
+    }
+
+}
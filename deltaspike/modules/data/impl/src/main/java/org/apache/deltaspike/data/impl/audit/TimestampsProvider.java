@@ -18,76 +18,106 @@
  */
 package org.apache.deltaspike.data.impl.audit;
 
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Constructor;
+import java.util.ArrayList;
 import java.util.Calendar;
+import java.util.Collections;
 import java.util.Date;
-import java.util.LinkedList;
 import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.logging.Level;
 
+import javax.enterprise.context.ApplicationScoped;
+
 import org.apache.deltaspike.data.api.audit.CreatedOn;
 import org.apache.deltaspike.data.api.audit.ModifiedOn;
 import org.apache.deltaspike.data.impl.property.Property;
 import org.apache.deltaspike.data.impl.property.query.AnnotatedPropertyCriteria;
 import org.apache.deltaspike.data.impl.property.query.PropertyQueries;
-import org.apache.deltaspike.data.impl.property.query.PropertyQuery;
 
 /**
  * Set timestamps on marked properties.
+ * The annotated properties of an entity class are looked up once and cached. The cache is kept per
+ * application, so it doesn't reference entity classes of other deployments.
  */
+@ApplicationScoped
 class TimestampsProvider extends AuditProvider
 {
 
+    private final ConcurrentMap<Class<?>, TimestampProperties> timestampProperties =
+            new ConcurrentHashMap<Class<?>, TimestampProperties>();
+
     @Override
     public void prePersist(Object entity)
     {
-        updateTimestamps(entity, true);
+        updateTimestamps(entity, getTimestampProperties(entity.getClass()).onCreate);
     }
 
     @Override
     public void preUpdate(Object entity)
     {
-        updateTimestamps(entity, false);
+        updateTimestamps(entity, getTimestampProperties(entity.getClass()).onUpdate);
     }
 
-    private void updateTimestamps(Object entity, boolean create)
+    private void updateTimestamps(Object entity, List<TimestampProperty> properties)
     {
-        long systime = System.currentTimeMillis();
-        List<Property<Object>> properties = new LinkedList<Property<Object>>();
-        PropertyQuery<Object> query = PropertyQueries.<Object> createQuery(entity.getClass())
-                .addCriteria(new AnnotatedPropertyCriteria(ModifiedOn.class));
-        properties.addAll(query.getWritableResultList());
-        if (create)
+        if (properties.isEmpty())
         {
-            query = PropertyQueries.<Object> createQuery(entity.getClass())
-                    .addCriteria(new AnnotatedPropertyCriteria(CreatedOn.class));
-            properties.addAll(query.getWritableResultList());
+            return;
         }
-        for (Property<Object> property : properties)
+        long systime = System.currentTimeMillis();
+        for (TimestampProperty property : properties)
         {
-            setProperty(entity, property, systime, create);
+            setProperty(entity, property, systime);
         }
     }
 
-    private void setProperty(Object entity, Property<Object> property, long systime, boolean create)
+    private void setProperty(Object entity, TimestampProperty property, long systime)
     {
         try
         {
-            if (!isCorrectContext(property, create))
+            Object now = property.now(systime);
+            property.property.setValue(entity, now);
+            if (log.isLoggable(Level.FINER))
             {
-                return;
+                log.log(Level.FINER, "Updated property {0} with {1}",
+                        new Object[] { propertyName(entity, property.property), now });
             }
-            Object now = now(property.getJavaClass(), systime);
-            property.setValue(entity, now);
-            log.log(Level.FINER, "Updated property {0} with {1}", new Object[] { propertyName(entity, property), now });
         }
         catch (Exception e)
         {
-            String message = "Failed to set property " + propertyName(entity, property) + ", is this a temporal type?";
+            String message = "Failed to set property " + propertyName(entity, property.property)
+                    + ", is this a temporal type?";
             throw new AuditPropertyException(message, e);
         }
     }
 
-    private boolean isCorrectContext(Property<Object> property, boolean create)
+    private TimestampProperties getTimestampProperties(Class<?> entityClass)
+    {
+        TimestampProperties result = timestampProperties.get(entityClass);
+        if (result == null)
+        {
+            result = new TimestampProperties(entityClass);
+            TimestampProperties existing = timestampProperties.putIfAbsent(entityClass, result);
+            if (existing != null)
+            {
+                result = existing;
+            }
+        }
+        return result;
+    }
+
+    private static List<Property<Object>> findWritableProperties(Class<?> entityClass,
+            Class<? extends Annotation> annotation)
+    {
+        return PropertyQueries.<Object> createQuery(entityClass)
+                .addCriteria(new AnnotatedPropertyCriteria(annotation))
+                .getWritableResultList();
+    }
+
+    private static boolean isCorrectContext(Property<Object> property, boolean create)
     {
         if (create && property.getAnnotatedElement().isAnnotationPresent(ModifiedOn.class))
         {
@@ -100,29 +130,98 @@ class TimestampsProvider extends AuditProvider
         return true;
     }
 
-    private Object now(Class<?> field, long systime) throws Exception
+    /**
+     * The timestamp properties of an entity class, split by the lifecycle event they are set on.
+     */
+    private static final class TimestampProperties
     {
-        if (isCalendarClass(field))
-        {
-            Calendar cal = Calendar.getInstance();
-            cal.setTimeInMillis(systime);
-            return cal;
-        }
-        else if (isDateClass(field))
+        private final List<TimestampProperty> onCreate;
+        private final List<TimestampProperty> onUpdate;
+
+        private TimestampProperties(Class<?> entityClass)
         {
-            return field.getConstructor(Long.TYPE).newInstance(systime);
+            List<Property<Object>> modified = findWritableProperties(entityClass, ModifiedOn.class);
+            List<Property<Object>> created = findWritableProperties(entityClass, CreatedOn.class);
+
+            List<TimestampProperty> create = new ArrayList<TimestampProperty>(modified.size() + created.size());
+            List<TimestampProperty> update = new ArrayList<TimestampProperty>(modified.size());
+            for (Property<Object> property : modified)
+            {
+                TimestampProperty timestampProperty = new TimestampProperty(property);
+                update.add(timestampProperty);
+                if (isCorrectContext(property, true))
+                {
+                    create.add(timestampProperty);
+                }
+            }
+            for (Property<Object> property : created)
+            {
+                if (isCorrectContext(property, true))
+                {
+                    create.add(new TimestampProperty(property));
+                }
+            }
+            onCreate = Collections.unmodifiableList(create);
+            onUpdate = Collections.unmodifiableList(update);
         }
-        throw new IllegalArgumentException("Annotated field is not a date class: " + field);
     }
 
-    private boolean isCalendarClass(Class<?> field)
+    /**
+     * A single timestamp property together with the way to create its value.
+     */
+    private static final class TimestampProperty
     {
-        return Calendar.class.isAssignableFrom(field);
-    }
+        private final Property<Object> property;
+        private final boolean calendar;
+        private final boolean date;
+        private final boolean plainDate;
+        private final Constructor<?> dateConstructor;
 
-    private boolean isDateClass(Class<?> field)
-    {
-        return Date.class.isAssignableFrom(field);
+        private TimestampProperty(Property<Object> property)
+        {
+            this.property = property;
+            Class<?> type = property.getJavaClass();
+            calendar = Calendar.class.isAssignableFrom(type);
+            date = !calendar && Date.class.isAssignableFrom(type);
+            plainDate = type == Date.class;
+            dateConstructor = date && !plainDate ? findDateConstructor(type) : null;
+        }
+
+        private static Constructor<?> findDateConstructor(Class<?> type)
+        {
+            try
+            {
+                return type.getConstructor(Long.TYPE);
+            }
+            catch (NoSuchMethodException e)
+            {
+                // reported when the property is set
+                return null;
+            }
+        }
+
+        private Object now(long systime) throws Exception
+        {
+            if (calendar)
+            {
+                Calendar cal = Calendar.getInstance();
+                cal.setTimeInMillis(systime);
+                return cal;
+            }
+            else if (date)
+            {
+                if (plainDate)
+                {
+                    return new Date(systime);
+                }
+                if (dateConstructor == null)
+                {
+                    throw new NoSuchMethodException(property.getJavaClass().getName() + ".<init>(long)");
+                }
+                return dateConstructor.newInstance(systime);
+            }
+            throw new IllegalArgumentException("Annotated field is not a date class: " + property.getJavaClass());
+        }
     }
 
 }
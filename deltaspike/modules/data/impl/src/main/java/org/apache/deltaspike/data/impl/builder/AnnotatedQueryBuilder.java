@@ -65,6 +65,7 @@ public class AnnotatedQueryBuilder extends QueryBuilder
                 javax.persistence.Query namedQuery = entityManager.createNamedQuery(query.named());
                 String named = factory.extract(namedQuery);
                 String jpqlQuery = context.applyQueryStringPostProcessors(named);
+                context.setQueryString(jpqlQuery);
                 result = params.applyTo(entityManager.createQuery(jpqlQuery));
             }
         }
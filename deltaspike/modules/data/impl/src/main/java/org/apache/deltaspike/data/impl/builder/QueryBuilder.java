@@ -27,6 +27,7 @@ import javax.persistence.Query;
 import javax.persistence.QueryHint;
 
 import org.apache.deltaspike.data.api.QueryResult;
+import org.apache.deltaspike.data.api.ResultStream;
 import org.apache.deltaspike.data.api.mapping.QueryInOutMapper;
 import org.apache.deltaspike.data.impl.handler.CdiQueryInvocationContext;
 import org.apache.deltaspike.data.impl.param.Parameters;
@@ -138,7 +139,8 @@ public abstract class QueryBuilder
     private boolean isUnmappableResult(Object result)
     {
         return result instanceof QueryResult ||
-                result instanceof Query;
+                result instanceof Query ||
+                result instanceof ResultStream;
     }
 
 }
@@ -36,6 +36,8 @@ public enum QueryOperator
     EqualIgnoreCase("EqualIgnoreCase", "upper({0}) = upper({1})"),
     IgnoreCase("IgnoreCase", "upper({0}) = upper({1})"),
     Between("Between", "{0} between {1} and {2}", 2),
+    NotIn("NotIn", "{0} not in {1}"),
+    In("In", "{0} in {1}"),
     IsNotNull("IsNotNull", "{0} IS NOT NULL", 0),
     IsNull("IsNull", "{0} IS NULL", 0);
 
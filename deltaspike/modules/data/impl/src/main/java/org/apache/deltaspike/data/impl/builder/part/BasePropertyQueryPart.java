@@ -39,9 +39,7 @@ abstract class BasePropertyQueryPart extends QueryPart
         }
         for (String property : name.split(SEPARATOR))
         {
-            PropertyQuery<?> query = PropertyQueries.createQuery(current)
-                    .addCriteria(new NamedPropertyCriteria(property));
-            Property<?> result = query.getFirstResult();
+            Property<?> result = findProperty(current, property);
             if (result == null)
             {
                 throw new MethodExpressionException(property, repo.getRepositoryClass(), method);
@@ -50,6 +48,21 @@ abstract class BasePropertyQueryPart extends QueryPart
         }
     }
 
+    boolean isProperty(String name, RepositoryComponent repo)
+    {
+        Class<?> current = repo.getEntityClass();
+        for (String property : name.split(SEPARATOR))
+        {
+            Property<?> result = findProperty(current, property);
+            if (result == null)
+            {
+                return false;
+            }
+            current = result.getJavaClass();
+        }
+        return true;
+    }
+
     String rewriteSeparator(String name)
     {
         if (name.contains("_"))
@@ -59,4 +72,11 @@ abstract class BasePropertyQueryPart extends QueryPart
         return name;
     }
 
+    private Property<?> findProperty(Class<?> type, String property)
+    {
+        PropertyQuery<?> query = PropertyQueries.createQuery(type)
+                .addCriteria(new NamedPropertyCriteria(property));
+        return query.getFirstResult();
+    }
+
 }
@@ -39,12 +39,18 @@ class PropertyQueryPart extends BasePropertyQueryPart
     {
         comparator = QueryOperator.Equal;
         name = uncapitalize(queryPart);
+        if (isProperty(name, repo))
+        {
+            // e.g. a loggedIn property must not be read as the In operator
+            name = rewriteSeparator(name);
+            return this;
+        }
         for (QueryOperator comp : QueryOperator.values())
         {
             if (queryPart.endsWith(comp.getExpression()))
             {
                 comparator = comp;
-                name = uncapitalize(queryPart.substring(0, queryPart.indexOf(comp.getExpression())));
+                name = uncapitalize(queryPart.substring(0, queryPart.length() - comp.getExpression().length()));
                 break;
             }
         }
@@ -19,8 +19,8 @@
 package org.apache.deltaspike.data.impl.builder.postprocessor;
 
 import static org.apache.deltaspike.data.impl.util.QueryUtils.isNotEmpty;
-import static org.apache.deltaspike.data.impl.util.QueryUtils.nullSafeValue;
 
+import java.util.Locale;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -28,108 +28,276 @@ import javax.persistence.Query;
 
 import org.apache.deltaspike.data.impl.handler.CdiQueryInvocationContext;
 import org.apache.deltaspike.data.impl.handler.JpaQueryPostProcessor;
+import org.apache.deltaspike.data.impl.meta.RepositoryMethod;
 import org.apache.deltaspike.data.impl.param.Parameters;
 import org.apache.deltaspike.data.impl.util.jpa.QueryStringExtractorFactory;
 
+/**
+ * Rewrites a query to count its result. The rewritten query is cached per source query
+ * in the {@link RepositoryMethod}.
+ * With a limit, the query selects a constant for at most limit rows instead of counting all of them,
+ * the number of returned rows is then the count up to the limit.
+ * <br/>
+ * A query grouped by a single expression counts the distinct values of this expression, so a group
+ * for null values isn't counted. Queries grouped by several expressions or with a having clause can't
+ * be rewritten, JPQL doesn't support subqueries in the from clause.
+ */
 public class CountQueryPostProcessor implements JpaQueryPostProcessor
 {
 
     private static final Logger log = Logger.getLogger(CountQueryPostProcessor.class.getName());
 
+    // key of the unprocessed query of a method, which is only known after extracting it from the JPA query
+    private static final String METHOD_QUERY_KEY = "";
+    private static final String LIMITED_KEY_PREFIX = "limited:";
+
     private final QueryStringExtractorFactory factory = new QueryStringExtractorFactory();
+    private final int limit;
+
+    public CountQueryPostProcessor()
+    {
+        this(0);
+    }
+
+    /**
+     * @param limit maximum number of rows to count, 0 for a full count.
+     */
+    public CountQueryPostProcessor(int limit)
+    {
+        this.limit = limit;
+    }
 
     @Override
     public Query postProcess(CdiQueryInvocationContext context, Query query)
     {
-        String queryString = getQueryString(context, query);
-        QueryExtraction extract = new QueryExtraction(queryString);
-        String count = extract.rewriteToCount();
-        log.log(Level.FINER, "Rewrote query {0} to {1}", new Object[] { queryString, count });
+        String count = getCountQuery(context, query);
         Query result = context.getEntityManager().createQuery(count);
         Parameters params = context.getParams();
         params.applyTo(result);
+        if (limit > 0)
+        {
+            result.setMaxResults(limit);
+        }
         return result;
     }
 
-    private String getQueryString(CdiQueryInvocationContext context, Query query)
+    private String getCountQuery(CdiQueryInvocationContext context, Query query)
     {
-        if (isNotEmpty(context.getQueryString()))
+        RepositoryMethod method = context.getRepositoryMethod();
+        String source = context.getQueryString();
+        String key = null;
+        if (isNotEmpty(source))
         {
-            return context.getQueryString();
+            key = source;
         }
-        return factory.extract(query);
+        else if (!context.hasQueryStringPostProcessors())
+        {
+            key = METHOD_QUERY_KEY;
+        }
+        if (key != null && limit > 0)
+        {
+            key = LIMITED_KEY_PREFIX + key;
+        }
+
+        String result = key != null ? method.getCountQuery(key) : null;
+        if (result == null)
+        {
+            String queryString = isNotEmpty(source) ? source : factory.extract(query);
+            result = rewrite(queryString, limit > 0);
+            log.log(Level.FINER, "Rewrote query {0} to {1}", new Object[] { queryString, result });
+            if (key != null)
+            {
+                method.putCountQuery(key, result);
+            }
+        }
+        return result;
+    }
+
+    static String rewrite(String query, boolean limited)
+    {
+        return new QueryExtraction(query).rewrite(limited);
     }
 
     private static class QueryExtraction
     {
 
+        private static final String SELECT = " select ";
+        private static final String DISTINCT = "distinct ";
+        private static final String FROM = " from ";
+        private static final String WHERE = " where ";
+        private static final String GROUP_BY = " group by ";
+        private static final String HAVING = " having ";
+        private static final String ORDER_BY = " order by ";
+        private static final String NEW = "new ";
+
+        private final String query;
+        private final String lower;
+
         private String select;
         private String from;
         private String where;
-
-        private String entityName;
-        private final String query;
+        private String groupBy;
+        private String alias;
+        private boolean distinct;
 
         public QueryExtraction(String query)
         {
-            this.query = query;
+            // padded so keywords at the start and end are surrounded by blanks, too
+            this.query = " " + query.trim() + " ";
+            this.lower = this.query.toLowerCase(Locale.ENGLISH).replaceAll("\\s", " ");
         }
 
-        public String rewriteToCount()
+        public String rewrite(boolean limited)
         {
             splitQuery();
-            extractEntityName();
-            return rewrite();
+            extractAlias();
+            StringBuilder result = new StringBuilder("select ");
+            String selection = isSingleSelection() ? select : alias;
+            if (groupBy != null)
+            {
+                // one row per group
+                distinct = true;
+                selection = groupBy;
+            }
+            if (limited)
+            {
+                result.append(distinct ? DISTINCT + selection : "1");
+            }
+            else
+            {
+                result.append("count(").append(distinct ? DISTINCT : "").append(selection).append(")");
+            }
+            return result.append(" ").append(from).append(where).toString().trim();
         }
 
-        private String rewrite()
+        private void splitQuery()
         {
-            return new StringBuilder()
-                    .append("select count(")
-                        .append(nullSafeValue(select, entityName))
-                    .append(") ")
-                    .append(from)
-                    .append(nullSafeValue(where))
-                    .toString();
+            int fromIndex = indexOfTopLevel(FROM, 0);
+            if (fromIndex < 0)
+            {
+                throw new IllegalArgumentException("Not able to rewrite query to a count query: " + query);
+            }
+            if (lower.startsWith(SELECT))
+            {
+                select = query.substring(SELECT.length(), fromIndex).trim();
+                if (select.toLowerCase(Locale.ENGLISH).startsWith(DISTINCT))
+                {
+                    distinct = true;
+                    select = select.substring(DISTINCT.length()).trim();
+                }
+            }
+            int orderByIndex = indexOfTopLevel(ORDER_BY, fromIndex);
+            int end = orderByIndex >= 0 ? orderByIndex : query.length();
+            int groupByIndex = indexOfTopLevel(GROUP_BY, fromIndex);
+            if (groupByIndex >= 0)
+            {
+                splitGroupBy(groupByIndex, end);
+                end = groupByIndex;
+            }
+            int fromEnd = firstIndex(indexOfTopLevel(WHERE, fromIndex), groupByIndex, end);
+            // fetch joins are not allowed without selecting the owner of the association
+            from = query.substring(fromIndex, fromEnd).trim().replaceAll("(?i)(\\bjoin)\\s+fetch\\b", "$1");
+            where = query.substring(fromEnd, end).replaceAll("\\s+$", "");
         }
 
-        private void extractEntityName()
+        private void splitGroupBy(int groupByIndex, int end)
         {
-            String[] split = from.split(" ");
-            if (split.length > 1)
+            if (indexOfTopLevel(HAVING, groupByIndex) >= 0)
             {
-                entityName = split[split.length - 1];
+                throw new IllegalArgumentException("Not able to rewrite a grouped query with a having clause "
+                        + "to a count query: " + query);
             }
-            else
+            groupBy = query.substring(groupByIndex + GROUP_BY.length(), end).trim();
+            if (containsTopLevelComma(groupBy))
             {
-                entityName = "*";
+                throw new IllegalArgumentException("Not able to rewrite a query grouped by several expressions "
+                        + "to a count query: " + query);
             }
         }
 
-        private void splitQuery()
+        private void extractAlias()
         {
-            String lower = query.toLowerCase();
-            int selectIndex = lower.indexOf("select");
-            int fromIndex = lower.indexOf("from");
-            int whereIndex = lower.indexOf("where");
-            int orderByIndex = lower.indexOf("order by");
-            if (selectIndex >= 0)
+            String[] tokens = from.split("\\s+");
+            int index = tokens.length > 2 && "as".equalsIgnoreCase(tokens[2]) ? 3 : 2;
+            if (tokens.length > index && !isKeyword(tokens[index]))
             {
-                select = query.substring("select".length(), fromIndex);
+                alias = tokens[index].replace(",", "");
             }
-            if (whereIndex >= 0)
+            else
+            {
+                alias = "*";
+            }
+        }
+
+        private boolean isSingleSelection()
+        {
+            return select != null && !select.toLowerCase(Locale.ENGLISH).startsWith(NEW)
+                    && !containsTopLevelComma(select);
+        }
+
+        private int indexOfTopLevel(String keyword, int start)
+        {
+            int depth = 0;
+            for (int i = start; i < lower.length(); i++)
             {
-                from = query.substring(fromIndex, whereIndex);
-                where = query.substring(whereIndex);
-                if (orderByIndex > 0)
+                char c = lower.charAt(i);
+                if (c == '(')
                 {
-                    where = where.substring(0, orderByIndex - whereIndex);
+                    depth++;
+                }
+                else if (c == ')')
+                {
+                    depth--;
+                }
+                else if (depth == 0 && lower.startsWith(keyword, i))
+                {
+                    return i;
                 }
             }
-            else
+            return -1;
+        }
+
+        private static int firstIndex(int first, int second, int end)
+        {
+            int result = end;
+            if (first >= 0 && first < result)
+            {
+                result = first;
+            }
+            if (second >= 0 && second < result)
             {
-                from = query.substring(fromIndex);
+                result = second;
             }
+            return result;
+        }
+
+        private static boolean containsTopLevelComma(String value)
+        {
+            int depth = 0;
+            for (int i = 0; i < value.length(); i++)
+            {
+                char c = value.charAt(i);
+                if (c == '(')
+                {
+                    depth++;
+                }
+                else if (c == ')')
+                {
+                    depth--;
+                }
+                else if (c == ',' && depth == 0)
+                {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private static boolean isKeyword(String token)
+        {
+            String lower = token.toLowerCase(Locale.ENGLISH);
+            return "join".equals(lower) || "left".equals(lower) || "inner".equals(lower)
+                    || "outer".equals(lower) || ",".equals(lower);
         }
 
     }
@@ -0,0 +1,191 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.deltaspike.data.impl.builder.postprocessor;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
+import org.apache.deltaspike.data.impl.builder.OrderDirection;
+import org.apache.deltaspike.data.impl.builder.QueryBuilder;
+import org.apache.deltaspike.data.impl.handler.QueryStringPostProcessor;
+import org.apache.deltaspike.data.impl.param.IndexedParameter;
+import org.apache.deltaspike.data.impl.param.NamedParameter;
+import org.apache.deltaspike.data.impl.param.Parameter;
+import org.apache.deltaspike.data.impl.param.Parameters;
+
+/**
+ * Restricts a query to the rows following a key, where the key consists of the values of the attributes
+ * the query is ordered by with {@link OrderByQueryStringPostProcessor}s (keyset pagination).
+ * For the order {@code a asc, b desc} the restriction is {@code (e.a > ?) or (e.a = ? and e.b < ?)}.
+ */
+public class KeysetQueryStringPostProcessor implements QueryStringPostProcessor
+{
+
+    private static final String KEY_PARAMETER_NAME = "deltaspikeKey";
+    private static final String WHERE = " where ";
+    private static final String GROUP_BY = " group by ";
+    private static final String ORDER_BY = " order by ";
+
+    private final List<QueryStringPostProcessor> processors;
+    private final List<String> placeholders;
+    private final List<Parameter> parameters;
+
+    /**
+     * @param processors the query string post processors of the query, the order is taken from them.
+     * @param params     the query parameters, used to decide between named and indexed key parameters.
+     * @param keyValues  the key values, one per order attribute.
+     */
+    public KeysetQueryStringPostProcessor(List<QueryStringPostProcessor> processors, Parameters params,
+            Object... keyValues)
+    {
+        this.processors = processors;
+        this.placeholders = new ArrayList<String>(keyValues.length);
+        List<Parameter> keyParameters = new ArrayList<Parameter>(keyValues.length);
+        boolean named = params.hasNamedParameters();
+        int index = params.nextIndex();
+        for (int i = 0; i < keyValues.length; i++)
+        {
+            if (named)
+            {
+                String name = KEY_PARAMETER_NAME + i;
+                placeholders.add(":" + name);
+                keyParameters.add(new NamedParameter(name, keyValues[i]));
+            }
+            else
+            {
+                placeholders.add("?" + (index + i));
+                keyParameters.add(new IndexedParameter(index + i, keyValues[i]));
+            }
+        }
+        this.parameters = Collections.unmodifiableList(keyParameters);
+    }
+
+    @Override
+    public String postProcess(String queryString)
+    {
+        String restriction = buildRestriction(collectOrder());
+        String lower = queryString.toLowerCase(Locale.ENGLISH).replaceAll("\\s", " ");
+        int end = indexOfTopLevel(lower, GROUP_BY);
+        if (end < 0)
+        {
+            end = indexOfTopLevel(lower, ORDER_BY);
+        }
+        if (end < 0)
+        {
+            end = queryString.length();
+        }
+        int where = indexOfTopLevel(lower, WHERE);
+
+        StringBuilder result = new StringBuilder(queryString.length() + restriction.length() + 16);
+        if (where >= 0 && where < end)
+        {
+            int condition = where + WHERE.length();
+            result.append(queryString, 0, condition)
+                    .append("(")
+                    .append(queryString, condition, end)
+                    .append(") and ");
+        }
+        else
+        {
+            result.append(queryString, 0, end).append(WHERE);
+        }
+        return result.append(restriction)
+                .append(queryString, end, queryString.length())
+                .toString();
+    }
+
+    /**
+     * The key parameters, which have to be bound to the query.
+     */
+    public List<Parameter> getParameters()
+    {
+        return parameters;
+    }
+
+    private List<OrderByQueryStringPostProcessor> collectOrder()
+    {
+        List<OrderByQueryStringPostProcessor> result = new ArrayList<OrderByQueryStringPostProcessor>();
+        for (QueryStringPostProcessor processor : processors)
+        {
+            if (processor instanceof OrderByQueryStringPostProcessor)
+            {
+                result.add((OrderByQueryStringPostProcessor) processor);
+            }
+        }
+        if (result.size() != placeholders.size())
+        {
+            throw new IllegalStateException("Keyset pagination requires one key value per order attribute, but got "
+                    + placeholders.size() + " values for " + result.size() + " order attributes");
+        }
+        return result;
+    }
+
+    private String buildRestriction(List<OrderByQueryStringPostProcessor> order)
+    {
+        StringBuilder result = new StringBuilder("(");
+        for (int i = 0; i < order.size(); i++)
+        {
+            if (i > 0)
+            {
+                result.append(" or ");
+            }
+            result.append("(");
+            for (int j = 0; j < i; j++)
+            {
+                appendAttribute(result, order.get(j)).append(" = ").append(placeholders.get(j)).append(" and ");
+            }
+            OrderByQueryStringPostProcessor orderBy = order.get(i);
+            appendAttribute(result, orderBy)
+                    .append(orderBy.getDirection() == OrderDirection.ASC ? " > " : " < ")
+                    .append(placeholders.get(i))
+                    .append(")");
+        }
+        return result.append(")").toString();
+    }
+
+    private StringBuilder appendAttribute(StringBuilder builder, OrderByQueryStringPostProcessor orderBy)
+    {
+        return builder.append(QueryBuilder.ENTITY_NAME).append(".").append(orderBy.getAttribute());
+    }
+
+    private static int indexOfTopLevel(String query, String keyword)
+    {
+        int depth = 0;
+        for (int i = 0; i < query.length(); i++)
+        {
+            char c = query.charAt(i);
+            if (c == '(')
+            {
+                depth++;
+            }
+            else if (c == ')')
+            {
+                depth--;
+            }
+            else if (depth == 0 && query.startsWith(keyword, i))
+            {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+}
@@ -72,6 +72,16 @@ public class OrderByQueryStringPostProcessor implements QueryStringPostProcessor
         return this.attribute.equals(attribute);
     }
 
+    public String getAttribute()
+    {
+        return attribute;
+    }
+
+    public OrderDirection getDirection()
+    {
+        return direction;
+    }
+
     public void changeDirection()
     {
         direction = direction.change();
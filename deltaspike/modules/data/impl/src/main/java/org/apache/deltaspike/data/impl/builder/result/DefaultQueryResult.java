@@ -34,11 +34,14 @@ import org.apache.deltaspike.data.impl.builder.postprocessor.CountQueryPostProce
 import org.apache.deltaspike.data.impl.builder.postprocessor.FirstResultPostProcessor;
 import org.apache.deltaspike.data.impl.builder.postprocessor.FlushModePostProcessor;
 import org.apache.deltaspike.data.impl.builder.postprocessor.HintPostProcessor;
+import org.apache.deltaspike.data.impl.builder.postprocessor.KeysetQueryStringPostProcessor;
 import org.apache.deltaspike.data.impl.builder.postprocessor.LockModePostProcessor;
 import org.apache.deltaspike.data.impl.builder.postprocessor.MaxResultPostProcessor;
 import org.apache.deltaspike.data.impl.builder.postprocessor.OrderByQueryStringPostProcessor;
 import org.apache.deltaspike.data.impl.handler.CdiQueryInvocationContext;
 import org.apache.deltaspike.data.impl.handler.QueryStringPostProcessor;
+import org.apache.deltaspike.data.impl.param.Parameter;
+import org.apache.deltaspike.data.impl.param.Parameters;
 
 public class DefaultQueryResult<T> implements QueryResult<T>
 {
@@ -48,6 +51,7 @@ public class DefaultQueryResult<T> implements QueryResult<T>
 
     private int page = 0;
     private int pageSize = 10;
+    private KeysetQueryStringPostProcessor keyset;
 
     public DefaultQueryResult(QueryBuilder builder, CdiQueryInvocationContext context)
     {
@@ -151,6 +155,27 @@ public class DefaultQueryResult<T> implements QueryResult<T>
         return this;
     }
 
+    @Override
+    public QueryResult<T> afterKey(Object... keyValues)
+    {
+        Parameters params = context.getParams();
+        if (keyset != null)
+        {
+            context.getQueryStringPostProcessors().remove(keyset);
+            for (Parameter parameter : keyset.getParameters())
+            {
+                params.remove(parameter);
+            }
+        }
+        keyset = new KeysetQueryStringPostProcessor(context.getQueryStringPostProcessors(), params, keyValues);
+        context.addQueryStringPostProcessor(keyset);
+        for (Parameter parameter : keyset.getParameters())
+        {
+            params.add(parameter);
+        }
+        return this;
+    }
+
     @Override
     public QueryResult<T> lockMode(LockModeType lockMode)
     {
@@ -230,6 +255,25 @@ public class DefaultQueryResult<T> implements QueryResult<T>
         }
     }
 
+    @Override
+    public long count(int limit)
+    {
+        if (limit <= 0)
+        {
+            throw new IllegalArgumentException("Count limit must be positive, was " + limit);
+        }
+        CountQueryPostProcessor counter = new CountQueryPostProcessor(limit);
+        context.addJpaQueryPostProcessor(counter);
+        try
+        {
+            return ((Query) builder.executeQuery(context)).getResultList().size();
+        }
+        finally
+        {
+            context.removeJpaQueryPostProcessor(counter);
+        }
+    }
+
     @Override
     public QueryResult<T> withPageSize(int pageSize)
     {
@@ -0,0 +1,128 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.deltaspike.data.impl.builder.result;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import javax.persistence.EntityManager;
+
+import org.apache.deltaspike.data.api.ResultStream;
+import org.apache.deltaspike.data.impl.util.jpa.ResultCursor;
+
+/**
+ * {@link ResultStream} reading from a {@link ResultCursor}. Optionally clears the entity manager
+ * each time a chunk of rows has been read.
+ */
+class DefaultResultStream<E> implements ResultStream<E>
+{
+
+    private final ResultCursor cursor;
+    private final EntityManager entityManager;
+    private final int chunkSize;
+    private final boolean clearEntityManager;
+
+    private boolean iterated;
+    private boolean closed;
+
+    DefaultResultStream(ResultCursor cursor, EntityManager entityManager, int chunkSize, boolean clearEntityManager)
+    {
+        this.cursor = cursor;
+        this.entityManager = entityManager;
+        this.chunkSize = chunkSize;
+        this.clearEntityManager = clearEntityManager;
+    }
+
+    @Override
+    public Iterator<E> iterator()
+    {
+        if (iterated || closed)
+        {
+            throw new IllegalStateException("The result stream can only be iterated once");
+        }
+        iterated = true;
+        return new ResultStreamIterator();
+    }
+
+    @Override
+    public void close()
+    {
+        if (!closed)
+        {
+            closed = true;
+            cursor.close();
+        }
+    }
+
+    private class ResultStreamIterator implements Iterator<E>
+    {
+        private int read;
+        private boolean fetched;
+        private boolean hasNext;
+
+        @Override
+        public boolean hasNext()
+        {
+            if (!fetched)
+            {
+                hasNext = fetchNext();
+                fetched = true;
+            }
+            return hasNext;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public E next()
+        {
+            if (!hasNext())
+            {
+                throw new NoSuchElementException();
+            }
+            fetched = false;
+            read++;
+            return (E) cursor.get();
+        }
+
+        @Override
+        public void remove()
+        {
+            throw new UnsupportedOperationException();
+        }
+
+        private boolean fetchNext()
+        {
+            if (closed)
+            {
+                return false;
+            }
+            if (clearEntityManager && read > 0 && read % chunkSize == 0)
+            {
+                entityManager.clear();
+            }
+            if (!cursor.next())
+            {
+                close();
+                return false;
+            }
+            return true;
+        }
+    }
+
+}
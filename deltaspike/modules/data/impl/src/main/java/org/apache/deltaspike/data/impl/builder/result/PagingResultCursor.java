@@ -0,0 +1,97 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.deltaspike.data.impl.builder.result;
+
+import java.util.Iterator;
+import java.util.List;
+
+import javax.persistence.Query;
+
+import org.apache.deltaspike.data.impl.util.jpa.ResultCursor;
+
+/**
+ * Reads the result of a query page by page with {@link Query#setFirstResult(int)} and
+ * {@link Query#setMaxResults(int)}. Limits already set on the query are respected.
+ */
+class PagingResultCursor implements ResultCursor
+{
+
+    private final Query query;
+    private final int chunkSize;
+    private final int maxResults;
+
+    private int nextFirstResult;
+    private int read;
+    private boolean lastPage;
+    private Iterator<?> page;
+    private Object current;
+
+    PagingResultCursor(Query query, int chunkSize)
+    {
+        this.query = query;
+        this.chunkSize = chunkSize;
+        this.maxResults = query.getMaxResults();
+        this.nextFirstResult = query.getFirstResult();
+    }
+
+    @Override
+    public boolean next()
+    {
+        if ((page == null || !page.hasNext()) && !fetchPage())
+        {
+            current = null;
+            return false;
+        }
+        current = page.next();
+        read++;
+        return true;
+    }
+
+    @Override
+    public Object get()
+    {
+        return current;
+    }
+
+    @Override
+    public void close()
+    {
+        lastPage = true;
+        page = null;
+        current = null;
+    }
+
+    private boolean fetchPage()
+    {
+        int remaining = maxResults - read;
+        if (lastPage || remaining <= 0)
+        {
+            return false;
+        }
+        int pageSize = Math.min(chunkSize, remaining);
+        query.setFirstResult(nextFirstResult);
+        query.setMaxResults(pageSize);
+        List<?> result = query.getResultList();
+        nextFirstResult += result.size();
+        lastPage = result.size() < pageSize;
+        page = result.iterator();
+        return page.hasNext();
+    }
+
+}
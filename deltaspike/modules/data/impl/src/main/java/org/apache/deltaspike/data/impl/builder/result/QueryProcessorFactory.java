@@ -20,18 +20,30 @@ package org.apache.deltaspike.data.impl.builder.result;
 
 import java.lang.reflect.Method;
 import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.regex.Pattern;
 
 import javax.persistence.NoResultException;
 import javax.persistence.Query;
 
 import org.apache.deltaspike.data.api.Modifying;
 import org.apache.deltaspike.data.api.QueryResult;
+import org.apache.deltaspike.data.api.ResultStream;
 import org.apache.deltaspike.data.api.SingleResultType;
+import org.apache.deltaspike.data.api.StreamingResult;
 import org.apache.deltaspike.data.impl.handler.CdiQueryInvocationContext;
+import org.apache.deltaspike.data.impl.util.jpa.QueryStringExtractorFactory;
+import org.apache.deltaspike.data.impl.util.jpa.ResultCursor;
+import org.apache.deltaspike.data.impl.util.jpa.ResultScrollerFactory;
 
 public final class QueryProcessorFactory
 {
 
+    private static final Logger log = Logger.getLogger(QueryProcessorFactory.class.getName());
+
+    private static final Pattern ORDER_BY = Pattern.compile("\\border\\s+by\\b", Pattern.CASE_INSENSITIVE);
+
     private final Method method;
 
     private QueryProcessorFactory(Method method)
@@ -46,10 +58,20 @@ public final class QueryProcessorFactory
 
     public QueryProcessor build()
     {
+        if (method.isAnnotationPresent(StreamingResult.class) && !isStreaming())
+        {
+            throw new IllegalStateException("@" + StreamingResult.class.getSimpleName() + " requires "
+                    + ResultStream.class.getSimpleName() + " or Iterable as return type, but " + method
+                    + " returns " + method.getReturnType().getName());
+        }
         if (returns(QueryResult.class))
         {
             return new NoOpQueryProcessor();
         }
+        if (isStreaming())
+        {
+            return new StreamingQueryProcessor(method.getAnnotation(StreamingResult.class));
+        }
         if (returns(List.class))
         {
             return new ListQueryProcessor();
@@ -69,11 +91,24 @@ public final class QueryProcessorFactory
         return method.isAnnotationPresent(Modifying.class) && matchesType;
     }
 
+    // a plain Iterable is only streamed if it is requested explicitly - the caller can't close it
+    private boolean isStreaming()
+    {
+        Class<?> returnType = method.getReturnType();
+        return ResultStream.class.equals(returnType) ||
+                (Iterable.class.equals(returnType) && method.isAnnotationPresent(StreamingResult.class));
+    }
+
     private boolean returns(Class<?> clazz)
     {
         return method.getReturnType().isAssignableFrom(clazz);
     }
 
+    static boolean isOrdered(String queryString)
+    {
+        return ORDER_BY.matcher(queryString).find();
+    }
+
     private static final class ListQueryProcessor implements QueryProcessor
     {
         @Override
@@ -92,6 +127,62 @@ public final class QueryProcessorFactory
         }
     }
 
+    private static final class StreamingQueryProcessor implements QueryProcessor
+    {
+        private static final int DEFAULT_CHUNK_SIZE = 1000;
+
+        private final ResultScrollerFactory scrollerFactory = new ResultScrollerFactory();
+        private final QueryStringExtractorFactory extractorFactory = new QueryStringExtractorFactory();
+        private final int chunkSize;
+        private final boolean clearEntityManager;
+
+        private volatile boolean unverifiedOrderLogged;
+
+        private StreamingQueryProcessor(StreamingResult config)
+        {
+            this.chunkSize = config != null && config.chunkSize() > 0 ? config.chunkSize() : DEFAULT_CHUNK_SIZE;
+            this.clearEntityManager = config != null && config.clearEntityManager();
+        }
+
+        @Override
+        public Object executeQuery(Query query, CdiQueryInvocationContext context)
+        {
+            ResultCursor cursor = scrollerFactory.scroll(query, chunkSize);
+            if (cursor == null)
+            {
+                checkOrdered(query, context);
+                cursor = new PagingResultCursor(query, chunkSize);
+            }
+            return new DefaultResultStream<Object>(cursor, context.getEntityManager(), chunkSize, clearEntityManager);
+        }
+
+        // the result is read page by page - without a stable order rows might be skipped or read twice
+        private void checkOrdered(Query query, CdiQueryInvocationContext context)
+        {
+            String queryString;
+            try
+            {
+                queryString = extractorFactory.extract(query);
+            }
+            catch (RuntimeException e)
+            {
+                if (!unverifiedOrderLogged)
+                {
+                    unverifiedOrderLogged = true;
+                    log.log(Level.WARNING, "Streaming the result of {0} page by page, but not able to verify "
+                            + "that the query is ordered", context.getMethod());
+                }
+                return;
+            }
+            if (!isOrdered(queryString))
+            {
+                throw new IllegalStateException("Streaming the result of " + context.getMethod() + " page by page "
+                        + "requires a query with an ORDER BY, otherwise rows might be skipped or read twice: "
+                        + queryString);
+            }
+        }
+    }
+
     private static final class SingleResultQueryProcessor implements QueryProcessor
     {
         @Override
@@ -57,6 +57,7 @@ import org.apache.deltaspike.data.impl.criteria.predicate.IsNotEmpty;
 import org.apache.deltaspike.data.impl.criteria.predicate.IsNotNull;
 import org.apache.deltaspike.data.impl.criteria.predicate.IsNull;
 import org.apache.deltaspike.data.impl.criteria.predicate.JoinBuilder;
+import org.apache.deltaspike.data.impl.criteria.predicate.KeysetBuilder;
 import org.apache.deltaspike.data.impl.criteria.predicate.LessThan;
 import org.apache.deltaspike.data.impl.criteria.predicate.LessThanOrEqual;
 import org.apache.deltaspike.data.impl.criteria.predicate.Like;
@@ -78,6 +79,7 @@ public class QueryCriteria<C, R> implements Criteria<C, R>
     private JoinType joinType;
     private final boolean ignoreNull = true;
     private boolean distinct = false;
+    private Object[] keyValues;
 
     private final List<PredicateBuilder<C>> builders = new LinkedList<PredicateBuilder<C>>();
     private final List<QueryProcessor<C>> processors = new LinkedList<QueryProcessor<C>>();
@@ -145,6 +147,10 @@ public class QueryCriteria<C, R> implements Criteria<C, R>
                 query.multiselect(prepareSelections(query, builder, root));
             }
             List<Predicate> predicates = predicates(builder, root);
+            if (keyValues != null)
+            {
+                predicates.addAll(new KeysetBuilder<C>(orderBy(), keyValues).build(builder, root));
+            }
             query.distinct(distinct);
             if (!predicates.isEmpty())
             {
@@ -250,6 +256,13 @@ public class QueryCriteria<C, R> implements Criteria<C, R>
         return this;
     }
 
+    @Override
+    public Criteria<C, R> afterKey(Object... keyValues)
+    {
+        this.keyValues = keyValues;
+        return this;
+    }
+
     @Override
     public Criteria<C, R> distinct()
     {
@@ -263,6 +276,7 @@ public class QueryCriteria<C, R> implements Criteria<C, R>
         QueryCriteria<C, N> result = new QueryCriteria<C, N>(entityClass, resultClass, entityManager, joinType);
         result.builders.addAll(this.builders);
         result.distinct = this.distinct;
+        result.keyValues = this.keyValues;
         result.processors.addAll(this.processors);
         result.selections.addAll(Arrays.asList(selection));
         return result;
@@ -333,6 +347,20 @@ public class QueryCriteria<C, R> implements Criteria<C, R>
         processors.add(proc);
     }
 
+    @SuppressWarnings("unchecked")
+    private List<OrderBy<C, ?>> orderBy()
+    {
+        List<OrderBy<C, ?>> result = new ArrayList<OrderBy<C, ?>>();
+        for (QueryProcessor<C> processor : processors)
+        {
+            if (processor instanceof OrderBy)
+            {
+                result.add((OrderBy<C, ?>) processor);
+            }
+        }
+        return result;
+    }
+
     private Selection<?>[] prepareSelections(CriteriaQuery<?> query, CriteriaBuilder builder, From<C, C> root)
     {
         List<Selection<?>> result = new ArrayList<Selection<?>>(selections.size());
@@ -0,0 +1,84 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.deltaspike.data.impl.criteria.predicate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.Expression;
+import javax.persistence.criteria.Path;
+import javax.persistence.criteria.Predicate;
+
+import org.apache.deltaspike.data.impl.builder.OrderDirection;
+import org.apache.deltaspike.data.impl.criteria.processor.OrderBy;
+
+/**
+ * Restricts the query to the rows following a key, where the key consists of the values of the
+ * order attributes (keyset pagination). For the order {@code a asc, b desc} the restriction
+ * is {@code (a > ?) or (a = ? and b < ?)}.
+ */
+public class KeysetBuilder<P> implements PredicateBuilder<P>
+{
+
+    private final List<OrderBy<P, ?>> order;
+    private final Object[] keyValues;
+
+    public KeysetBuilder(List<OrderBy<P, ?>> order, Object[] keyValues)
+    {
+        if (order.size() != keyValues.length)
+        {
+            throw new IllegalStateException("Keyset pagination requires one key value per order attribute, but got "
+                    + keyValues.length + " values for " + order.size() + " order attributes");
+        }
+        this.order = order;
+        this.keyValues = keyValues;
+    }
+
+    @Override
+    public List<Predicate> build(CriteriaBuilder builder, Path<P> path)
+    {
+        List<Predicate> alternatives = new ArrayList<Predicate>(order.size());
+        for (int i = 0; i < order.size(); i++)
+        {
+            List<Predicate> conjunction = new ArrayList<Predicate>(i + 1);
+            for (int j = 0; j < i; j++)
+            {
+                conjunction.add(builder.equal(path.get(order.get(j).getAttribute()), keyValues[j]));
+            }
+            conjunction.add(follows(builder, path, order.get(i), keyValues[i]));
+            alternatives.add(builder.and(conjunction.toArray(new Predicate[conjunction.size()])));
+        }
+        return Arrays.asList(builder.or(alternatives.toArray(new Predicate[alternatives.size()])));
+    }
+
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    private Predicate follows(CriteriaBuilder builder, Path<P> path, OrderBy<P, ?> orderBy, Object value)
+    {
+        Expression attribute = path.get(orderBy.getAttribute());
+        Comparable comparable = (Comparable) value;
+        if (orderBy.getDirection() == OrderDirection.ASC)
+        {
+            return builder.greaterThan(attribute, comparable);
+        }
+        return builder.lessThan(attribute, comparable);
+    }
+
+}
@@ -24,16 +24,23 @@ import static org.apache.deltaspike.data.impl.util.QueryUtils.isString;
 
 import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
 import javax.inject.Inject;
 import javax.persistence.EntityManager;
+import javax.persistence.PersistenceUnitUtil;
 import javax.persistence.TypedQuery;
 import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.metamodel.EntityType;
 import javax.persistence.metamodel.SingularAttribute;
+import javax.persistence.metamodel.Type.PersistenceType;
 
 import org.apache.deltaspike.data.api.EntityRepository;
 import org.apache.deltaspike.data.impl.builder.QueryBuilder;
@@ -42,7 +49,6 @@ import org.apache.deltaspike.data.impl.property.Property;
 import org.apache.deltaspike.data.impl.property.query.NamedPropertyCriteria;
 import org.apache.deltaspike.data.impl.property.query.PropertyQueries;
 import org.apache.deltaspike.data.spi.DelegateQueryHandler;
-import org.apache.deltaspike.data.spi.QueryInvocationContext;
 
 /**
  * Implement basic functionality from the {@link EntityRepository}.
@@ -54,10 +60,16 @@ public class EntityRepositoryHandler<E, PK extends Serializable>
         implements EntityRepository<E, PK>, DelegateQueryHandler
 {
 
+    /**
+     * Keeps {@code in} lists well below common database limits (e.g. 1000 expressions on Oracle,
+     * 2100 parameters on SQL Server).
+     */
+    static final int MAX_IDS_PER_QUERY = 500;
+
     private static final Logger log = Logger.getLogger(EntityRepositoryHandler.class.getName());
 
     @Inject
-    private QueryInvocationContext context;
+    private CdiQueryInvocationContext context;
 
     @Override
     @RequiresTransaction
@@ -102,6 +114,52 @@ public class EntityRepositoryHandler<E, PK extends Serializable>
         return entityManager().find(entityClass(), primaryKey);
     }
 
+    @Override
+    public List<E> findByIds(Collection<PK> primaryKeys)
+    {
+        List<PK> keys = new ArrayList<PK>(new LinkedHashSet<PK>(primaryKeys));
+        keys.remove(null);
+        Map<Object, E> entities = new HashMap<Object, E>(keys.size() * 4 / 3 + 1);
+        String idAttribute = idAttributeName();
+        if (idAttribute == null)
+        {
+            for (PK key : keys)
+            {
+                E entity = findBy(key);
+                if (entity != null)
+                {
+                    entities.put(key, entity);
+                }
+            }
+        }
+        else
+        {
+            String jpqlQuery = allQuery() + " where e." + idAttribute + " in :ids";
+            PersistenceUnitUtil util = entityManager().getEntityManagerFactory().getPersistenceUnitUtil();
+            for (int start = 0; start < keys.size(); start += MAX_IDS_PER_QUERY)
+            {
+                List<PK> chunk = keys.subList(start, Math.min(start + MAX_IDS_PER_QUERY, keys.size()));
+                List<E> result = entityManager().createQuery(jpqlQuery, entityClass())
+                        .setParameter("ids", chunk)
+                        .getResultList();
+                for (E entity : result)
+                {
+                    entities.put(util.getIdentifier(entity), entity);
+                }
+            }
+        }
+        List<E> result = new ArrayList<E>(keys.size());
+        for (PK key : primaryKeys)
+        {
+            E entity = entities.get(key);
+            if (entity != null)
+            {
+                result.add(entity);
+            }
+        }
+        return result;
+    }
+
     @Override
     public List<E> findBy(E example, SingularAttribute<E, ?>... attributes)
     {
@@ -180,6 +238,52 @@ public class EntityRepositoryHandler<E, PK extends Serializable>
         flush();
     }
 
+    @Override
+    @RequiresTransaction
+    public int saveAll(Iterable<E> entities)
+    {
+        int batchSize = batchSize();
+        int count = 0;
+        for (E entity : entities)
+        {
+            save(entity);
+            count++;
+            flushBatch(count, batchSize);
+        }
+        return flushRemaining(count, batchSize);
+    }
+
+    @Override
+    @RequiresTransaction
+    public int persistAll(Iterable<E> entities)
+    {
+        int batchSize = batchSize();
+        int count = 0;
+        for (E entity : entities)
+        {
+            entityManager().persist(entity);
+            count++;
+            flushBatch(count, batchSize);
+        }
+        return flushRemaining(count, batchSize);
+    }
+
+    @Override
+    @RequiresTransaction
+    public int removeAll(Iterable<E> entities)
+    {
+        int batchSize = batchSize();
+        int count = 0;
+        for (E entity : entities)
+        {
+            EntityManager entityManager = entityManager();
+            entityManager.remove(entityManager.contains(entity) ? entity : entityManager.merge(entity));
+            count++;
+            flushBatch(count, batchSize);
+        }
+        return flushRemaining(count, batchSize);
+    }
+
     @Override
     @RequiresTransaction
     public void flush()
@@ -212,6 +316,51 @@ public class EntityRepositoryHandler<E, PK extends Serializable>
     // PRIVATE
     // ----------------------------------------------------------------------------
 
+    private int batchSize()
+    {
+        return context.getRepositoryMethod().getRepository().getEntityManagerBatchSize();
+    }
+
+    private void flushBatch(int count, int batchSize)
+    {
+        if (count % batchSize == 0)
+        {
+            log.log(Level.FINER, "Flushing and clearing after {0} entities", count);
+            EntityManager entityManager = entityManager();
+            entityManager.flush();
+            entityManager.clear();
+        }
+    }
+
+    private int flushRemaining(int count, int batchSize)
+    {
+        if (count % batchSize != 0)
+        {
+            entityManager().flush();
+        }
+        return count;
+    }
+
+    /**
+     * Name of the id attribute if it can be used in an {@code in} query, null for composite keys.
+     */
+    private String idAttributeName()
+    {
+        EntityType<E> type = entityManager().getMetamodel().entity(entityClass());
+        if (!type.hasSingleIdAttribute() || type.getIdType().getPersistenceType() != PersistenceType.BASIC)
+        {
+            return null;
+        }
+        for (SingularAttribute<? super E, ?> attribute : type.getSingularAttributes())
+        {
+            if (attribute.isId())
+            {
+                return attribute.getName();
+            }
+        }
+        return null;
+    }
+
     private String allQuery()
     {
         return QueryBuilder.selectQuery(entityName(entityClass()));
@@ -34,6 +34,7 @@ import javax.enterprise.inject.spi.Bean;
 import javax.enterprise.inject.spi.BeanManager;
 import javax.persistence.FlushModeType;
 
+import org.apache.deltaspike.core.api.config.ConfigResolver;
 import org.apache.deltaspike.core.api.provider.BeanManagerProvider;
 import org.apache.deltaspike.data.api.EntityManagerConfig;
 import org.apache.deltaspike.data.api.EntityManagerResolver;
@@ -52,6 +53,9 @@ import org.apache.deltaspike.data.impl.util.EntityUtils;
 public class RepositoryComponent
 {
 
+    public static final String BATCH_SIZE_KEY = "deltaspike.data.batch_size";
+    public static final int DEFAULT_BATCH_SIZE = 50;
+
     private static final Logger log = Logger.getLogger(RepositoryComponent.class.getName());
 
     private volatile Boolean entityManagerResolverIsNormalScope;
@@ -60,6 +64,7 @@ public class RepositoryComponent
     private final RepositoryEntity entityClass;
     private final Class<? extends EntityManagerResolver> entityManagerResolver;
     private final FlushModeType entityManagerFlushMode;
+    private final int entityManagerBatchSize;
 
     private final Map<Method, RepositoryMethod> methods = new HashMap<Method, RepositoryMethod>();
 
@@ -73,6 +78,7 @@ public class RepositoryComponent
         this.entityClass = entityClass;
         this.entityManagerResolver = extractEntityManagerResolver(repoClass);
         this.entityManagerFlushMode = extractEntityManagerFlushMode(repoClass);
+        this.entityManagerBatchSize = extractEntityManagerBatchSize(repoClass);
     }
 
     //don't trigger this lookup during ProcessAnnotatedType
@@ -187,6 +193,36 @@ public class RepositoryComponent
         return entityManagerFlushMode;
     }
 
+    /**
+     * Number of entities after which batch operations flush and clear the EntityManager.
+     * Taken from {@link EntityManagerConfig#batchSize()} or the {@value #BATCH_SIZE_KEY}
+     * config entry.
+     */
+    public int getEntityManagerBatchSize()
+    {
+        if (entityManagerBatchSize > 0)
+        {
+            return entityManagerBatchSize;
+        }
+        String configured = ConfigResolver.getPropertyValue(BATCH_SIZE_KEY);
+        if (configured != null)
+        {
+            try
+            {
+                int batchSize = Integer.parseInt(configured.trim());
+                if (batchSize > 0)
+                {
+                    return batchSize;
+                }
+            }
+            catch (NumberFormatException e)
+            {
+                log.log(Level.WARNING, "Ignoring invalid {0} value {1}", new Object[] { BATCH_SIZE_KEY, configured });
+            }
+        }
+        return DEFAULT_BATCH_SIZE;
+    }
+
     private void initialize()
     {
         Collection<Class<?>> allImplemented = collectClasses();
@@ -239,6 +275,16 @@ public class RepositoryComponent
         return null;
     }
 
+    private int extractEntityManagerBatchSize(Class<?> clazz)
+    {
+        EntityManagerConfig config = extractEntityManagerConfig(clazz);
+        if (config != null)
+        {
+            return config.batchSize();
+        }
+        return 0;
+    }
+
     private EntityManagerConfig extractEntityManagerConfig(Class<?> clazz)
     {
         if (clazz.isAnnotationPresent(EntityManagerConfig.class))
@@ -24,6 +24,8 @@ import java.lang.annotation.Annotation;
 import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import javax.enterprise.inject.spi.Bean;
 import javax.enterprise.inject.spi.BeanManager;
@@ -51,11 +53,14 @@ import org.apache.deltaspike.data.impl.util.bean.DependentProviderDestroyable;
  * <li>Whether this method delegates, is annotated or is parsed</li>
  * <li>A reference to the parent Repository</li>
  * <li>For parsed Repository methods, also the JPQL string is cached</li>
+ * <li>The count queries derived from the query of this method</li>
  * </ul>
  */
 public class RepositoryMethod
 {
 
+    private static final int MAX_CACHED_COUNT_QUERIES = 64;
+
     private final Method method;
     private final MethodType methodType;
     private final MethodPrefix methodPrefix;
@@ -63,6 +68,7 @@ public class RepositoryMethod
     private final QueryRoot queryRoot;
     private final QueryProcessor queryProcessor;
     private final Class<? extends QueryInOutMapper> mapper;
+    private final ConcurrentMap<String, String> countQueries = new ConcurrentHashMap<String, String>();
 
     private volatile Boolean queryInOutMapperIsNormalScope;
 
@@ -218,6 +224,23 @@ public class RepositoryMethod
         return queryProcessor;
     }
 
+    /**
+     * Returns the cached count query for the given query string, or null.
+     */
+    public String getCountQuery(String queryString)
+    {
+        return countQueries.get(queryString);
+    }
+
+    public void putCountQuery(String queryString, String countQuery)
+    {
+        // the query strings depend on the dynamic query options, don't let them grow without bounds
+        if (countQueries.size() < MAX_CACHED_COUNT_QUERIES)
+        {
+            countQueries.putIfAbsent(queryString, countQuery);
+        }
+    }
+
     public boolean hasQueryInOutMapper()
     {
         return mapper != null;
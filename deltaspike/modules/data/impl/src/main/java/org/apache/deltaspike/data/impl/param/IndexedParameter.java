@@ -40,6 +40,11 @@ public class IndexedParameter extends Parameter
         query.setParameter(index, queryValue());
     }
 
+    public int getIndex()
+    {
+        return index;
+    }
+
     @Override
     public boolean is(String ident)
     {
@@ -21,7 +21,6 @@ package org.apache.deltaspike.data.impl.param;
 import java.lang.annotation.Annotation;
 import java.lang.reflect.Method;
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.List;
 import java.util.logging.Level;
 import java.util.logging.Logger;
@@ -57,8 +56,7 @@ public final class Parameters
 
     public static Parameters createEmpty()
     {
-        List<Parameter> empty = Collections.emptyList();
-        return new Parameters(empty, DEFAULT_MAX, DEFAULT_FIRST);
+        return new Parameters(new ArrayList<Parameter>(), DEFAULT_MAX, DEFAULT_FIRST);
     }
 
     public static Parameters create(Method method, Object[] parameters)
@@ -113,6 +111,44 @@ public final class Parameters
         }
     }
 
+    public void add(Parameter parameter)
+    {
+        parameterList.add(parameter);
+    }
+
+    public void remove(Parameter parameter)
+    {
+        parameterList.remove(parameter);
+    }
+
+    public boolean hasNamedParameters()
+    {
+        for (Parameter param : parameterList)
+        {
+            if (param instanceof NamedParameter)
+            {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns the index following the highest index of the {@link IndexedParameter}s.
+     */
+    public int nextIndex()
+    {
+        int result = 1;
+        for (Parameter param : parameterList)
+        {
+            if (param instanceof IndexedParameter)
+            {
+                result = Math.max(result, ((IndexedParameter) param).getIndex() + 1);
+            }
+        }
+        return result;
+    }
+
     public Query applyTo(Query query)
     {
         for (Parameter param : parameterList)
@@ -76,7 +76,6 @@ class FieldPropertyImpl<V> implements FieldProperty<V>
     @Override
     public void setValue(Object instance, V value)
     {
-        setAccessible();
         Reflections.setFieldValue(true, field, instance, value);
     }
 
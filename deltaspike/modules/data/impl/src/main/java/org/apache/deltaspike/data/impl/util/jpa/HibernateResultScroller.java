@@ -0,0 +1,104 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.deltaspike.data.impl.util.jpa;
+
+import java.lang.reflect.Method;
+
+/**
+ * Uses a forward only {@code ScrollableResults} of Hibernate.
+ */
+@ProviderSpecific("org.hibernate.Query")
+public class HibernateResultScroller implements ResultScroller
+{
+
+    private static final String QUERY_CLASS = "org.hibernate.Query";
+    private static final String SCROLL_MODE_CLASS = "org.hibernate.ScrollMode";
+    private static final String SCROLLABLE_RESULTS_CLASS = "org.hibernate.ScrollableResults";
+
+    @Override
+    public ResultCursor scroll(Object query, int fetchSize)
+    {
+        try
+        {
+            Class<?> queryClass = Class.forName(QUERY_CLASS);
+            Class<?> scrollModeClass = Class.forName(SCROLL_MODE_CLASS);
+            Class<?> scrollableResultsClass = Class.forName(SCROLLABLE_RESULTS_CLASS);
+
+            queryClass.getMethod("setFetchSize", int.class).invoke(query, fetchSize);
+            Object forwardOnly = scrollModeClass.getField("FORWARD_ONLY").get(null);
+            Object results = queryClass.getMethod("scroll", scrollModeClass).invoke(query, forwardOnly);
+            return new HibernateResultCursor(results,
+                    scrollableResultsClass.getMethod("next"),
+                    scrollableResultsClass.getMethod("get"),
+                    scrollableResultsClass.getMethod("close"));
+        }
+        catch (Exception e)
+        {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private static final class HibernateResultCursor implements ResultCursor
+    {
+        private final Object results;
+        private final Method next;
+        private final Method get;
+        private final Method close;
+
+        private HibernateResultCursor(Object results, Method next, Method get, Method close)
+        {
+            this.results = results;
+            this.next = next;
+            this.get = get;
+            this.close = close;
+        }
+
+        @Override
+        public boolean next()
+        {
+            return (Boolean) invoke(next);
+        }
+
+        @Override
+        public Object get()
+        {
+            Object[] row = (Object[]) invoke(get);
+            return row.length == 1 ? row[0] : row;
+        }
+
+        @Override
+        public void close()
+        {
+            invoke(close);
+        }
+
+        private Object invoke(Method method)
+        {
+            try
+            {
+                return method.invoke(results);
+            }
+            catch (Exception e)
+            {
+                throw new RuntimeException(e);
+            }
+        }
+    }
+
+}
@@ -44,7 +44,7 @@ public class QueryStringExtractorFactory
         throw new RuntimeException("Persistence provider not supported");
     }
 
-    private static Object toImplQuery(final String clazzName, final Query query)
+    static Object toImplQuery(final String clazzName, final Query query)
     {
         try
         {
@@ -0,0 +1,50 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.deltaspike.data.impl.util.jpa;
+
+import javax.persistence.Query;
+
+public class ResultScrollerFactory
+{
+
+    private final ResultScroller[] scrollers = new ResultScroller[]
+    {
+        new HibernateResultScroller()
+    };
+
+    /**
+     * Opens a provider specific cursor over the result of the query.
+     *
+     * @return the cursor, or null if the persistence provider is not supported.
+     */
+    public ResultCursor scroll(final Query query, final int fetchSize)
+    {
+        for (final ResultScroller scroller : scrollers)
+        {
+            final String compare = scroller.getClass().getAnnotation(ProviderSpecific.class).value();
+            final Object implQuery = QueryStringExtractorFactory.toImplQuery(compare, query);
+            if (implQuery != null)
+            {
+                return scroller.scroll(implQuery, fetchSize);
+            }
+        }
+        return null;
+    }
+
+}
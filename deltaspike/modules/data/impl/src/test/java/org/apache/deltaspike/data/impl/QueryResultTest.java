@@ -231,6 +231,40 @@ public class QueryResultTest extends TransactionalTestCase
 
     }
 
+    @Test
+    public void should_page_with_keyset()
+    {
+        // given
+        final String name = "testPageWithKeyset";
+        builder.createSimple(name, Integer.valueOf(99));
+        builder.createSimple(name, Integer.valueOf(22));
+        builder.createSimple(name, Integer.valueOf(56));
+        builder.createSimple(name, Integer.valueOf(56));
+        builder.createSimple(name, Integer.valueOf(123));
+
+        // when
+        QueryResult<Simple> query = repo.findByName(name)
+                .orderAsc(Simple_.counter)
+                .orderAsc(Simple_.id)
+                .maxResults(2);
+        List<Simple> result1 = query.getResultList();
+        Simple last1 = result1.get(result1.size() - 1);
+        List<Simple> result2 = query.afterKey(last1.getCounter(), last1.getId()).getResultList();
+        Simple last2 = result2.get(result2.size() - 1);
+        List<Simple> result3 = query.afterKey(last2.getCounter(), last2.getId()).getResultList();
+
+        // then
+        assertEquals(2, result1.size());
+        assertEquals(22, result1.get(0).getCounter().intValue());
+        assertEquals(56, result1.get(1).getCounter().intValue());
+        assertEquals(2, result2.size());
+        assertEquals(56, result2.get(0).getCounter().intValue());
+        assertTrue(result2.get(0).getId() > last1.getId());
+        assertEquals(99, result2.get(1).getCounter().intValue());
+        assertEquals(1, result3.size());
+        assertEquals(123, result3.get(0).getCounter().intValue());
+    }
+
     @Test
     public void should_modify_named_query()
     {
@@ -312,6 +346,24 @@ public class QueryResultTest extends TransactionalTestCase
         assertEquals(2L, result);
     }
 
+    @Test
+    public void should_count_with_limit()
+    {
+        // given
+        final String name = "testCountWithLimit";
+        builder.createSimple(name);
+        builder.createSimple(name);
+        builder.createSimple(name);
+
+        // when
+        long limited = repo.findByQueryWithOrderBy(name).count(2);
+        long all = repo.findByQueryWithOrderBy(name).count(5);
+
+        // then
+        assertEquals(2L, limited);
+        assertEquals(3L, all);
+    }
+
     @Test
     public void should_query_optional()
     {
@@ -21,6 +21,11 @@ package org.apache.deltaspike.data.impl.audit;
 import static org.apache.deltaspike.data.test.util.TestDeployments.initDeployment;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
 
 import javax.enterprise.inject.Produces;
 import javax.persistence.EntityManager;
@@ -128,6 +133,28 @@ public class AuditEntityListenerTest extends TransactionalTestCase
         assertEquals(who, entity.getPrincipal().getName());
     }
 
+    @Test
+    public void should_create_dependent_listener_per_call()
+    {
+        // given
+        DependentAuditListener.reset();
+        AuditedEntity entity = new AuditedEntity();
+        entityManager.persist(entity);
+        entityManager.persist(new AuditedEntity());
+        entityManager.flush();
+
+        // when
+        entity.setName("test");
+        entityManager.flush();
+
+        // then
+        List<DependentAuditListener> usedInstances =
+                new ArrayList<DependentAuditListener>(DependentAuditListener.USED_INSTANCES);
+        assertEquals(3, usedInstances.size());
+        assertEquals(3, new HashSet<DependentAuditListener>(usedInstances).size());
+        assertTrue(DependentAuditListener.DESTROYED_INSTANCES.containsAll(usedInstances));
+    }
+
     @Override
     protected EntityManager getEntityManager()
     {
@@ -0,0 +1,74 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.deltaspike.data.impl.audit;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import javax.annotation.PreDestroy;
+import javax.enterprise.context.Dependent;
+
+import org.apache.deltaspike.data.test.domain.AuditedEntity;
+
+/**
+ * Records the instances which handled an {@link AuditedEntity} and the instances which got destroyed.
+ */
+@Dependent
+public class DependentAuditListener implements PrePersistAuditListener, PreUpdateAuditListener
+{
+
+    static final List<DependentAuditListener> USED_INSTANCES =
+            Collections.synchronizedList(new ArrayList<DependentAuditListener>());
+    static final List<DependentAuditListener> DESTROYED_INSTANCES =
+            Collections.synchronizedList(new ArrayList<DependentAuditListener>());
+
+    @Override
+    public void prePersist(Object entity)
+    {
+        record(entity);
+    }
+
+    @Override
+    public void preUpdate(Object entity)
+    {
+        record(entity);
+    }
+
+    @PreDestroy
+    protected void destroy()
+    {
+        DESTROYED_INSTANCES.add(this);
+    }
+
+    static void reset()
+    {
+        USED_INSTANCES.clear();
+        DESTROYED_INSTANCES.clear();
+    }
+
+    private void record(Object entity)
+    {
+        if (entity instanceof AuditedEntity)
+        {
+            USED_INSTANCES.add(this);
+        }
+    }
+
+}
@@ -62,6 +62,27 @@ public class TimestampsProviderTest
         assertNotNull(entity.getTimestamp());
     }
 
+    @Test
+    public void should_set_dates_for_repeated_calls()
+    {
+        // given
+        AuditedEntity first = new AuditedEntity();
+        AuditedEntity second = new AuditedEntity();
+        TimestampsProvider provider = new TimestampsProvider();
+
+        // when
+        provider.prePersist(first);
+        provider.prePersist(second);
+        provider.preUpdate(second);
+
+        // then
+        assertNotNull(first.getCreated());
+        assertNull(first.getGregorianModified());
+        assertNotNull(second.getCreated());
+        assertNotNull(second.getGregorianModified());
+        assertNotNull(second.getTimestamp());
+    }
+
     @Test
     public void should_not_fail_on_non_audited_entity()
     {
@@ -73,6 +73,23 @@ public class QueryRootTest
         assertEquals(expected, result);
     }
 
+    @Test
+    public void should_create_in_query()
+    {
+        // given
+        final String name = "findByIdInAndNameNotIn";
+        final String expected =
+                "select e from Simple e " +
+                        "where e.id in ?1 " +
+                        "and e.name not in ?2";
+
+        // when
+        String result = QueryRoot.create(name, repo, prefix(name)).getJpqlQuery().trim();
+
+        // then
+        assertEquals(expected, result);
+    }
+
     @Test
     public void should_create_query_with_order_by_only()
     {
@@ -0,0 +1,85 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.deltaspike.data.impl.builder.postprocessor;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+public class CountQueryPostProcessorTest
+{
+
+    @Test
+    public void should_rewrite_to_count_query()
+    {
+        assertEquals("select count(e) from Simple e where e.name = ?1",
+                CountQueryPostProcessor.rewrite("select e from Simple e where e.name = ?1 order by e.counter", false));
+        assertEquals("select count(e) from Simple e",
+                CountQueryPostProcessor.rewrite("from Simple e", false));
+    }
+
+    @Test
+    public void should_rewrite_distinct_and_fetch_join()
+    {
+        assertEquals("select count(distinct p) from Person as p join p.addresses a where a.city = :city",
+                CountQueryPostProcessor.rewrite("SELECT DISTINCT p from Person as p join fetch p.addresses a "
+                        + "where a.city = :city ORDER BY p.name", false));
+    }
+
+    @Test
+    public void should_keep_subqueries()
+    {
+        assertEquals("select count(e) from Simple e where e.id in (select max(s.id) from Simple s group by s.name)",
+                CountQueryPostProcessor.rewrite("select e.name, e.counter from Simple e "
+                        + "where e.id in (select max(s.id) from Simple s group by s.name)", false));
+    }
+
+    @Test
+    public void should_rewrite_to_limited_count_query()
+    {
+        assertEquals("select 1 from Simple e where e.name = ?1",
+                CountQueryPostProcessor.rewrite("select e from Simple e where e.name = ?1 order by e.id", true));
+        assertEquals("select distinct e.name from Simple e",
+                CountQueryPostProcessor.rewrite("select distinct e.name from Simple e", true));
+    }
+
+    @Test
+    public void should_count_groups_of_grouped_query()
+    {
+        assertEquals("select count(distinct e.name) from Simple e where e.enabled = true",
+                CountQueryPostProcessor.rewrite("select e.name, count(e) from Simple e where e.enabled = true "
+                        + "group by e.name order by e.name", false));
+        assertEquals("select distinct e.name from Simple e",
+                CountQueryPostProcessor.rewrite("select e.name, max(e.counter) from Simple e group by e.name", true));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void should_reject_grouped_query_with_having()
+    {
+        CountQueryPostProcessor.rewrite("select e.name, count(e) from Simple e group by e.name having count(e) > 1",
+                false);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void should_reject_query_grouped_by_several_expressions()
+    {
+        CountQueryPostProcessor.rewrite("select e.name, e.counter from Simple e group by e.name, e.counter", false);
+    }
+
+}
@@ -0,0 +1,73 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.deltaspike.data.impl.builder.result;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+
+import org.apache.deltaspike.data.api.ResultStream;
+import org.apache.deltaspike.data.api.StreamingResult;
+import org.apache.deltaspike.data.test.domain.Simple;
+import org.junit.Test;
+
+public class QueryProcessorFactoryTest
+{
+
+    @Test
+    public void should_build_streaming_processor() throws Exception
+    {
+        assertNotNull(QueryProcessorFactory.newInstance(
+                StreamingMethods.class.getMethod("stream")).build());
+        assertNotNull(QueryProcessorFactory.newInstance(
+                StreamingMethods.class.getMethod("iterate")).build());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void should_reject_streaming_result_without_streamed_return_type() throws Exception
+    {
+        QueryProcessorFactory.newInstance(StreamingMethods.class.getMethod("list")).build();
+    }
+
+    @Test
+    public void should_detect_order_by()
+    {
+        assertTrue(QueryProcessorFactory.isOrdered("select s from Simple s where s.name = ?1 ORDER BY s.id"));
+        assertTrue(QueryProcessorFactory.isOrdered("select s from Simple s order\n by s.id"));
+        assertFalse(QueryProcessorFactory.isOrdered("select s from Simple s where s.name = ?1"));
+        assertFalse(QueryProcessorFactory.isOrdered("select s from Simple s where s.border = ?1"));
+    }
+
+    private interface StreamingMethods
+    {
+
+        @StreamingResult
+        ResultStream<Simple> stream();
+
+        @StreamingResult
+        Iterable<Simple> iterate();
+
+        @StreamingResult
+        List<Simple> list();
+
+    }
+
+}
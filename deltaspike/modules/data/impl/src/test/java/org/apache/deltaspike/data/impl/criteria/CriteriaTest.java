@@ -293,6 +293,25 @@ public class CriteriaTest extends TransactionalTestCase
         }
     }
 
+    @Test
+    public void should_create_keyset_query()
+    {
+        // given
+        final String name = "should_create_keyset_query";
+        Simple first = createSimple(name, 10);
+        Simple second = createSimple(name, 20);
+        Simple third = createSimple(name, 20);
+        createSimple(name, 30);
+
+        // when
+        List<Simple> result = repo.queryAfterKey(name, first.getCounter(), first.getId(), 2);
+
+        // then
+        assertEquals(2, result.size());
+        assertEquals(second.getId(), result.get(0).getId());
+        assertEquals(third.getId(), result.get(1).getId());
+    }
+
     @Test
     public void should_create_select_criteria_with_optional_result()
     {
@@ -23,7 +23,11 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 import javax.enterprise.inject.Produces;
@@ -35,6 +39,7 @@ import javax.persistence.metamodel.SingularAttribute;
 import org.apache.deltaspike.data.test.TransactionalTestCase;
 import org.apache.deltaspike.data.test.domain.Simple;
 import org.apache.deltaspike.data.test.domain.Simple_;
+import org.apache.deltaspike.data.test.service.BatchedSimpleRepository;
 import org.apache.deltaspike.data.test.service.ExtendedRepositoryInterface;
 import org.apache.deltaspike.test.category.WebProfileCategory;
 import org.jboss.arquillian.container.test.api.Deployment;
@@ -50,13 +55,16 @@ public class EntityRepositoryHandlerTest extends TransactionalTestCase
     public static Archive<?> deployment()
     {
         return initDeployment()
-                .addClasses(ExtendedRepositoryInterface.class)
+                .addClasses(ExtendedRepositoryInterface.class, BatchedSimpleRepository.class)
                 .addPackage(Simple.class.getPackage());
     }
 
     @Inject
     private ExtendedRepositoryInterface repo;
 
+    @Inject
+    private BatchedSimpleRepository batchedRepo;
+
     @Produces
     @PersistenceContext
     private EntityManager entityManager;
@@ -136,6 +144,70 @@ public class EntityRepositoryHandlerTest extends TransactionalTestCase
         assertEquals(simple.getName(), find.getName());
     }
 
+    @Test
+    public void should_find_by_ids() throws Exception
+    {
+        // given
+        Simple first = testData.createSimple("testFindByIds1");
+        Simple second = testData.createSimple("testFindByIds2");
+        entityManager.clear();
+
+        // when
+        List<Simple> find = repo.findByIds(Arrays.asList(second.getId(), Long.valueOf(-1), first.getId()));
+
+        // then
+        assertEquals(2, find.size());
+        assertEquals(second.getId(), find.get(0).getId());
+        assertEquals(first.getId(), find.get(1).getId());
+    }
+
+    @Test
+    public void should_find_by_ids_in_several_chunks() throws Exception
+    {
+        // given
+        Simple first = testData.createSimple("testFindByIdsChunked1");
+        Simple second = testData.createSimple("testFindByIdsChunked2");
+        Simple third = testData.createSimple("testFindByIdsChunked3");
+        entityManager.clear();
+
+        // keys without entity push the second and third entity into the next chunk
+        List<Long> ids = new ArrayList<Long>();
+        ids.add(third.getId());
+        for (long i = 1; i <= EntityRepositoryHandler.MAX_IDS_PER_QUERY; i++)
+        {
+            ids.add(-i);
+        }
+        ids.add(first.getId());
+        ids.add(second.getId());
+
+        // when
+        List<Simple> find = repo.findByIds(ids);
+
+        // then
+        assertEquals(3, find.size());
+        assertEquals(third.getId(), find.get(0).getId());
+        assertEquals(first.getId(), find.get(1).getId());
+        assertEquals(second.getId(), find.get(2).getId());
+    }
+
+    @Test
+    public void should_find_by_ids_with_duplicate_ids() throws Exception
+    {
+        // given
+        Simple first = testData.createSimple("testFindByIdsDuplicates1");
+        Simple second = testData.createSimple("testFindByIdsDuplicates2");
+        entityManager.clear();
+
+        // when
+        List<Simple> find = repo.findByIds(Arrays.asList(first.getId(), second.getId(), first.getId()));
+
+        // then
+        assertEquals(3, find.size());
+        assertEquals(first.getId(), find.get(0).getId());
+        assertEquals(second.getId(), find.get(1).getId());
+        assertSame(find.get(0), find.get(2));
+    }
+
     @Test
     @SuppressWarnings("unchecked")
     public void should_find_by_example() throws Exception
@@ -339,6 +411,95 @@ public class EntityRepositoryHandlerTest extends TransactionalTestCase
         assertNull(lookup);
     }
 
+    @Test
+    public void should_save_all()
+    {
+        // given
+        Simple existing = testData.createSimple("testSaveAll");
+        existing.setName("testSaveAllUpdated");
+        List<Simple> simples = Arrays.asList(new Simple("testSaveAll1"), new Simple("testSaveAll2"), existing);
+
+        // when
+        int count = repo.saveAll(simples);
+
+        // then
+        assertEquals(3, count);
+        assertNotNull(simples.get(0).getId());
+        assertNotNull(simples.get(1).getId());
+        assertEquals("testSaveAllUpdated", entityManager.find(Simple.class, existing.getId()).getName());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void should_persist_all()
+    {
+        // given
+        List<Simple> simples = Arrays.asList(new Simple("testPersistAll1"), new Simple("testPersistAll2"));
+
+        // when
+        int count = repo.persistAll(simples);
+
+        // then
+        assertEquals(2, count);
+        assertEquals(Long.valueOf(2), repo.countLike(new Simple("testPersistAll"), Simple_.name));
+    }
+
+    @Test
+    public void should_remove_all()
+    {
+        // given
+        Simple managed = testData.createSimple("testRemoveAll1");
+        Simple detached = testData.createSimple("testRemoveAll2");
+        entityManager.detach(detached);
+
+        // when
+        int count = repo.removeAll(Arrays.asList(managed, detached));
+
+        // then
+        assertEquals(2, count);
+        assertNull(entityManager.find(Simple.class, managed.getId()));
+        assertNull(entityManager.find(Simple.class, detached.getId()));
+    }
+
+    @Test
+    public void should_detach_entities_after_each_batch()
+    {
+        // given
+        List<Simple> simples = Arrays.asList(new Simple("testPersistBatch1"), new Simple("testPersistBatch2"),
+                new Simple("testPersistBatch3"));
+
+        // when
+        int count = batchedRepo.persistAll(simples);
+
+        // then
+        assertEquals(3, count);
+        assertFalse(entityManager.contains(simples.get(0)));
+        assertFalse(entityManager.contains(simples.get(1)));
+        assertTrue(entityManager.contains(simples.get(2)));
+        assertNotNull(entityManager.find(Simple.class, simples.get(0).getId()));
+        assertNotNull(entityManager.find(Simple.class, simples.get(1).getId()));
+    }
+
+    @Test
+    public void should_remove_entities_detached_by_earlier_batch()
+    {
+        // given
+        Simple first = testData.createSimple("testRemoveBatch1");
+        Simple second = testData.createSimple("testRemoveBatch2");
+        Simple third = testData.createSimple("testRemoveBatch3");
+        assertTrue(entityManager.contains(third));
+
+        // when
+        // the first batch clears the EntityManager, so the third entity is detached when it gets removed
+        int count = batchedRepo.removeAll(Arrays.asList(first, second, third));
+
+        // then
+        assertEquals(3, count);
+        assertNull(entityManager.find(Simple.class, first.getId()));
+        assertNull(entityManager.find(Simple.class, second.getId()));
+        assertNull(entityManager.find(Simple.class, third.getId()));
+    }
+
     @Override
     protected EntityManager getEntityManager()
     {
@@ -25,6 +25,8 @@ import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 
+import java.util.Arrays;
+import java.util.Iterator;
 import java.util.List;
 
 import javax.enterprise.inject.Produces;
@@ -33,6 +35,7 @@ import javax.persistence.EntityManager;
 import javax.persistence.NonUniqueResultException;
 import javax.persistence.PersistenceContext;
 
+import org.apache.deltaspike.data.api.ResultStream;
 import org.apache.deltaspike.data.test.TransactionalTestCase;
 import org.apache.deltaspike.data.test.domain.Simple;
 import org.apache.deltaspike.data.test.domain.Simple2;
@@ -179,6 +182,82 @@ public class QueryHandlerTest extends TransactionalTestCase
         assertEquals(second.getId(), result.get(0).getId());
     }
 
+    @Test
+    public void should_stream_result_in_chunks()
+    {
+        // given
+        final String name = "testStreamResultInChunks";
+        Simple first = builder.createSimple(name);
+        builder.createSimple(name);
+        builder.createSimple(name);
+        builder.createSimple(name);
+        Simple last = builder.createSimple(name);
+
+        // when
+        ResultStream<Simple> result = repo.streamByName(name);
+
+        // then
+        int count = 0;
+        Simple previous = null;
+        for (Simple simple : result)
+        {
+            if (count == 0)
+            {
+                assertEquals(first.getId(), simple.getId());
+            }
+            if (previous != null)
+            {
+                assertTrue(previous.getId() < simple.getId());
+            }
+            previous = simple;
+            count++;
+        }
+        assertEquals(5, count);
+        assertEquals(last.getId(), previous.getId());
+    }
+
+    @Test
+    public void should_iterate_result_and_clear_entity_manager()
+    {
+        // given
+        final String name = "testIterateResultAndClearEntityManager";
+        Simple first = builder.createSimple(name);
+        builder.createSimple(name);
+        builder.createSimple(name);
+
+        // when
+        Iterable<Simple> result = repo.iterateByName(name);
+
+        // then
+        assertTrue(result instanceof ResultStream);
+        int count = 0;
+        Iterator<Simple> iterator = result.iterator();
+        while (iterator.hasNext())
+        {
+            Simple simple = iterator.next();
+            assertEquals(name, simple.getName());
+            count++;
+        }
+        assertEquals(3, count);
+        assertFalse(entityManager.contains(first));
+    }
+
+    @Test
+    public void should_not_stream_iterable_without_streaming_result()
+    {
+        // given
+        final String name = "testNotStreamIterable";
+        builder.createSimple(name);
+        builder.createSimple(name);
+
+        // when
+        Iterable<Simple> result = repo.findIterableByName(name);
+
+        // then
+        assertTrue(result instanceof List);
+        assertEquals(2, ((List<?>) result).size());
+    }
+
     @Test
     public void should_work_with_2nd_repo()
     {
@@ -398,6 +477,23 @@ public class QueryHandlerTest extends TransactionalTestCase
         assertEquals(name, result.getName());
     }
 
+    @Test
+    public void should_create_in_query_for_collection()
+    {
+        // given
+        Simple first = builder.createSimple("testIn1");
+        builder.createSimple("testIn2");
+        Simple third = builder.createSimple("testIn3");
+
+        // when
+        List<Simple> result = repo.findByNameInOrderByIdAsc(Arrays.asList("testIn1", "testIn3", "testInMissing"));
+
+        // then
+        assertEquals(2, result.size());
+        assertEquals(first.getId(), result.get(0).getId());
+        assertEquals(third.getId(), result.get(1).getId());
+    }
+
     @Before
     public void setup()
     {
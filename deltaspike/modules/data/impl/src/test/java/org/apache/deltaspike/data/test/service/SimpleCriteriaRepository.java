@@ -49,6 +49,18 @@ public abstract class SimpleCriteriaRepository extends AbstractEntityRepository<
                 .getOptionalResult();
     }
 
+    public List<Simple> queryAfterKey(String name, Integer counter, Long id, int max)
+    {
+        return criteria()
+                .eq(Simple_.name, name)
+                .orderAsc(Simple_.counter)
+                .orderAsc(Simple_.id)
+                .afterKey(counter, id)
+                .createQuery()
+                .setMaxResults(max)
+                .getResultList();
+    }
+
     public Simple queryAny(String name)
     {
         return criteria()
@@ -22,6 +22,7 @@ import static javax.persistence.LockModeType.PESSIMISTIC_WRITE;
 import static org.apache.deltaspike.data.api.SingleResultType.ANY;
 import static org.apache.deltaspike.data.api.SingleResultType.OPTIONAL;
 
+import java.util.Collection;
 import java.util.List;
 
 import javax.persistence.EntityManager;
@@ -34,6 +35,8 @@ import org.apache.deltaspike.data.api.Query;
 import org.apache.deltaspike.data.api.QueryParam;
 import org.apache.deltaspike.data.api.QueryResult;
 import org.apache.deltaspike.data.api.Repository;
+import org.apache.deltaspike.data.api.ResultStream;
+import org.apache.deltaspike.data.api.StreamingResult;
 import org.apache.deltaspike.data.test.domain.Simple;
 
 @Repository
@@ -80,6 +83,8 @@ public abstract class SimpleRepository extends AbstractEntityRepository<Simple,
 
     public abstract Simple findByNameIgnoreCase(String name);
 
+    public abstract List<Simple> findByNameInOrderByIdAsc(Collection<String> names);
+
     public abstract Simple findOptionalByName(String name);
 
     public abstract Simple findAnyByName(String name);
@@ -101,6 +106,17 @@ public abstract class SimpleRepository extends AbstractEntityRepository<Simple,
 
     public abstract QueryResult<Simple> findByName(String name);
 
+    @StreamingResult(chunkSize = 2)
+    @Query("select s from Simple s where s.name = ?1 order by s.id")
+    public abstract ResultStream<Simple> streamByName(String name);
+
+    @StreamingResult(chunkSize = 2, clearEntityManager = true)
+    @Query("select s from Simple s where s.name = ?1 order by s.id")
+    public abstract Iterable<Simple> iterateByName(String name);
+
+    @Query("select s from Simple s where s.name = ?1 order by s.id")
+    public abstract Iterable<Simple> findIterableByName(String name);
+
     @Override
     protected abstract EntityManager entityManager();
 